@@ -0,0 +1,67 @@
+package com.demo.quizarena.bench;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Compare two JMH JSON result files (baseline first) and flag every benchmark that got slower by
+ * more than the threshold. Exits with status 1 if any did, so it can gate a build.
+ * <pre>
+ *   java -cp target/test-classes:... com.demo.quizarena.bench.BenchmarkDiff baseline.json target/jmh-result.json [0.10]
+ * </pre>
+ * Scores are compared in the benchmark's own mode: higher is better for throughput, lower for
+ * time-per-operation modes.
+ */
+public class BenchmarkDiff {
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2) {
+            System.err.println("usage: BenchmarkDiff <baseline.json> <current.json> [threshold, default 0.10]");
+            System.exit(2);
+        }
+        double threshold = args.length > 2 ? Double.parseDouble(args[2]) : 0.10;
+        Map<String, JsonNode> baseline = load(new File(args[0]));
+        Map<String, JsonNode> current = load(new File(args[1]));
+
+        int regressions = 0;
+        System.out.printf("%-70s %14s %14s %8s%n", "benchmark", "baseline", "current", "change");
+        for (Map.Entry<String, JsonNode> e : current.entrySet()) {
+            JsonNode before = baseline.get(e.getKey());
+            JsonNode after = e.getValue();
+            String unit = after.get("primaryMetric").get("scoreUnit").asText();
+            double now = after.get("primaryMetric").get("score").asDouble();
+            if (before == null) {
+                System.out.printf("%-70s %14s %14.3f %8s  %s (new)%n", e.getKey(), "-", now, "", unit);
+                continue;
+            }
+            double was = before.get("primaryMetric").get("score").asDouble();
+            boolean higherIsBetter = "thrpt".equals(after.get("mode").asText());
+            double change = (now - was) / was;
+            boolean regressed = higherIsBetter ? change < -threshold : change > threshold;
+            if (regressed) regressions++;
+            System.out.printf("%-70s %14.3f %14.3f %+7.1f%%  %s%s%n", e.getKey(), was, now, change * 100, unit, regressed ? "  REGRESSION" : "");
+        }
+        System.out.println(regressions == 0 ? "no regressions" : regressions + " regression(s) beyond " + Math.round(threshold * 100) + "%");
+        if (regressions > 0) System.exit(1);
+    }
+
+    /** Results keyed by benchmark name plus parameters, e.g. {@code ...full[players=10000]}. */
+    private static Map<String, JsonNode> load(File file) throws Exception {
+        Map<String, JsonNode> results = new LinkedHashMap<>();
+        for (JsonNode run : new ObjectMapper().readTree(file)) {
+            StringBuilder key = new StringBuilder(run.get("benchmark").asText().replace("com.demo.quizarena.bench.", ""));
+            JsonNode params = run.get("params");
+            if (params != null) {
+                key.append('[');
+                params.fields().forEachRemaining(p -> key.append(p.getKey()).append('=').append(p.getValue().asText()).append(','));
+                key.setCharAt(key.length() - 1, ']');
+            }
+            results.put(key.toString(), run);
+        }
+        return results;
+    }
+}
@@ -0,0 +1,51 @@
+package com.demo.quizarena.bench;
+
+import com.demo.quizarena.realtime.LeaderboardPush;
+import com.demo.quizarena.service.RoomService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.SplittableRandom;
+
+/** Building a room's leaderboard frame: the full board and the top-10 cut, by room size. */
+@State(Scope.Benchmark)
+public class LeaderboardBenchmark {
+
+    @Param({"100", "10000", "100000"})
+    public int players;
+
+    private RoomService rooms;
+    private RoomService.Room room;
+
+    @Setup
+    public void fillRoom() {
+        PrintStream console = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream())); // joinRoom logs every join
+        try {
+            rooms = new RoomService(null);
+            room = rooms.createRoom();
+            SplittableRandom random = new SplittableRandom(42);
+            for (int i = 0; i < players; i++) {
+                RoomService.Player p = rooms.joinRoom(room.code, "player-" + i);
+                rooms.addScore(room, p.slot, random.nextInt(20_000));
+            }
+        } finally {
+            System.setOut(console);
+        }
+    }
+
+    @Benchmark
+    public LeaderboardPush full() {
+        return rooms.leaderboard(room);
+    }
+
+    @Benchmark
+    public LeaderboardPush top10() {
+        return rooms.leaderboard(room, 10);
+    }
+}
@@ -0,0 +1,38 @@
+package com.demo.quizarena.bench;
+
+import com.demo.quizarena.domain.QuestionOptions;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * The {@code optionsJson} parser. Games no longer parse per push (questions are parsed once into a
+ * {@code QuestionSnapshot}), so this is now the cost of loading the bank and of the admin endpoints;
+ * {@link #regexSplit} is the split-and-regex parser the services used to run per push, kept as the baseline.
+ */
+@State(Scope.Benchmark)
+public class OptionsParserBenchmark {
+
+    private static final String OPTIONS = "[\"梵蒂冈\",\"摩纳哥\",\"圣马力诺\",\"列支敦士登\"]";
+
+    @Benchmark
+    public List<String> questionOptions() {
+        return QuestionOptions.parse(OPTIONS);
+    }
+
+    @Benchmark
+    public List<String> regexSplit() {
+        String s = OPTIONS.trim();
+        if (s.startsWith("[")) s = s.substring(1);
+        if (s.endsWith("]")) s = s.substring(0, s.length() - 1);
+        if (s.isBlank()) return List.of();
+        return Arrays.stream(s.split(","))
+                .map(String::trim)
+                .map(x -> x.replaceAll("^\"|\"$", ""))
+                .collect(Collectors.toList());
+    }
+}
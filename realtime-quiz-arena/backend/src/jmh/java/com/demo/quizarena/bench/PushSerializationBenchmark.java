@@ -0,0 +1,54 @@
+package com.demo.quizarena.bench;
+
+import com.demo.quizarena.realtime.LeaderboardEntry;
+import com.demo.quizarena.realtime.LeaderboardPush;
+import com.demo.quizarena.realtime.QuestionPush;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/** JSON encoding of the two hottest broadcast payloads, as the broker does once per broadcast. */
+@State(Scope.Benchmark)
+public class PushSerializationBenchmark {
+
+    @Param({"10", "1000"})
+    public int entries;
+
+    private final ObjectMapper json = new ObjectMapper();
+    private QuestionPush question;
+    private LeaderboardPush leaderboard;
+
+    @Setup
+    public void build() {
+        question = new QuestionPush();
+        question.questionId = 42L;
+        question.stem = "哪个国家是世界上面积最小的国家？";
+        question.options = List.of("梵蒂冈", "摩纳哥", "圣马力诺", "列支敦士登");
+        question.openedAtEpochMs = System.currentTimeMillis();
+        question.closedAtEpochMs = question.openedAtEpochMs + 15_000;
+        question.currentIndex = 3;
+        question.totalCount = 20;
+
+        List<LeaderboardEntry> list = new ArrayList<>(entries);
+        for (int i = 0; i < entries; i++) {
+            list.add(new LeaderboardEntry("player-" + i, 30_000 - i * 7, i, i + 1));
+        }
+        leaderboard = new LeaderboardPush(list, System.currentTimeMillis(), 12, true);
+    }
+
+    @Benchmark
+    public byte[] questionPush() throws Exception {
+        return json.writeValueAsBytes(question);
+    }
+
+    @Benchmark
+    public byte[] leaderboardPush() throws Exception {
+        return json.writeValueAsBytes(leaderboard);
+    }
+}
@@ -0,0 +1,25 @@
+package com.demo.quizarena.bench;
+
+import com.demo.quizarena.service.RoomCodeAllocator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+/** Room code allocation (what replaced {@code randomCode}), single-threaded and contended. */
+@State(Scope.Benchmark)
+public class RoomCodeBenchmark {
+
+    private final RoomCodeAllocator codes = new RoomCodeAllocator(3_600_000);
+
+    @Benchmark
+    public String next() {
+        return codes.next(code -> true);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public String nextContended() {
+        return codes.next(code -> true);
+    }
+}
@@ -0,0 +1,51 @@
+package com.demo.quizarena.bench;
+
+import com.demo.quizarena.service.RoomService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+
+/**
+ * {@code createRoom} end to end (code allocation, registry insert, host token), single-threaded and
+ * contended. Each created room is removed again so the registry stays small; with no code
+ * quarantine its code is then mostly recycled, so fresh-code allocation is left to
+ * {@link RoomCodeBenchmark}. The service's console logging is muted while measuring.
+ */
+@State(Scope.Benchmark)
+public class RoomCreateBenchmark {
+
+    private final RoomService service = new RoomService(null, Integer.MAX_VALUE, Integer.MAX_VALUE, 0);
+    private PrintStream console;
+
+    @Setup
+    public void muteLogging() {
+        console = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+    }
+
+    @TearDown
+    public void restoreLogging() {
+        System.setOut(console);
+    }
+
+    @Benchmark
+    public RoomService.Room createRoom() {
+        RoomService.Room room = service.createRoom();
+        service.removeRoom(room);
+        return room;
+    }
+
+    @Benchmark
+    @Threads(4)
+    public RoomService.Room createRoomContended() {
+        RoomService.Room room = service.createRoom();
+        service.removeRoom(room);
+        return room;
+    }
+}
@@ -0,0 +1,29 @@
+package com.demo.quizarena.bench;
+
+import com.demo.quizarena.service.ScoreService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+/** Per-answer scoring: the double-based rule and the fixed-point one used by deferred scoring. */
+@State(Scope.Thread)
+public class ScoreBenchmark {
+
+    private final ScoreService scores = new ScoreService();
+    private long latencyMs = 0;
+
+    private long nextLatency() {
+        latencyMs = (latencyMs + 137) % 20_000; // spans early, late and past-the-limit answers
+        return latencyMs;
+    }
+
+    @Benchmark
+    public int computeScore() {
+        return scores.computeScore(true, 1000, 15, nextLatency());
+    }
+
+    @Benchmark
+    public int computeScoreFixed() {
+        return scores.computeScoreFixed(1000, 15_000, nextLatency());
+    }
+}
@@ -0,0 +1,186 @@
+package com.demo.quizarena.bench;
+
+import com.demo.quizarena.config.ThreadMode;
+import com.demo.quizarena.config.ThreadingConfig;
+import com.demo.quizarena.service.RoomEventLoop;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A start storm: {@value #ROOMS} hosts press start at once, each start costing a {@value #DB_MS} ms
+ * question query, run either on the room's event loop (before) or on the request thread (now).
+ *
+ * The threads are the ones the app would run with for {@code quiz.threads.mode}, built like
+ * {@link ThreadingConfig} and {@link com.demo.quizarena.config.WebSocketConfig} build them:
+ * <ul>
+ *   <li>start requests run on Tomcat's pool ({@code tomcatMaxThreads}, {@code server.tomcat.threads.max})
+ *       or a virtual thread each</li>
+ *   <li>answers arrive on the STOMP inbound channel executor, which hands them to the room's loop;
+ *       Spring's default pool ({@code channelCorePoolSize}, 0 = its default of 2 × cores) or a
+ *       virtual thread each</li>
+ *   <li>each start's question push leaves through the outbound channel executor, configured the same way</li>
+ * </ul>
+ * Benchmarks:
+ * <ul>
+ *   <li>{@code storm}: how long until every room's question push has been sent</li>
+ *   <li>{@code answerDuringStorm}: inbound channel to room event loop for one answer while starts
+ *       keep {@value #ROOMS} requests in flight (sampled, so the report has percentiles)</li>
+ * </ul>
+ * Other pool sizes: {@code -p tomcatMaxThreads=...,... -p channelCorePoolSize=...}.
+ * Virtual threads need JDK 21+; on older runtimes the app falls back to platform pools, so those
+ * runs fail in setup rather than report platform numbers under the virtual label.
+ */
+@State(Scope.Benchmark)
+public class StartStormBenchmark {
+
+    private static final int ROOMS = 1_000;
+    private static final long DB_MS = 30;
+    private static final int LOOP_WORKERS = 4;
+
+    @Param({"loop", "request"})
+    public String queryOn;
+
+    @Param({"PLATFORM", "VIRTUAL"})
+    public ThreadMode threads;
+
+    @Param({"50", "200"})
+    public int tomcatMaxThreads;
+
+    @Param({"0"})
+    public int channelCorePoolSize;
+
+    private RoomEventLoop loop;
+    private Executor requestThreads;
+    private Executor inbound;
+    private Executor outbound;
+    private final List<Runnable> shutdowns = new ArrayList<>();
+    private final Semaphore inFlight = new Semaphore(ROOMS);
+    private volatile boolean storming;
+    private Thread feeder;
+
+    @Setup(Level.Iteration)
+    public void start(BenchmarkParams params) {
+        ThreadingConfig threading = new ThreadingConfig(threads);
+        if (threads == ThreadMode.VIRTUAL && !threading.isVirtual()) {
+            throw new IllegalStateException("virtual threads need JDK 21+, runtime is " + Runtime.version());
+        }
+        loop = new RoomEventLoop(LOOP_WORKERS);
+        if (threading.isVirtual()) {
+            requestThreads = threading.executor("http-vt-");
+            inbound = threading.executor("ws-in-vt-");
+            outbound = threading.executor("ws-out-vt-");
+        } else {
+            ExecutorService tomcat = Executors.newFixedThreadPool(tomcatMaxThreads);
+            shutdowns.add(tomcat::shutdown);
+            requestThreads = tomcat;
+            inbound = channelPool("clientInboundChannel-");
+            outbound = channelPool("clientOutboundChannel-");
+        }
+        if (params.getBenchmark().endsWith("answerDuringStorm")) {
+            storming = true;
+            feeder = new Thread(this::keepStorming, "storm-feeder");
+            feeder.start();
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void stop() throws InterruptedException {
+        storming = false;
+        if (feeder != null) {
+            feeder.join();
+            feeder = null;
+        }
+        inFlight.acquire(ROOMS); // every start has finished
+        inFlight.release(ROOMS);
+        shutdowns.forEach(Runnable::run);
+        shutdowns.clear();
+        loop.shutdown();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public void storm() throws InterruptedException {
+        CountDownLatch pushed = new CountDownLatch(ROOMS);
+        for (int r = 0; r < ROOMS; r++) {
+            String code = "R" + r;
+            requestThreads.execute(() -> startRoom(code, pushed::countDown));
+        }
+        pushed.await();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public Object answerDuringStorm() {
+        String code = "R" + ThreadLocalRandom.current().nextInt(ROOMS);
+        CompletableFuture<Boolean> scored = new CompletableFuture<>();
+        inbound.execute(() -> loop.execute(code, () -> scored.complete(Boolean.TRUE)));
+        return scored.join();
+    }
+
+    private void keepStorming() {
+        try {
+            while (storming) {
+                if (!inFlight.tryAcquire(10, TimeUnit.MILLISECONDS)) continue;
+                String code = "R" + ThreadLocalRandom.current().nextInt(ROOMS);
+                requestThreads.execute(() -> startRoom(code, inFlight::release));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /** The start request: draw questions, open the first one on the room loop, push it out. */
+    private void startRoom(String code, Runnable pushed) {
+        if (queryOn.equals("loop")) {
+            loop.call(code, StartStormBenchmark::query);
+        } else {
+            query();
+            loop.call(code, () -> null);
+        }
+        outbound.execute(pushed);
+    }
+
+    private static Object query() {
+        try {
+            Thread.sleep(DB_MS); // stands in for the count() + ORDER BY RANDOM() queries the start used to run
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return null;
+    }
+
+    /** What Spring gives a STOMP channel without a configured executor. */
+    private Executor channelPool(String threadNamePrefix) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(channelCorePoolSize > 0 ? channelCorePoolSize : Runtime.getRuntime().availableProcessors() * 2);
+        executor.setAllowCoreThreadTimeOut(true);
+        executor.setThreadNamePrefix(threadNamePrefix);
+        executor.initialize();
+        shutdowns.add(executor::shutdown);
+        return executor;
+    }
+}
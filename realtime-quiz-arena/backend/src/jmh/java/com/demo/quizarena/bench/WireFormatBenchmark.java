@@ -0,0 +1,124 @@
+package com.demo.quizarena.bench;
+
+import com.demo.quizarena.realtime.AnswerSubmitMessage;
+import com.demo.quizarena.realtime.CompactCborCodec;
+import com.demo.quizarena.realtime.LeaderboardEntry;
+import com.demo.quizarena.realtime.LeaderboardPush;
+import com.demo.quizarena.realtime.QuestionPush;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * JSON vs compact CBOR for the realtime frames. Both are encoded straight from the DTO, as
+ * RoomBroadcaster does; the CBOR encode is what binary sessions cost on top of the shared JSON
+ * encode ({@link CompactCborCodec#encode}). Encoded sizes are printed once per trial.
+ */
+@State(Scope.Benchmark)
+public class WireFormatBenchmark {
+
+    @Param({"1000"})
+    public int entries;
+
+    private final ObjectMapper json = new ObjectMapper();
+    private final CompactCborCodec codec = new CompactCborCodec();
+    private final CBORMapper cbor = codec.cborMapper();
+
+    private LeaderboardPush leaderboard;
+    private QuestionPush question;
+    private byte[] leaderboardJson;
+    private byte[] leaderboardCbor;
+    private byte[] questionJson;
+    private byte[] questionCbor;
+    private byte[] answerJson;
+    private byte[] answerCbor;
+
+    @Setup
+    public void build() throws Exception {
+        List<LeaderboardEntry> list = new ArrayList<>(entries);
+        for (int i = 0; i < entries; i++) {
+            list.add(new LeaderboardEntry("player-" + i, 30_000 - i * 7, i, i + 1));
+        }
+        leaderboard = new LeaderboardPush(list, System.currentTimeMillis(), 12, true);
+
+        question = new QuestionPush();
+        question.questionId = 42L;
+        question.stem = "世界上最小的国家是？";
+        question.options = List.of("梵蒂冈", "摩纳哥", "列支敦士登", "圣马力诺");
+        question.openedAtEpochMs = System.currentTimeMillis();
+        question.closedAtEpochMs = question.openedAtEpochMs + 15_000;
+        question.currentIndex = 1;
+        question.totalCount = 20;
+
+        // a JSON client answers with its playerId and the option text, a compact one with slot and index
+        AnswerSubmitMessage jsonAnswer = new AnswerSubmitMessage();
+        jsonAnswer.playerId = UUID.randomUUID().toString();
+        jsonAnswer.answer = "梵蒂冈";
+        jsonAnswer.questionId = 42L;
+        jsonAnswer.clientTimestampMs = System.currentTimeMillis();
+        AnswerSubmitMessage compactAnswer = new AnswerSubmitMessage();
+        compactAnswer.slot = 17;
+        compactAnswer.optionIndex = 0;
+        compactAnswer.questionId = 42L;
+        compactAnswer.clientTimestampMs = jsonAnswer.clientTimestampMs;
+
+        leaderboardJson = json.writeValueAsBytes(leaderboard);
+        leaderboardCbor = codec.encode(leaderboard);
+        questionJson = json.writeValueAsBytes(question);
+        questionCbor = codec.encode(question);
+        answerJson = json.writeValueAsBytes(jsonAnswer);
+        answerCbor = cbor.writeValueAsBytes(compactAnswer);
+        System.out.printf("[WireFormatBenchmark] 帧大小 json/cbor 字节: leaderboard(%d)=%d/%d, question=%d/%d, answer=%d/%d%n",
+                entries, leaderboardJson.length, leaderboardCbor.length, questionJson.length, questionCbor.length,
+                answerJson.length, answerCbor.length);
+    }
+
+    @Benchmark
+    public byte[] leaderboardJsonEncode() throws Exception {
+        return json.writeValueAsBytes(leaderboard);
+    }
+
+    @Benchmark
+    public byte[] leaderboardCborEncode() {
+        return codec.encode(leaderboard);
+    }
+
+    @Benchmark
+    public JsonNode leaderboardCborDecode() throws Exception {
+        return cbor.readTree(leaderboardCbor);
+    }
+
+    @Benchmark
+    public byte[] questionJsonEncode() throws Exception {
+        return json.writeValueAsBytes(question);
+    }
+
+    @Benchmark
+    public byte[] questionCborEncode() {
+        return codec.encode(question);
+    }
+
+    @Benchmark
+    public JsonNode questionCborDecode() throws Exception {
+        return cbor.readTree(questionCbor);
+    }
+
+    @Benchmark
+    public AnswerSubmitMessage answerJsonDecode() throws Exception {
+        return json.readValue(answerJson, AnswerSubmitMessage.class);
+    }
+
+    @Benchmark
+    public AnswerSubmitMessage answerCborDecode() throws Exception {
+        return cbor.readValue(answerCbor, AnswerSubmitMessage.class);
+    }
+}
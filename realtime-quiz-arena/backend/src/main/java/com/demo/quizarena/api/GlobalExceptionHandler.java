@@ -1,5 +1,7 @@
 package com.demo.quizarena.api;
 
+import com.demo.quizarena.metrics.QuizMetrics;
+import com.demo.quizarena.service.CapacityExceededException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -11,6 +13,20 @@ import java.util.Map;
 @RestControllerAdvice
 public class GlobalExceptionHandler {
 
+    private final QuizMetrics metrics;
+
+    public GlobalExceptionHandler(QuizMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    @ExceptionHandler(CapacityExceededException.class)
+    public ResponseEntity<Map<String, String>> handleCapacity(CapacityExceededException e) {
+        metrics.recordCapacityRejection();
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header("Retry-After", "30")
+                .body(Map.of("message", e.getMessage() != null ? e.getMessage() : "服务器繁忙"));
+    }
+
     @ExceptionHandler(NoSuchElementException.class)
     public ResponseEntity<Map<String, String>> handleNoSuchElement(NoSuchElementException e) {
         return ResponseEntity.status(HttpStatus.NOT_FOUND)
@@ -4,7 +4,10 @@ import com.demo.quizarena.api.dto.CreateQuestionRequest;
 import com.demo.quizarena.api.dto.QuestionResponse;
 import com.demo.quizarena.api.dto.QuestionWithAnswerResponse;
 import com.demo.quizarena.domain.Question;
+import com.demo.quizarena.domain.QuestionOptions;
+import com.demo.quizarena.domain.QuestionSnapshot;
 import com.demo.quizarena.repo.QuestionRepository;
+import com.demo.quizarena.service.QuestionBank;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import org.springframework.data.domain.Page;
@@ -15,7 +18,6 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.Instant;
-import java.util.Arrays;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -25,15 +27,17 @@ import java.util.stream.Collectors;
 public class QuestionController {
 
     private final QuestionRepository questionRepository;
+    private final QuestionBank questionBank;
 
-    public QuestionController(QuestionRepository questionRepository) {
+    public QuestionController(QuestionRepository questionRepository, QuestionBank questionBank) {
         this.questionRepository = questionRepository;
+        this.questionBank = questionBank;
     }
 
     @PostMapping
     public ResponseEntity<QuestionResponse> createQuestion(@Valid @RequestBody CreateQuestionRequest req) {
-        String optionsJson = toJsonArray(req.options);
-        
+        String optionsJson = optionsWithAnswer(req);
+
         Question q = new Question();
         q.setStem(req.stem);
         q.setOptionsJson(optionsJson);
@@ -45,6 +49,7 @@ public class QuestionController {
         q.setUpdatedAt(Instant.now());
         
         Question saved = questionRepository.save(q);
+        questionBank.put(saved);
         return ResponseEntity.status(HttpStatus.CREATED).body(toQuestionResponse(saved));
     }
 
@@ -81,7 +86,7 @@ public class QuestionController {
         Question q = questionRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Question not found: " + id));
         
-        String optionsJson = toJsonArray(req.options);
+        String optionsJson = optionsWithAnswer(req);
         q.setStem(req.stem);
         q.setOptionsJson(optionsJson);
         q.setCorrectAnswer(req.correctAnswer);
@@ -92,6 +97,7 @@ public class QuestionController {
         q.setUpdatedAt(Instant.now());
         
         Question saved = questionRepository.save(q);
+        questionBank.put(saved);
         return ResponseEntity.ok(toQuestionResponse(saved));
     }
 
@@ -101,21 +107,35 @@ public class QuestionController {
             return ResponseEntity.notFound().build();
         }
         questionRepository.deleteById(id);
+        questionBank.remove(id);
         return ResponseEntity.noContent().build();
     }
 
     @GetMapping("/random")
     public ResponseEntity<List<QuestionResponse>> getRandomQuestions(
+            @RequestParam(required = false) String category,
             @RequestParam(defaultValue = "20") int count) {
-        List<Question> questions = questionRepository.findRandomQuestions(count);
+        List<QuestionSnapshot> questions = category != null && !category.isBlank()
+                ? questionBank.sample(category, count)
+                : questionBank.sample(count);
         List<QuestionResponse> responses = questions.stream()
                 .map(this::toQuestionResponse)
                 .collect(Collectors.toList());
         return ResponseEntity.ok(responses);
     }
 
+    /** Options as stored, once the correct answer is known to be one of them as games will read them back. */
+    private static String optionsWithAnswer(CreateQuestionRequest req) {
+        String optionsJson = QuestionOptions.toJson(req.options);
+        if (!QuestionOptions.parse(optionsJson).contains(req.correctAnswer)) {
+            System.err.println("[QuestionController] 正确答案不在选项中，已拒绝: correctAnswer=" + req.correctAnswer + ", options=" + req.options);
+            throw new IllegalArgumentException("正确答案必须是选项之一");
+        }
+        return optionsJson;
+    }
+
     private QuestionResponse toQuestionResponse(Question q) {
-        List<String> options = parseOptions(q.getOptionsJson());
+        List<String> options = QuestionOptions.parse(q.getOptionsJson());
         return new QuestionResponse(
                 q.getId(),
                 q.getStem(),
@@ -127,28 +147,16 @@ public class QuestionController {
         );
     }
 
-    private String toJsonArray(List<String> options) {
-        StringBuilder sb = new StringBuilder("[");
-        for (int i = 0; i < options.size(); i++) {
-            String opt = options.get(i)
-                    .replace("\\", "\\\\")
-                    .replace("\"", "\\\"");
-            sb.append("\"").append(opt).append("\"");
-            if (i < options.size() - 1) sb.append(",");
-        }
-        sb.append("]");
-        return sb.toString();
-    }
-
-    private List<String> parseOptions(String jsonArrayLike) {
-        String s = jsonArrayLike.trim();
-        if (s.startsWith("[")) s = s.substring(1);
-        if (s.endsWith("]")) s = s.substring(0, s.length() - 1);
-        if (s.isBlank()) return List.of();
-        return Arrays.stream(s.split(","))
-                .map(String::trim)
-                .map(x -> x.replaceAll("^\"|\"$", ""))
-                .collect(Collectors.toList());
+    private QuestionResponse toQuestionResponse(QuestionSnapshot q) {
+        return new QuestionResponse(
+                q.getId(),
+                q.getStem(),
+                q.getOptions(),
+                q.getExplanation(),
+                q.getCategory(),
+                q.getCreatedAt(),
+                q.getUpdatedAt()
+        );
     }
 }
 
@@ -3,9 +3,11 @@ package com.demo.quizarena.api;
 import com.demo.quizarena.api.dto.CreateQuestionRequest;
 import com.demo.quizarena.api.dto.CreateQuizRequest;
 import com.demo.quizarena.domain.Question;
+import com.demo.quizarena.domain.QuestionOptions;
 import com.demo.quizarena.domain.Quiz;
 import com.demo.quizarena.repo.QuestionRepository;
 import com.demo.quizarena.repo.QuizRepository;
+import com.demo.quizarena.service.QuestionBank;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import org.springframework.web.bind.annotation.*;
@@ -19,10 +21,12 @@ public class QuizController {
 
     private final QuizRepository quizRepository;
     private final QuestionRepository questionRepository;
+    private final QuestionBank questionBank;
 
-    public QuizController(QuizRepository quizRepository, QuestionRepository questionRepository) {
+    public QuizController(QuizRepository quizRepository, QuestionRepository questionRepository, QuestionBank questionBank) {
         this.quizRepository = quizRepository;
         this.questionRepository = questionRepository;
+        this.questionBank = questionBank;
     }
 
     @PostMapping
@@ -39,7 +43,7 @@ public class QuizController {
     @PostMapping("/{quizId}/questions")
     public Question addQuestion(@PathVariable Long quizId, @Valid @RequestBody CreateQuestionRequest req) {
         Quiz quiz = quizRepository.findById(quizId).orElseThrow();
-        String optionsJson = toJsonArray(req.options);
+        String optionsJson = QuestionOptions.toJson(req.options);
 
         Question q = new Question();
         q.setQuiz(quiz);
@@ -48,29 +52,13 @@ public class QuizController {
         q.setCorrectAnswer(req.correctAnswer);
         q.setTimeLimitSec(req.timeLimitSec);
         q.setBasePoints(req.basePoints);
-        return questionRepository.save(q);
+        Question saved = questionRepository.save(q);
+        questionBank.put(saved);
+        return saved;
     }
 
     @GetMapping("/{quizId}/questions")
     public List<Question> listQuestions(@PathVariable Long quizId) {
         return questionRepository.findByQuizIdOrderByIdAsc(quizId);
     }
-
-    /**
-     * Minimal JSON array encoder (demo).
-     * For production, consider using Jackson's ObjectMapper.
-     */
-    private String toJsonArray(List<String> options) {
-        StringBuilder sb = new StringBuilder("[");
-        for (int i = 0; i < options.size(); i++) {
-            String opt = options.get(i)
-                    .replace("\\", "\\\\")
-                    .replace("\"", "\\\"");
-
-            sb.append("\"").append(opt).append("\"");
-            if (i < options.size() - 1) sb.append(",");
-        }
-        sb.append("]");
-        return sb.toString();
-    }
 }
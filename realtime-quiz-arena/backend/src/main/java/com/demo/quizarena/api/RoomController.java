@@ -4,12 +4,25 @@ import com.demo.quizarena.api.dto.JoinRoomRequest;
 import com.demo.quizarena.api.dto.JoinRoomResponse;
 import com.demo.quizarena.api.dto.QuestionWithAnswerResponse;
 import com.demo.quizarena.api.dto.RoomCreateResponse;
+import com.demo.quizarena.cluster.ClusterMembership;
+import com.demo.quizarena.domain.QuestionSnapshot;
+import com.demo.quizarena.mq.AnswerBatcher;
+import com.demo.quizarena.realtime.AnswerDistributionPublisher;
+import com.demo.quizarena.realtime.AnswerProcessor;
+import com.demo.quizarena.realtime.AnswerDistributionPush;
+import com.demo.quizarena.realtime.LeaderboardPublisher;
+import com.demo.quizarena.realtime.LeaderboardPush;
+import com.demo.quizarena.realtime.PlayerTokens;
 import com.demo.quizarena.realtime.QuestionPush;
+import com.demo.quizarena.realtime.QuestionTimer;
+import com.demo.quizarena.realtime.RankPush;
+import com.demo.quizarena.realtime.RoomBroadcaster;
+import com.demo.quizarena.realtime.RoomReaper;
+import com.demo.quizarena.service.RoomEventLoop;
 import com.demo.quizarena.service.RoomService;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import org.springframework.http.ResponseEntity;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -19,19 +32,45 @@ import java.util.List;
 @Tag(name = "Room")
 public class RoomController {
 
+    private static final long NEXT_DRAIN_TIMEOUT_MS = 2_000;
+
     private final RoomService roomService;
-    private final SimpMessagingTemplate messaging;
+    private final RoomBroadcaster broadcaster;
+    private final RoomEventLoop roomEventLoop;
+    private final LeaderboardPublisher leaderboardPublisher;
+    private final ClusterMembership membership;
+    private final QuestionTimer questionTimer;
+    private final AnswerDistributionPublisher distributionPublisher;
+    private final AnswerProcessor answerProcessor;
+    private final RoomReaper roomReaper;
+    private final PlayerTokens playerTokens;
+    private final AnswerBatcher answerBatcher;
 
-    public RoomController(RoomService roomService, SimpMessagingTemplate messaging) {
+    public RoomController(RoomService roomService, RoomBroadcaster broadcaster, RoomEventLoop roomEventLoop,
+                          LeaderboardPublisher leaderboardPublisher, ClusterMembership membership,
+                          QuestionTimer questionTimer, AnswerDistributionPublisher distributionPublisher,
+                          AnswerProcessor answerProcessor, RoomReaper roomReaper, PlayerTokens playerTokens,
+                          AnswerBatcher answerBatcher) {
         this.roomService = roomService;
-        this.messaging = messaging;
+        this.broadcaster = broadcaster;
+        this.roomEventLoop = roomEventLoop;
+        this.leaderboardPublisher = leaderboardPublisher;
+        this.membership = membership;
+        this.questionTimer = questionTimer;
+        this.distributionPublisher = distributionPublisher;
+        this.answerProcessor = answerProcessor;
+        this.roomReaper = roomReaper;
+        this.playerTokens = playerTokens;
+        this.answerBatcher = answerBatcher;
     }
 
     @PostMapping
     public RoomCreateResponse createRoom() {
         try {
             System.out.println("[RoomController.createRoom] 收到创建房间请求");
-            RoomService.Room room = roomService.createRoom();
+            // in cluster mode only codes this node owns, so follow-up requests land here
+            RoomService.Room room = roomService.createRoom(membership::isLocal);
+            roomReaper.roomCreated(room);
             System.out.println("[RoomController.createRoom] 房间创建成功: code=" + room.code);
             return new RoomCreateResponse(room.code, room.hostToken);
         } catch (Exception e) {
@@ -46,9 +85,9 @@ public class RoomController {
         try {
             System.out.println("[RoomController.join] 收到加入房间请求: code=" + code + ", nickname=" + req.nickname);
             String normalizedCode = code.toUpperCase();
-            RoomService.Player p = roomService.joinRoom(normalizedCode, req.nickname);
+            RoomService.Player p = roomEventLoop.call(normalizedCode, () -> roomService.joinRoom(normalizedCode, req.nickname));
             System.out.println("[RoomController.join] 加入房间成功: playerId=" + p.playerId);
-            return new JoinRoomResponse(p.playerId, p.nickname);
+            return new JoinRoomResponse(p.playerId, playerTokens.issue(p.playerId), p.nickname, p.slot);
         } catch (Exception e) {
             System.err.println("[RoomController.join] 加入房间时发生错误: " + e.getMessage());
             e.printStackTrace();
@@ -61,12 +100,21 @@ public class RoomController {
         try {
             System.out.println("[RoomController.start] 收到开始游戏请求: code=" + code + ", hostToken=" + (hostToken != null ? "已提供" : "缺失"));
             String normalizedCode = code.toUpperCase();
-            QuestionPush push = roomService.startGameAndOpenFirstQuestion(normalizedCode, hostToken);
+            // host check and question draw (database) stay on the request thread, off the room's event loop;
+            // hostToken is final, so checking it here needs no owner thread
+            roomService.requireHost(roomService.getRoomOrThrow(normalizedCode), hostToken);
+            List<QuestionSnapshot> questions = roomService.drawQuestions();
+            QuestionPush push = roomEventLoop.call(normalizedCode, () -> {
+                QuestionPush p = roomService.startGameAndOpenFirstQuestion(normalizedCode, hostToken, questions);
+                // Broadcast the same question to all players so they start in sync
+                broadcaster.broadcast(normalizedCode, "question", p);
+                // Also broadcast current leaderboard (clears/initializes on clients)
+                RoomService.Room room = roomService.getRoomOrThrow(normalizedCode);
+                leaderboardPublisher.publishSnapshot(room);
+                questionTimer.questionOpened(room);
+                return p;
+            });
             System.out.println("[RoomController.start] 游戏启动成功，题目ID=" + push.questionId);
-            // Broadcast the same question to all players so they start in sync
-            messaging.convertAndSend("/topic/room/" + normalizedCode + "/question", push);
-            // Also broadcast current leaderboard (clears/initializes on clients)
-            messaging.convertAndSend("/topic/room/" + normalizedCode + "/leaderboard", roomService.leaderboard(roomService.getRoomOrThrow(normalizedCode)));
             return ResponseEntity.ok(push);
         } catch (Exception e) {
             System.err.println("[RoomController.start] 启动游戏时发生错误: " + e.getMessage());
@@ -81,16 +129,65 @@ public class RoomController {
      */
     @GetMapping("/{code}/current")
     public ResponseEntity<QuestionPush> current(@PathVariable String code) {
-        QuestionPush push = roomService.getCurrentQuestionPush(code.toUpperCase());
+        String normalizedCode = code.toUpperCase();
+        QuestionPush push = roomEventLoop.call(normalizedCode, () -> roomService.getCurrentQuestionPush(normalizedCode));
         if (push == null) return ResponseEntity.noContent().build();
         return ResponseEntity.ok(push);
     }
 
     @PostMapping("/{code}/next")
     public ResponseEntity<QuestionPush> next(@PathVariable String code, @RequestHeader("X-Host-Token") String hostToken) {
-        QuestionPush push = roomService.nextQuestion(code.toUpperCase(), hostToken);
-        // Broadcast the next question to all players
-        messaging.convertAndSend("/topic/room/" + code.toUpperCase() + "/question", push);
+        String normalizedCode = code.toUpperCase();
+        roomService.requireHost(roomService.getRoomOrThrow(normalizedCode), hostToken);
+        // answers still lingering in the batcher belong to the closing question: apply them before
+        // the next one opens, or they would all be rejected as answers to the wrong question
+        if (!answerBatcher.drain(normalizedCode, NEXT_DRAIN_TIMEOUT_MS)) {
+            System.err.println("[RoomController.next] 等待未处理答案超时: code=" + normalizedCode);
+        }
+        QuestionPush push = roomEventLoop.call(normalizedCode, () -> {
+            // the previous question is closing: make sure its final standings go out first
+            RoomService.Room closing = roomService.getRoomOrThrow(normalizedCode);
+            answerProcessor.scoreClosedQuestion(closing);
+            leaderboardPublisher.flushIfDirty(closing);
+            QuestionPush p = roomService.nextQuestion(normalizedCode, hostToken);
+            // Broadcast the next question to all players
+            broadcaster.broadcast(normalizedCode, "question", p);
+            questionTimer.questionOpened(roomService.getRoomOrThrow(normalizedCode));
+            return p;
+        });
+        return ResponseEntity.ok(push);
+    }
+
+    /** Current leaderboard snapshot (top K in top-K mode); what a leaderboard subscription starts from. */
+    @GetMapping("/{code}/leaderboard")
+    public LeaderboardPush leaderboard(@PathVariable String code) {
+        String normalizedCode = code.toUpperCase();
+        return roomEventLoop.call(normalizedCode, () -> leaderboardPublisher.snapshot(roomService.getRoomOrThrow(normalizedCode)));
+    }
+
+    /** One player's current rank and score. */
+    @GetMapping("/{code}/players/{playerId}/rank")
+    public RankPush rank(@PathVariable String code, @PathVariable String playerId) {
+        String normalizedCode = code.toUpperCase();
+        return roomEventLoop.call(normalizedCode, () -> {
+            RoomService.Room room = roomService.getRoomOrThrow(normalizedCode);
+            return roomService.rankPush(room, roomService.getPlayer(room, playerId));
+        });
+    }
+
+    /**
+     * Host only: how many players picked each option of the current question so far.
+     * Live updates follow on {@code /user/queue/answers} when connected with the {@code hostToken} header.
+     */
+    @GetMapping("/{code}/answers")
+    public ResponseEntity<AnswerDistributionPush> answers(@PathVariable String code, @RequestHeader("X-Host-Token") String hostToken) {
+        String normalizedCode = code.toUpperCase();
+        AnswerDistributionPush push = roomEventLoop.call(normalizedCode, () -> {
+            RoomService.Room room = roomService.getRoomOrThrow(normalizedCode);
+            roomService.requireHost(room, hostToken);
+            return distributionPublisher.snapshot(room);
+        });
+        if (push == null) return ResponseEntity.noContent().build();
         return ResponseEntity.ok(push);
     }
 
@@ -99,7 +196,7 @@ public class RoomController {
         try {
             System.out.println("[RoomController.getQuestions] 收到获取题目请求: code=" + code);
             String normalizedCode = code.toUpperCase();
-            List<QuestionWithAnswerResponse> questions = roomService.getQuestionsWithAnswers(normalizedCode);
+            List<QuestionWithAnswerResponse> questions = roomEventLoop.call(normalizedCode, () -> roomService.getQuestionsWithAnswers(normalizedCode));
             System.out.println("[RoomController.getQuestions] 成功获取 " + questions.size() + " 道题目");
             return ResponseEntity.ok(questions);
         } catch (Exception e) {
@@ -2,11 +2,20 @@ package com.demo.quizarena.api.dto;
 
 public class JoinRoomResponse {
     public String playerId;
+    // secret proof of playerId; sent as the playerToken STOMP CONNECT header, never shown to others
+    public String token;
     public String nickname;
+    // dense player index in the room; compact (CBOR) clients use it instead of playerId
+    public int slot;
 
     public JoinRoomResponse() {}
     public JoinRoomResponse(String playerId, String nickname) {
         this.playerId = playerId;
         this.nickname = nickname;
     }
+    public JoinRoomResponse(String playerId, String token, String nickname, int slot) {
+        this(playerId, nickname);
+        this.token = token;
+        this.slot = slot;
+    }
 }
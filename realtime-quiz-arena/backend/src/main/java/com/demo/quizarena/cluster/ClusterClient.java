@@ -0,0 +1,93 @@
+package com.demo.quizarena.cluster;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/** HTTP calls to the node that owns a room: forwarded REST requests and snapshot lookups. */
+@Component
+public class ClusterClient {
+
+    /** Set on forwarded requests; the receiving node serves them itself instead of forwarding again. */
+    public static final String FORWARDED_HEADER = "X-Quiz-Forwarded-By";
+
+    private static final List<String> COPIED_HEADERS = List.of("Content-Type", "Accept", "X-Host-Token");
+    private static final Duration TIMEOUT = Duration.ofSeconds(5);
+
+    private final ClusterMembership membership;
+    private final ObjectMapper objectMapper;
+    private final HttpClient http = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(2)).build();
+
+    public ClusterClient(ClusterMembership membership, ObjectMapper objectMapper) {
+        this.membership = membership;
+        this.objectMapper = objectMapper;
+    }
+
+    /** GET a JSON resource from another node. 404 becomes {@link NoSuchElementException}. */
+    public <T> T get(String nodeId, String path, Class<T> type) {
+        HttpResponse<byte[]> response = exchange(nodeId, request(nodeId, path).GET().build());
+        if (response.statusCode() == 404) throw new NoSuchElementException("Not found on node " + nodeId + ": " + path);
+        if (response.statusCode() >= 400) {
+            throw new IllegalStateException("Node " + nodeId + " answered " + response.statusCode() + " for " + path);
+        }
+        try {
+            return objectMapper.readValue(response.body(), type);
+        } catch (IOException e) {
+            throw new IllegalStateException("Unreadable response from node " + nodeId, e);
+        }
+    }
+
+    /** Replay the request on another node and copy its answer back. */
+    public void forward(String nodeId, HttpServletRequest req, HttpServletResponse resp) throws IOException {
+        String path = req.getRequestURI() + (req.getQueryString() != null ? "?" + req.getQueryString() : "");
+        byte[] body = req.getInputStream().readAllBytes();
+        HttpRequest.Builder builder = request(nodeId, path)
+                .method(req.getMethod(), body.length == 0 ? HttpRequest.BodyPublishers.noBody() : HttpRequest.BodyPublishers.ofByteArray(body));
+        for (String name : COPIED_HEADERS) {
+            String value = req.getHeader(name);
+            if (value != null) builder.header(name, value);
+        }
+
+        HttpResponse<byte[]> response;
+        try {
+            response = exchange(nodeId, builder.build());
+        } catch (IllegalStateException e) {
+            resp.setStatus(HttpServletResponse.SC_BAD_GATEWAY);
+            resp.setContentType("application/json");
+            resp.setCharacterEncoding("UTF-8");
+            objectMapper.writeValue(resp.getOutputStream(), Map.of("message", "房间所在节点不可用: " + nodeId));
+            return;
+        }
+        resp.setStatus(response.statusCode());
+        response.headers().firstValue("Content-Type").ifPresent(resp::setContentType);
+        resp.getOutputStream().write(response.body());
+    }
+
+    private HttpRequest.Builder request(String nodeId, String path) {
+        return HttpRequest.newBuilder(URI.create(membership.baseUrl(nodeId) + path))
+                .timeout(TIMEOUT)
+                .header(FORWARDED_HEADER, membership.selfId());
+    }
+
+    private HttpResponse<byte[]> exchange(String nodeId, HttpRequest request) {
+        try {
+            return http.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        } catch (IOException e) {
+            throw new IllegalStateException("Cluster node " + nodeId + " unreachable: " + e.getMessage(), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while calling node " + nodeId, e);
+        }
+    }
+}
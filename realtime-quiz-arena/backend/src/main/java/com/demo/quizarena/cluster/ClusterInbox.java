@@ -0,0 +1,37 @@
+package com.demo.quizarena.cluster;
+
+import com.demo.quizarena.realtime.RealtimeController;
+import com.demo.quizarena.realtime.RoomBroadcaster;
+import jakarta.annotation.PostConstruct;
+import org.springframework.stereotype.Component;
+
+/** Applies what other nodes relay to this one: frames for local subscribers, answers for local rooms. */
+@Component
+public class ClusterInbox {
+
+    private final ClusterMembership membership;
+    private final ClusterRelay relay;
+    private final RoomBroadcaster broadcaster;
+    private final RealtimeController realtimeController;
+
+    public ClusterInbox(ClusterMembership membership, ClusterRelay relay, RoomBroadcaster broadcaster,
+                        RealtimeController realtimeController) {
+        this.membership = membership;
+        this.relay = relay;
+        this.broadcaster = broadcaster;
+        this.realtimeController = realtimeController;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (membership.enabled()) relay.subscribe(this::onMessage);
+    }
+
+    void onMessage(ClusterMessage message) {
+        switch (message.type) {
+            case BROADCAST -> broadcaster.deliverLocally(message.destination, message.body, message.cborBody);
+            case USER -> broadcaster.deliverToUserLocally(message.user, message.destination, message.body, message.cborBody);
+            case ANSWER -> realtimeController.acceptAnswer(message.roomCode, message.answer, message.receivedAtMs);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.demo.quizarena.cluster;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Static cluster membership ({@code quiz.cluster.nodes}) and the room ownership derived from it.
+ *
+ * Each room code is owned by exactly one node, chosen by a {@link ConsistentHashRing} over the
+ * member ids; only the owner holds the room's state and runs its event loop. With clustering
+ * disabled this node owns every room.
+ */
+@Component
+public class ClusterMembership {
+
+    private final boolean enabled;
+    private final String selfId;
+    private final Map<String, String> baseUrls = new LinkedHashMap<>();
+    private final ConsistentHashRing ring;
+
+    public ClusterMembership(@Value("${quiz.cluster.enabled:false}") boolean enabled,
+                             @Value("${quiz.cluster.node-id:local}") String selfId,
+                             @Value("${quiz.cluster.nodes:}") String nodes,
+                             @Value("${quiz.cluster.virtual-nodes:160}") int virtualNodes) {
+        this.enabled = enabled;
+        this.selfId = selfId;
+        if (enabled) {
+            // "a=http://localhost:8081,b=http://localhost:8082"
+            for (String entry : nodes.split(",")) {
+                if (entry.isBlank()) continue;
+                int eq = entry.indexOf('=');
+                if (eq <= 0) throw new IllegalArgumentException("quiz.cluster.nodes entry must be id=url: " + entry);
+                baseUrls.put(entry.substring(0, eq).trim(), stripTrailingSlash(entry.substring(eq + 1).trim()));
+            }
+            if (!baseUrls.containsKey(selfId)) {
+                throw new IllegalArgumentException("quiz.cluster.node-id " + selfId + " is not in quiz.cluster.nodes");
+            }
+            System.out.println("[ClusterMembership] 集群模式: self=" + selfId + ", nodes=" + baseUrls.keySet());
+        }
+        this.ring = enabled ? new ConsistentHashRing(baseUrls.keySet(), virtualNodes) : null;
+    }
+
+    public boolean enabled() {
+        return enabled;
+    }
+
+    public String selfId() {
+        return selfId;
+    }
+
+    /** Node that owns the room; room codes are case-insensitive. */
+    public String ownerOf(String roomCode) {
+        return enabled ? ring.ownerOf(roomCode.toUpperCase(Locale.ROOT)) : selfId;
+    }
+
+    public boolean isLocal(String roomCode) {
+        return !enabled || selfId.equals(ownerOf(roomCode));
+    }
+
+    /** Ids of every member, this node included; empty with clustering disabled. */
+    public Set<String> nodeIds() {
+        return Collections.unmodifiableSet(baseUrls.keySet());
+    }
+
+    public String baseUrl(String nodeId) {
+        String url = baseUrls.get(nodeId);
+        if (url == null) throw new IllegalArgumentException("Unknown cluster node: " + nodeId);
+        return url;
+    }
+
+    private static String stripTrailingSlash(String url) {
+        return url.endsWith("/") ? url.substring(0, url.length() - 1) : url;
+    }
+}
@@ -0,0 +1,58 @@
+package com.demo.quizarena.cluster;
+
+import com.demo.quizarena.realtime.AnswerSubmitMessage;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * What nodes tell each other through the {@link ClusterRelay}:
+ * <ul>
+ *   <li>{@code BROADCAST}: an encoded room frame for the local subscribers of {@code destination};
+ *       {@code cborBody} is the same frame as CBOR, for binary sessions</li>
+ *   <li>{@code USER}: an encoded frame for {@code user}'s {@code destination}, wherever they are connected</li>
+ *   <li>{@code ANSWER}: an answer received by a non-owner, for the owner of {@code roomCode}</li>
+ * </ul>
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ClusterMessage {
+
+    public enum Type { BROADCAST, USER, ANSWER }
+
+    public Type type;
+    public String origin;
+    public String destination;
+    public String user;
+    public byte[] body;
+    public byte[] cborBody;
+    public String roomCode;
+    public AnswerSubmitMessage answer;
+    public long receivedAtMs;
+
+    public ClusterMessage() {}
+
+    public static ClusterMessage broadcast(String origin, String destination, byte[] body, byte[] cborBody) {
+        ClusterMessage m = new ClusterMessage();
+        m.type = Type.BROADCAST;
+        m.origin = origin;
+        m.destination = destination;
+        m.body = body;
+        m.cborBody = cborBody;
+        return m;
+    }
+
+    public static ClusterMessage toUser(String origin, String user, String destination, byte[] body, byte[] cborBody) {
+        ClusterMessage m = broadcast(origin, destination, body, cborBody);
+        m.type = Type.USER;
+        m.user = user;
+        return m;
+    }
+
+    public static ClusterMessage answer(String origin, String roomCode, AnswerSubmitMessage answer, long receivedAtMs) {
+        ClusterMessage m = new ClusterMessage();
+        m.type = Type.ANSWER;
+        m.origin = origin;
+        m.roomCode = roomCode;
+        m.answer = answer;
+        m.receivedAtMs = receivedAtMs;
+        return m;
+    }
+}
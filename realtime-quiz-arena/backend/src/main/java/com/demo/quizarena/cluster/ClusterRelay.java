@@ -0,0 +1,20 @@
+package com.demo.quizarena.cluster;
+
+import java.util.function.Consumer;
+
+/**
+ * Node-to-node transport for relayed broadcasts and forwarded answers.
+ * Selected with {@code quiz.cluster.relay}: {@code local} ({@link LocalClusterRelay}, one JVM only),
+ * {@code http} ({@link HttpClusterRelay}) or {@code rabbit} ({@link RabbitClusterRelay}).
+ */
+public interface ClusterRelay {
+
+    /** Deliver to every other node. */
+    void publish(ClusterMessage message);
+
+    /** Deliver to one node. */
+    void send(String nodeId, ClusterMessage message);
+
+    /** Start receiving messages addressed to this node. Called once. */
+    void subscribe(Consumer<ClusterMessage> handler);
+}
@@ -0,0 +1,68 @@
+package com.demo.quizarena.cluster;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Immutable consistent-hash ring: which node owns a key.
+ *
+ * Every node is placed at {@code virtualNodes} pseudo-random points on a 64-bit ring; a key belongs
+ * to the first point at or after its own hash. Adding or removing one node therefore only moves the
+ * keys between that node's points and their predecessors (about 1/N of them), and the virtual nodes
+ * keep the share of each node close to even.
+ */
+public final class ConsistentHashRing {
+
+    private final long[] points;
+    private final String[] owners;
+    private final List<String> nodes;
+
+    public ConsistentHashRing(Collection<String> nodeIds, int virtualNodes) {
+        if (nodeIds.isEmpty()) throw new IllegalArgumentException("ring needs at least one node");
+        int perNode = Math.max(1, virtualNodes);
+        this.nodes = List.copyOf(nodeIds);
+
+        long[][] entries = new long[nodes.size() * perNode][];
+        int n = 0;
+        for (int node = 0; node < nodes.size(); node++) {
+            for (int v = 0; v < perNode; v++) {
+                entries[n++] = new long[]{hash(nodes.get(node) + "#" + v), node};
+            }
+        }
+        Arrays.sort(entries, (a, b) -> a[0] != b[0] ? Long.compare(a[0], b[0]) : Long.compare(a[1], b[1]));
+        this.points = new long[n];
+        this.owners = new String[n];
+        for (int i = 0; i < n; i++) {
+            points[i] = entries[i][0];
+            owners[i] = nodes.get((int) entries[i][1]);
+        }
+    }
+
+    public List<String> nodes() {
+        return nodes;
+    }
+
+    /** Node that owns the key. */
+    public String ownerOf(String key) {
+        int i = Arrays.binarySearch(points, hash(key));
+        if (i < 0) i = -i - 1;       // first point after the key
+        if (i == points.length) i = 0; // wrap around
+        return owners[i];
+    }
+
+    /** FNV-1a over the chars, finished with the MurmurHash3 mixer so short, similar keys spread out. */
+    static long hash(String key) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            h ^= key.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,139 @@
+package com.demo.quizarena.cluster;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+/**
+ * Relay over plain HTTP between the nodes of {@code quiz.cluster.nodes}, so several instances (e.g.
+ * on localhost, one port each) form a cluster without RabbitMQ.
+ *
+ * A message is POSTed as JSON to the target's {@value #PATH}, which hands it to the handler before
+ * answering. Each target has one sender thread that waits for that answer, so like a queue a node
+ * sees another node's messages in publish order. Messages for a node that is down are logged and
+ * dropped, not retried. The endpoint accepts forwarded answers, so requests must carry
+ * {@code quiz.cluster.secret}; the relay refuses to start without one.
+ */
+@RestController
+@ConditionalOnProperty(name = "quiz.cluster.relay", havingValue = "http")
+public class HttpClusterRelay implements ClusterRelay {
+
+    public static final String PATH = "/internal/cluster/messages";
+    static final String SECRET_HEADER = "X-Quiz-Cluster-Secret";
+    private static final Duration TIMEOUT = Duration.ofSeconds(5);
+
+    private final ClusterMembership membership;
+    private final ObjectMapper objectMapper;
+    private final byte[] secret;
+    private final HttpClient http = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(2)).build();
+    private final Map<String, ExecutorService> senders = new ConcurrentHashMap<>();
+    private volatile Consumer<ClusterMessage> handler;
+
+    public HttpClusterRelay(ClusterMembership membership, ObjectMapper objectMapper,
+                            @Value("${quiz.cluster.secret:}") String secret) {
+        if (membership.enabled() && secret.isBlank()) {
+            throw new IllegalArgumentException("quiz.cluster.secret is required with quiz.cluster.relay=http");
+        }
+        this.membership = membership;
+        this.objectMapper = objectMapper;
+        this.secret = secret.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public void publish(ClusterMessage message) {
+        byte[] body = encode(message);
+        for (String nodeId : membership.nodeIds()) {
+            if (!nodeId.equals(membership.selfId())) enqueue(nodeId, body);
+        }
+    }
+
+    @Override
+    public void send(String nodeId, ClusterMessage message) {
+        membership.baseUrl(nodeId); // unknown node: fail on the caller's thread
+        enqueue(nodeId, encode(message));
+    }
+
+    @Override
+    public void subscribe(Consumer<ClusterMessage> handler) {
+        this.handler = handler;
+    }
+
+    @PostMapping(PATH)
+    public ResponseEntity<Void> receive(@RequestHeader(value = SECRET_HEADER, required = false) String secret,
+                                        @RequestBody ClusterMessage message) {
+        if (secret == null || !MessageDigest.isEqual(this.secret, secret.getBytes(StandardCharsets.UTF_8))) {
+            System.err.println("[HttpClusterRelay.receive] 集群密钥不符，已拒绝: origin=" + message.origin);
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        Consumer<ClusterMessage> h = handler;
+        if (h == null) return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        try {
+            h.accept(message);
+        } catch (Exception e) {
+            System.err.println("[HttpClusterRelay.receive] 处理集群消息失败: type=" + message.type + ", error=" + e);
+        }
+        return ResponseEntity.accepted().build();
+    }
+
+    @PreDestroy
+    public void stop() {
+        senders.values().forEach(ExecutorService::shutdownNow);
+    }
+
+    private void enqueue(String nodeId, byte[] body) {
+        senders.computeIfAbsent(nodeId, id -> Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "cluster-relay-" + id);
+            t.setDaemon(true);
+            return t;
+        })).execute(() -> post(nodeId, body));
+    }
+
+    private void post(String nodeId, byte[] body) {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(membership.baseUrl(nodeId) + PATH))
+                .timeout(TIMEOUT)
+                .header("Content-Type", "application/json")
+                .header(SECRET_HEADER, new String(secret, StandardCharsets.UTF_8))
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body))
+                .build();
+        try {
+            HttpResponse<Void> response = http.send(request, HttpResponse.BodyHandlers.discarding());
+            if (response.statusCode() >= 300) {
+                System.err.println("[HttpClusterRelay.post] 节点拒绝集群消息: node=" + nodeId + ", status=" + response.statusCode());
+            }
+        } catch (IOException e) {
+            System.err.println("[HttpClusterRelay.post] 节点不可达，消息丢弃: node=" + nodeId + ", error=" + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private byte[] encode(ClusterMessage message) {
+        try {
+            return objectMapper.writeValueAsBytes(message);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot encode cluster message", e);
+        }
+    }
+}
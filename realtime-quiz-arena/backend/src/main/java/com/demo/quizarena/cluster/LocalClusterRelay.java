@@ -0,0 +1,75 @@
+package com.demo.quizarena.cluster;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+/**
+ * In-JVM stand-in for the other relays: several application instances started in the same JVM
+ * (e.g. a test booting one context per node) reach each other through a static bus. Each node
+ * receives on its own single thread, so like a queue it sees messages in publish order.
+ *
+ * Separate processes cannot reach each other this way: instances on localhost each need
+ * {@code quiz.cluster.relay=http} ({@link HttpClusterRelay}) or {@code rabbit}. This relay is for
+ * tests and single-JVM experiments only.
+ */
+@Component
+@ConditionalOnProperty(name = "quiz.cluster.relay", havingValue = "local", matchIfMissing = true)
+public class LocalClusterRelay implements ClusterRelay {
+
+    private record Inbox(ExecutorService executor, Consumer<ClusterMessage> handler) {}
+
+    private static final Map<String, Inbox> NODES = new ConcurrentHashMap<>();
+
+    private final ClusterMembership membership;
+
+    public LocalClusterRelay(ClusterMembership membership) {
+        this.membership = membership;
+    }
+
+    @Override
+    public void publish(ClusterMessage message) {
+        NODES.forEach((nodeId, inbox) -> {
+            if (!nodeId.equals(membership.selfId())) deliver(inbox, message);
+        });
+    }
+
+    @Override
+    public void send(String nodeId, ClusterMessage message) {
+        Inbox inbox = NODES.get(nodeId);
+        if (inbox == null) throw new IllegalStateException("Cluster node not reachable: " + nodeId);
+        deliver(inbox, message);
+    }
+
+    @Override
+    public void subscribe(Consumer<ClusterMessage> handler) {
+        ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "cluster-inbox-" + membership.selfId());
+            t.setDaemon(true);
+            return t;
+        });
+        NODES.put(membership.selfId(), new Inbox(executor, handler));
+    }
+
+    @PreDestroy
+    public void stop() {
+        Inbox inbox = NODES.remove(membership.selfId());
+        if (inbox != null) inbox.executor().shutdown();
+    }
+
+    private static void deliver(Inbox inbox, ClusterMessage message) {
+        inbox.executor().execute(() -> {
+            try {
+                inbox.handler().accept(message);
+            } catch (Exception e) {
+                System.err.println("[LocalClusterRelay.deliver] 处理集群消息失败: type=" + message.type + ", error=" + e);
+            }
+        });
+    }
+}
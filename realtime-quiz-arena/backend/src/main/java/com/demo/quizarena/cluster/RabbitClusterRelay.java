@@ -0,0 +1,102 @@
+package com.demo.quizarena.cluster;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.springframework.amqp.core.AmqpAdmin;
+import org.springframework.amqp.core.BindingBuilder;
+import org.springframework.amqp.core.DirectExchange;
+import org.springframework.amqp.core.FanoutExchange;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.core.Queue;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.rabbit.listener.SimpleMessageListenerContainer;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.function.Consumer;
+
+/**
+ * RabbitMQ relay: broadcasts go through a fanout exchange, point-to-point messages through a direct
+ * exchange keyed by node id. Every node consumes one exclusive, auto-delete queue bound to both,
+ * with a single consumer so messages are handled in the order they were published.
+ */
+@Component
+@ConditionalOnProperty(name = "quiz.cluster.relay", havingValue = "rabbit")
+public class RabbitClusterRelay implements ClusterRelay {
+
+    public static final String BROADCAST_EXCHANGE = "quiz.cluster.broadcast";
+    public static final String DIRECT_EXCHANGE = "quiz.cluster.direct";
+
+    private final ClusterMembership membership;
+    private final ConnectionFactory connectionFactory;
+    private final AmqpAdmin amqpAdmin;
+    private final RabbitTemplate rabbitTemplate;
+    private final ObjectMapper objectMapper;
+    private SimpleMessageListenerContainer container;
+
+    public RabbitClusterRelay(ClusterMembership membership, ConnectionFactory connectionFactory, AmqpAdmin amqpAdmin,
+                              RabbitTemplate rabbitTemplate, ObjectMapper objectMapper) {
+        this.membership = membership;
+        this.connectionFactory = connectionFactory;
+        this.amqpAdmin = amqpAdmin;
+        this.rabbitTemplate = rabbitTemplate;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public void publish(ClusterMessage message) {
+        rabbitTemplate.send(BROADCAST_EXCHANGE, "", toAmqp(message));
+    }
+
+    @Override
+    public void send(String nodeId, ClusterMessage message) {
+        rabbitTemplate.send(DIRECT_EXCHANGE, nodeId, toAmqp(message));
+    }
+
+    @Override
+    public void subscribe(Consumer<ClusterMessage> handler) {
+        FanoutExchange broadcast = new FanoutExchange(BROADCAST_EXCHANGE, false, false);
+        DirectExchange direct = new DirectExchange(DIRECT_EXCHANGE, false, false);
+        Queue inbox = new Queue("quiz.cluster.node." + membership.selfId(), false, true, true);
+        amqpAdmin.declareExchange(broadcast);
+        amqpAdmin.declareExchange(direct);
+        amqpAdmin.declareQueue(inbox);
+        amqpAdmin.declareBinding(BindingBuilder.bind(inbox).to(broadcast));
+        amqpAdmin.declareBinding(BindingBuilder.bind(inbox).to(direct).with(membership.selfId()));
+
+        container = new SimpleMessageListenerContainer(connectionFactory);
+        container.setQueueNames(inbox.getName());
+        container.setConcurrentConsumers(1);
+        container.setMessageListener(amqp -> {
+            ClusterMessage message;
+            try {
+                message = objectMapper.readValue(amqp.getBody(), ClusterMessage.class);
+            } catch (IOException e) {
+                System.err.println("[RabbitClusterRelay] 无法解析集群消息: " + e.getMessage());
+                return;
+            }
+            // the fanout exchange hands our own broadcasts back to us
+            if (!membership.selfId().equals(message.origin)) handler.accept(message);
+        });
+        container.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (container != null) container.stop();
+    }
+
+    private Message toAmqp(ClusterMessage message) {
+        try {
+            MessageProperties props = new MessageProperties();
+            props.setContentType(MessageProperties.CONTENT_TYPE_JSON);
+            return new Message(objectMapper.writeValueAsBytes(message), props);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot encode cluster message", e);
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.demo.quizarena.cluster;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Lets any node accept room REST calls: {@code /api/rooms/{code}/...} for a room owned by another
+ * node is replayed there and the owner's answer returned as-is. Room creation stays local; the new
+ * code is picked so that this node owns it.
+ */
+@Component
+public class RoomForwardingFilter extends OncePerRequestFilter {
+
+    private static final Pattern ROOM_PATH = Pattern.compile("^/api/rooms/([^/]+)(/.*)?$");
+
+    private final ClusterMembership membership;
+    private final ClusterClient clusterClient;
+
+    public RoomForwardingFilter(ClusterMembership membership, ClusterClient clusterClient) {
+        this.membership = membership;
+        this.clusterClient = clusterClient;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !membership.enabled() || request.getHeader(ClusterClient.FORWARDED_HEADER) != null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        Matcher m = ROOM_PATH.matcher(request.getRequestURI());
+        if (!m.matches() || membership.isLocal(m.group(1))) {
+            chain.doFilter(request, response);
+            return;
+        }
+        clusterClient.forward(membership.ownerOf(m.group(1)), request, response);
+    }
+}
@@ -1,23 +1,27 @@
 package com.demo.quizarena.config;
 
 import com.demo.quizarena.domain.Question;
+import com.demo.quizarena.domain.QuestionOptions;
 import com.demo.quizarena.repo.QuestionRepository;
+import com.demo.quizarena.service.QuestionBank;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
 import java.time.Instant;
+import java.util.List;
 
 @Configuration
 public class QuestionDataInitializer {
 
     @Bean
-    CommandLineRunner initQuestions(QuestionRepository questionRepository) {
+    CommandLineRunner initQuestions(QuestionRepository questionRepository, QuestionBank questionBank) {
         return args -> {
             long count = questionRepository.count();
             System.out.println("[QuestionDataInitializer] 当前数据库中的题目数量: " + count);
             if (count > 0) {
                 System.out.println("[QuestionDataInitializer] 已有题目，跳过初始化");
+                questionBank.reload();
                 return; // 已有题目，跳过初始化
             }
 
@@ -321,14 +325,20 @@ public class QuestionDataInitializer {
             
             long finalCount = questionRepository.count();
             System.out.println("[QuestionDataInitializer] 题目初始化完成！共创建 " + finalCount + " 道题目");
+            questionBank.reload(); // 内存题库以数据库为准重新加载
         };
     }
 
     private void createQuestion(QuestionRepository repository, String category, String stem, 
                                 String[] options, String correctAnswer, String explanation) {
+        String optionsJson = QuestionOptions.toJson(List.of(options));
+        if (!QuestionOptions.parse(optionsJson).contains(correctAnswer)) {
+            System.err.println("[QuestionDataInitializer] 正确答案不在选项中，跳过该题: " + stem);
+            return;
+        }
         Question q = new Question();
         q.setStem(stem);
-        q.setOptionsJson(toJsonArray(options));
+        q.setOptionsJson(optionsJson);
         q.setCorrectAnswer(correctAnswer);
         q.setExplanation(explanation);
         q.setCategory(category);
@@ -338,16 +348,5 @@ public class QuestionDataInitializer {
         q.setUpdatedAt(Instant.now());
         repository.save(q);
     }
-
-    private String toJsonArray(String[] options) {
-        StringBuilder sb = new StringBuilder("[");
-        for (int i = 0; i < options.length; i++) {
-            String opt = options[i].replace("\\", "\\\\").replace("\"", "\\\"");
-            sb.append("\"").append(opt).append("\"");
-            if (i < options.length - 1) sb.append(",");
-        }
-        sb.append("]");
-        return sb.toString();
-    }
 }
 
@@ -0,0 +1,11 @@
+package com.demo.quizarena.config;
+
+/**
+ * What runs STOMP channel work and web requests ({@code quiz.threads.mode}).
+ */
+public enum ThreadMode {
+    /** Spring's and Tomcat's default bounded platform-thread pools. */
+    PLATFORM,
+    /** A virtual thread per task (JDK 21+; falls back to {@link #PLATFORM} on older runtimes). */
+    VIRTUAL
+}
@@ -0,0 +1,59 @@
+package com.demo.quizarena.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
+
+/**
+ * Thread model of the STOMP inbound/outbound channels and of Tomcat's request handling.
+ *
+ * In virtual mode each message and each request gets its own virtual thread, so a request parked
+ * on a JDBC call holds no pool slot and a start storm can't starve answer traffic. Room state is
+ * unaffected: it is still only touched on the room's event loop thread, and the channels keep
+ * per-session order (see {@link WebSocketConfig}).
+ */
+@Configuration
+public class ThreadingConfig {
+
+    private final boolean virtual;
+
+    public ThreadingConfig(@Value("${quiz.threads.mode:platform}") ThreadMode mode) {
+        this.virtual = mode == ThreadMode.VIRTUAL && virtualThreadsSupported();
+        if (mode == ThreadMode.VIRTUAL && !virtual) {
+            System.err.println("[ThreadingConfig] 当前 JDK (" + Runtime.version() + ") 不支持虚拟线程，回退到平台线程池");
+        }
+        System.out.println("[ThreadingConfig] 线程模式: " + (virtual ? "virtual" : "platform"));
+    }
+
+    public boolean isVirtual() {
+        return virtual;
+    }
+
+    /** A virtual-thread-per-task executor in virtual mode; null means keep the default pool. */
+    public TaskExecutor executor(String threadNamePrefix) {
+        if (!virtual) return null;
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor(threadNamePrefix);
+        executor.setVirtualThreads(true);
+        return executor;
+    }
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadRequestHandling() {
+        return handler -> {
+            TaskExecutor executor = executor("http-vt-");
+            if (executor != null) handler.setExecutor(executor);
+        };
+    }
+
+    private static boolean virtualThreadsSupported() {
+        try {
+            new SimpleAsyncTaskExecutor().setVirtualThreads(true);
+            return true;
+        } catch (UnsupportedOperationException e) {
+            return false;
+        }
+    }
+}
@@ -1,20 +1,73 @@
 package com.demo.quizarena.config;
 
+import com.demo.quizarena.realtime.CompactCborCodec;
+import com.demo.quizarena.realtime.PlayerPrincipalInterceptor;
+import com.demo.quizarena.realtime.WireFormatNegotiator;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.converter.MessageConverter;
+import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
 
+import java.util.List;
+
 @Configuration
 @EnableWebSocketMessageBroker
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
+    private final PlayerPrincipalInterceptor playerPrincipalInterceptor;
+    private final WireFormatNegotiator wireFormatNegotiator;
+    private final CompactCborCodec cborCodec;
+    private final ThreadingConfig threading;
+
+    public WebSocketConfig(PlayerPrincipalInterceptor playerPrincipalInterceptor,
+                           WireFormatNegotiator wireFormatNegotiator, CompactCborCodec cborCodec,
+                           ThreadingConfig threading) {
+        this.playerPrincipalInterceptor = playerPrincipalInterceptor;
+        this.wireFormatNegotiator = wireFormatNegotiator;
+        this.cborCodec = cborCodec;
+        this.threading = threading;
+    }
+
     @Override
     public void configureMessageBroker(MessageBrokerRegistry config) {
-        // /topic for server->client broadcasts; /app for client->server messages
-        config.enableSimpleBroker("/topic");
+        // /topic for server->client broadcasts (served by RoomBroker); /queue (via /user) for per-player frames;
+        // /app for client->server messages
+        config.enableSimpleBroker("/queue");
         config.setApplicationDestinationPrefixes("/app");
+        config.setUserDestinationPrefix("/user");
+        // with a thread per frame, a session's /queue frames could otherwise overtake each other
+        config.setPreservePublishOrder(threading.isVirtual());
+    }
+
+    @Override
+    public void configureClientInboundChannel(ChannelRegistration registration) {
+        registration.interceptors(playerPrincipalInterceptor, wireFormatNegotiator.inboundInterceptor());
+        TaskExecutor executor = threading.executor("ws-in-vt-");
+        if (executor != null) registration.executor(executor);
+    }
+
+    @Override
+    public void configureClientOutboundChannel(ChannelRegistration registration) {
+        registration.interceptors(wireFormatNegotiator.outboundInterceptor());
+        TaskExecutor executor = threading.executor("ws-out-vt-");
+        if (executor != null) registration.executor(executor);
+    }
+
+    @Override
+    public boolean configureMessageConverters(List<MessageConverter> messageConverters) {
+        // @SubscribeMapping replies to a binary session are written as CBOR; everything else passes through
+        messageConverters.add(wireFormatNegotiator.outboundConverter());
+        // inbound frames with content-type application/cbor (compact answers). Strict matching keeps it
+        // from claiming outbound payloads that carry no content type; those stay on the JSON default.
+        MappingJackson2MessageConverter cbor = new MappingJackson2MessageConverter(cborCodec.cborMapper(), CompactCborCodec.APPLICATION_CBOR);
+        cbor.setStrictContentTypeMatch(true);
+        messageConverters.add(cbor);
+        return true;
     }
 
     @Override
@@ -22,5 +75,7 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
         // Plain WebSocket endpoint (works with STOMP client brokerURL ws://host/ws)
         // If you later need SockJS fallback, add another endpoint like "/ws-sockjs" with .withSockJS().
         registry.addEndpoint("/ws").setAllowedOriginPatterns("*");
+        // a session's frames (e.g. SUBSCRIBE then answers) must reach the handlers in the order sent
+        registry.setPreserveReceiveOrder(threading.isVirtual());
     }
 }
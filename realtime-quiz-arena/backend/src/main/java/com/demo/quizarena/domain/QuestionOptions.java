@@ -0,0 +1,86 @@
+package com.demo.quizarena.domain;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The {@code options_json} column: a JSON array of strings such as {@code ["A","B","C","D"]}.
+ *
+ * One hand-written scanner instead of {@code split(",")} plus regexes, so an option may contain a
+ * comma, a quote or a backslash and still comes back as written. Entries without quotes (older
+ * rows written by hand) are accepted and trimmed.
+ */
+public final class QuestionOptions {
+
+    private QuestionOptions() {}
+
+    /** Parse the column into an unmodifiable list; null or blank gives an empty list. */
+    public static List<String> parse(String json) {
+        if (json == null) return List.of();
+        int end = json.length();
+        int i = skipSpaces(json, 0, end);
+        if (i < end && json.charAt(i) == '[') i++;
+        while (end > i && Character.isWhitespace(json.charAt(end - 1))) end--;
+        if (end > i && json.charAt(end - 1) == ']') end--;
+
+        List<String> options = new ArrayList<>(4);
+        StringBuilder sb = new StringBuilder();
+        i = skipSpaces(json, i, end);
+        while (i < end) {
+            sb.setLength(0);
+            if (json.charAt(i) == '"') {
+                i++;
+                while (i < end && json.charAt(i) != '"') {
+                    char c = json.charAt(i++);
+                    if (c == '\\' && i < end) {
+                        c = json.charAt(i++);
+                        switch (c) {
+                            case 'n' -> c = '\n';
+                            case 't' -> c = '\t';
+                            case 'r' -> c = '\r';
+                            case 'b' -> c = '\b';
+                            case 'f' -> c = '\f';
+                            case 'u' -> {
+                                if (i + 4 <= end) {
+                                    c = (char) Integer.parseInt(json.substring(i, i + 4), 16);
+                                    i += 4;
+                                }
+                            }
+                            default -> { } // \" \\ \/ stand for themselves
+                        }
+                    }
+                    sb.append(c);
+                }
+                i++; // closing quote
+                while (i < end && json.charAt(i) != ',') i++;
+            } else {
+                int start = i;
+                while (i < end && json.charAt(i) != ',') i++;
+                sb.append(json, start, i);
+                while (sb.length() > 0 && Character.isWhitespace(sb.charAt(sb.length() - 1))) sb.setLength(sb.length() - 1);
+            }
+            options.add(sb.toString());
+            i = skipSpaces(json, i + 1, end);
+        }
+        return List.copyOf(options);
+    }
+
+    /** Encode options for the column; the inverse of {@link #parse}. */
+    public static String toJson(List<String> options) {
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < options.size(); i++) {
+            if (i > 0) sb.append(",");
+            String opt = options.get(i)
+                    .replace("\\", "\\\\")
+                    .replace("\"", "\\\"");
+            sb.append("\"").append(opt).append("\"");
+        }
+        sb.append("]");
+        return sb.toString();
+    }
+
+    private static int skipSpaces(String s, int i, int end) {
+        while (i < end && Character.isWhitespace(s.charAt(i))) i++;
+        return i;
+    }
+}
@@ -0,0 +1,65 @@
+package com.demo.quizarena.domain;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * An immutable, detached view of a {@link Question} for games: no persistence context, no lazy
+ * {@code Quiz} proxy, options already parsed and the correct answer kept as an option index.
+ *
+ * Rooms and speed sessions hold these instead of entities. Being immutable, one instance is shared
+ * by every room that draws the question (see {@code QuestionBank}), and pushes, reveals and reviews
+ * read the parsed options directly instead of re-parsing {@code optionsJson} each time.
+ */
+public final class QuestionSnapshot {
+
+    private final Long id;
+    private final String stem;
+    private final List<String> options;
+    private final int correctIndex;
+    private final String explanation;
+    private final String category;
+    private final int timeLimitSec;
+    private final int basePoints;
+    private final Instant createdAt;
+    private final Instant updatedAt;
+
+    public QuestionSnapshot(Long id, String stem, List<String> options, int correctIndex, String explanation,
+                            String category, int timeLimitSec, int basePoints, Instant createdAt, Instant updatedAt) {
+        this.id = id;
+        this.stem = stem;
+        this.options = List.copyOf(options);
+        this.correctIndex = correctIndex;
+        this.explanation = explanation;
+        this.category = category;
+        this.timeLimitSec = timeLimitSec;
+        this.basePoints = basePoints;
+        this.createdAt = createdAt;
+        this.updatedAt = updatedAt;
+    }
+
+    public static QuestionSnapshot of(Question q) {
+        List<String> options = QuestionOptions.parse(q.getOptionsJson());
+        return new QuestionSnapshot(q.getId(), q.getStem(), options, options.indexOf(q.getCorrectAnswer()),
+                q.getExplanation(), q.getCategory(), q.getTimeLimitSec(), q.getBasePoints(),
+                q.getCreatedAt(), q.getUpdatedAt());
+    }
+
+    public Long getId() { return id; }
+    public String getStem() { return stem; }
+    /** Unmodifiable; safe to hand out to pushes and responses as is. */
+    public List<String> getOptions() { return options; }
+    /** Index of the correct option, or -1 if the stored answer matches none of them. */
+    public int getCorrectIndex() { return correctIndex; }
+    public String getCorrectAnswer() { return correctIndex < 0 ? null : options.get(correctIndex); }
+    public String getExplanation() { return explanation; }
+    public String getCategory() { return category; }
+    public int getTimeLimitSec() { return timeLimitSec; }
+    public int getBasePoints() { return basePoints; }
+    public Instant getCreatedAt() { return createdAt; }
+    public Instant getUpdatedAt() { return updatedAt; }
+
+    public boolean isCorrect(String answer) {
+        return correctIndex >= 0 && options.get(correctIndex).equals(answer);
+    }
+}
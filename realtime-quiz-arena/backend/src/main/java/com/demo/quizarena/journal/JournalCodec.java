@@ -0,0 +1,258 @@
+package com.demo.quizarena.journal;
+
+import com.demo.quizarena.domain.QuestionOptions;
+import com.demo.quizarena.domain.QuestionSnapshot;
+import com.demo.quizarena.service.AnswerDistribution;
+import com.demo.quizarena.service.RoomService;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Binary layout of journal records and room snapshots, and how they are replayed into
+ * {@link RoomService}.
+ *
+ * A record is framed as {@code [int bodyLength][int crc32(body)][body]} with
+ * {@code body = [long seq][byte type][utf roomCode][fields]}. A zero length or a CRC mismatch marks
+ * the end of the valid part of a segment (a torn write at crash time).
+ */
+final class JournalCodec {
+
+    static final byte CREATE = 1;  // hostToken
+    static final byte JOIN = 2;    // playerId, nickname
+    static final byte START = 3;   // question list
+    static final byte OPEN = 4;    // index, openedAtMs
+    static final byte ANSWER = 5;  // slot, latencyMs, option
+    static final byte SCORE = 6;   // slot, points
+    static final byte SCORED = 7;  // count, (slot, points) * count
+    static final byte FINISH = 8;  // reason, finishedAtMs
+    static final byte REMOVE = 9;
+
+    static final int HEADER_BYTES = 8;
+
+    @FunctionalInterface
+    interface Fields {
+        void write(DataOutputStream out) throws IOException;
+    }
+
+    private JournalCodec() {}
+
+    static byte[] record(long seq, byte type, String code, Fields fields) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeLong(0); // length and CRC, filled in below
+            out.writeLong(seq);
+            out.writeByte(type);
+            out.writeUTF(code);
+            fields.write(out);
+            byte[] frame = bytes.toByteArray();
+            CRC32 crc = new CRC32();
+            crc.update(frame, HEADER_BYTES, frame.length - HEADER_BYTES);
+            ByteBuffer.wrap(frame).putInt(0, frame.length - HEADER_BYTES).putInt(4, (int) crc.getValue());
+            return frame;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static long seqOf(byte[] frame) {
+        return ByteBuffer.wrap(frame).getLong(HEADER_BYTES);
+    }
+
+    /**
+     * Read the next valid record body at the buffer's position and advance past it.
+     *
+     * @return the body, or null at the end of the valid records
+     */
+    static byte[] nextBody(ByteBuffer buf) {
+        if (buf.remaining() < HEADER_BYTES) return null;
+        int length = buf.getInt(buf.position());
+        int crc = buf.getInt(buf.position() + 4);
+        if (length <= 0 || length > buf.remaining() - HEADER_BYTES) return null;
+        byte[] body = new byte[length];
+        buf.get(buf.position() + HEADER_BYTES, body);
+        CRC32 check = new CRC32();
+        check.update(body);
+        if ((int) check.getValue() != crc) return null;
+        buf.position(buf.position() + HEADER_BYTES + length);
+        return body;
+    }
+
+    static long seqOfBody(byte[] body) {
+        return ByteBuffer.wrap(body).getLong(0);
+    }
+
+    // ---- replay ----
+
+    /** A decoded record body, applied once we know whether the room's snapshot already covers it. */
+    record Entry(long seq, byte type, String code, DataInputStream fields) {}
+
+    static Entry decode(byte[] body) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(body));
+        long seq = in.readLong();
+        byte type = in.readByte();
+        return new Entry(seq, type, in.readUTF(), in);
+    }
+
+    /** @return whether the record changed anything (false for records of rooms we no longer know) */
+    static boolean apply(Entry e, RoomService rooms) throws IOException {
+        DataInputStream in = e.fields();
+        if (e.type() == CREATE) {
+            rooms.restoreRoom(e.code(), in.readUTF());
+            return true;
+        }
+        RoomService.Room room = rooms.findRoom(e.code());
+        if (room == null) return false; // created before the retained segments and not in the snapshot: gone
+        switch (e.type()) {
+            case JOIN -> rooms.restorePlayer(room, in.readUTF(), in.readUTF());
+            case START -> rooms.restoreGame(room, readQuestions(in));
+            case OPEN -> rooms.openQuestion(room, in.readInt(), in.readLong());
+            case ANSWER -> restoreAnswer(rooms, room, in.readInt(), in.readLong(), in.readInt());
+            case SCORE -> rooms.addScore(room, in.readInt(), in.readInt());
+            case SCORED -> {
+                int count = in.readInt();
+                int[] slots = new int[count];
+                int[] points = new int[count];
+                for (int i = 0; i < count; i++) {
+                    slots[i] = in.readInt();
+                    points[i] = in.readInt();
+                }
+                rooms.applyDeferredScores(room, slots, points, count);
+            }
+            case FINISH -> {
+                String reason = in.readUTF();
+                rooms.finish(room, reason.isEmpty() ? null : reason, in.readLong());
+            }
+            case REMOVE -> rooms.removeRoom(room);
+            default -> throw new IOException("unknown journal record type " + e.type());
+        }
+        return true;
+    }
+
+    private static void restoreAnswer(RoomService rooms, RoomService.Room room, int slot, long latencyMs, int option) {
+        rooms.recordAnswer(room, slot, latencyMs, option);
+        AnswerDistribution distribution = room.answerDistribution;
+        if (distribution != null && option >= 0) {
+            distribution.record(slot, distribution.questionId, option, null, room.openedAtMs + latencyMs);
+        }
+    }
+
+    // ---- room snapshots ----
+
+    /** Full state of one room as of journal sequence {@code seq}. Owner thread only. */
+    static byte[] encodeRoom(RoomService.Room room, long seq) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeLong(seq);
+            out.writeUTF(room.code);
+            out.writeUTF(room.hostToken);
+            out.writeByte(room.status.ordinal());
+            writeNullable(out, room.finishReason);
+            out.writeLong(room.finishedAtMs);
+            out.writeInt(room.playersBySlot.size());
+            for (RoomService.Player p : room.playersBySlot) {
+                out.writeUTF(p.playerId);
+                out.writeUTF(p.nickname);
+                out.writeInt(room.scores[p.slot]);
+            }
+            writeQuestions(out, room.questionList);
+            out.writeInt(room.currentQuestionIndex);
+            out.writeLong(room.openedAtMs);
+            out.writeBoolean(room.answersScored);
+            out.writeInt(room.answeredSlots.cardinality());
+            for (int slot = room.answeredSlots.nextSetBit(0); slot >= 0; slot = room.answeredSlots.nextSetBit(slot + 1)) {
+                out.writeInt(slot);
+                out.writeLong(room.answerLatencyMs[slot]);
+                out.writeInt(room.chosenOption[slot]);
+            }
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Rebuild a room from its snapshot.
+     *
+     * @return the room's code and the journal sequence its snapshot was taken at
+     */
+    static Entry restoreRoom(DataInputStream in, RoomService rooms) throws IOException {
+        long seq = in.readLong();
+        String code = in.readUTF();
+        RoomService.Room room = rooms.restoreRoom(code, in.readUTF());
+        RoomService.RoomStatus status = RoomService.RoomStatus.values()[in.readByte()];
+        String finishReason = readNullable(in);
+        long finishedAtMs = in.readLong();
+        int players = in.readInt();
+        for (int i = 0; i < players; i++) {
+            RoomService.Player p = rooms.restorePlayer(room, in.readUTF(), in.readUTF());
+            rooms.addScore(room, p.slot, in.readInt());
+        }
+        List<QuestionSnapshot> questions = readQuestions(in);
+        int index = in.readInt();
+        long openedAtMs = in.readLong();
+        boolean answersScored = in.readBoolean();
+        if (!questions.isEmpty()) {
+            rooms.restoreGame(room, questions);
+            if (index >= 0) rooms.openQuestion(room, index, openedAtMs);
+        }
+        int answered = in.readInt();
+        for (int i = 0; i < answered; i++) restoreAnswer(rooms, room, in.readInt(), in.readLong(), in.readInt());
+        room.answersScored = answersScored;
+        if (status == RoomService.RoomStatus.FINISHED) rooms.finish(room, finishReason, finishedAtMs);
+        return new Entry(seq, CREATE, code, in);
+    }
+
+    // ---- questions: stored as the entity columns (options as JSON, answer as text), as before snapshots ----
+
+    static void writeQuestions(DataOutputStream out, List<QuestionSnapshot> questions) throws IOException {
+        out.writeInt(questions.size());
+        for (QuestionSnapshot q : questions) {
+            out.writeLong(q.getId() == null ? -1 : q.getId());
+            out.writeUTF(q.getStem());
+            out.writeUTF(QuestionOptions.toJson(q.getOptions()));
+            out.writeUTF(q.getCorrectAnswer() == null ? "" : q.getCorrectAnswer());
+            writeNullable(out, q.getExplanation());
+            writeNullable(out, q.getCategory());
+            out.writeInt(q.getTimeLimitSec());
+            out.writeInt(q.getBasePoints());
+        }
+    }
+
+    static List<QuestionSnapshot> readQuestions(DataInputStream in) throws IOException {
+        int count = in.readInt();
+        List<QuestionSnapshot> questions = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            long id = in.readLong();
+            String stem = in.readUTF();
+            List<String> options = QuestionOptions.parse(in.readUTF());
+            int correctIndex = options.indexOf(in.readUTF());
+            String explanation = readNullable(in);
+            String category = readNullable(in);
+            int timeLimitSec = in.readInt();
+            int basePoints = in.readInt();
+            questions.add(new QuestionSnapshot(id < 0 ? null : id, stem, options, correctIndex, explanation, category,
+                    timeLimitSec, basePoints, null, null));
+        }
+        return questions;
+    }
+
+    private static void writeNullable(DataOutputStream out, String s) throws IOException {
+        out.writeBoolean(s != null);
+        if (s != null) out.writeUTF(s);
+    }
+
+    private static String readNullable(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+}
@@ -0,0 +1,112 @@
+package com.demo.quizarena.journal;
+
+import sun.misc.Unsafe;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * One preallocated, memory-mapped journal file. Appending is a copy into the mapping; durability
+ * comes from {@link #force()}, which the writer calls once per batch. The unwritten tail stays
+ * zero, which readers take as the end of the segment.
+ *
+ * A mapping otherwise lives until its buffer happens to be garbage collected, holding address space
+ * and the deleted file's pages with it; {@link #close()} and {@link #release} unmap it right away.
+ * After that the buffer must not be touched again.
+ */
+final class JournalSegment {
+
+    private static final String PREFIX = "segment-";
+    private static final String SUFFIX = ".log";
+    private static final Unsafe UNSAFE = unsafe();
+
+    final Path path;
+    final long index;
+    private MappedByteBuffer buf;
+    private long maxSeq = -1;
+
+    private JournalSegment(Path path, long index, MappedByteBuffer buf) {
+        this.path = path;
+        this.index = index;
+        this.buf = buf;
+    }
+
+    static JournalSegment create(Path dir, long index, int bytes) throws IOException {
+        Path path = dir.resolve(String.format("%s%020d%s", PREFIX, index, SUFFIX));
+        try (FileChannel ch = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            return new JournalSegment(path, index, ch.map(FileChannel.MapMode.READ_WRITE, 0, bytes));
+        }
+    }
+
+    /** Existing segments in write order. */
+    static List<Path> list(Path dir) throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(p -> p.getFileName().toString().startsWith(PREFIX) && p.getFileName().toString().endsWith(SUFFIX))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    static long indexOf(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+    }
+
+    /** Read-only view of a closed segment, for recovery. */
+    static MappedByteBuffer read(Path segment) throws IOException {
+        try (FileChannel ch = FileChannel.open(segment, StandardOpenOption.READ)) {
+            return ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size());
+        }
+    }
+
+    /** @return false if the record doesn't fit; the caller rolls over to a new segment */
+    boolean append(byte[] frame) {
+        if (frame.length > buf.remaining()) return false;
+        buf.put(frame);
+        maxSeq = Math.max(maxSeq, JournalCodec.seqOf(frame));
+        return true;
+    }
+
+    boolean isEmpty() {
+        return buf.position() == 0;
+    }
+
+    long maxSeq() {
+        return maxSeq;
+    }
+
+    void force() {
+        buf.force();
+    }
+
+    /** Force and unmap; the writer is done with this segment. */
+    void close() {
+        if (buf == null) return;
+        buf.force();
+        release(buf);
+        buf = null;
+    }
+
+    /** Unmap a mapping now instead of whenever it is collected. */
+    static void release(MappedByteBuffer mapping) {
+        if (UNSAFE != null) UNSAFE.invokeCleaner(mapping);
+    }
+
+    private static Unsafe unsafe() {
+        try {
+            Field f = Unsafe.class.getDeclaredField("theUnsafe");
+            f.setAccessible(true);
+            return (Unsafe) f.get(null);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            System.err.println("[JournalSegment] 无法主动释放内存映射，将由 GC 回收: " + e);
+            return null;
+        }
+    }
+}
@@ -0,0 +1,369 @@
+package com.demo.quizarena.journal;
+
+import com.demo.quizarena.domain.QuestionSnapshot;
+import com.demo.quizarena.realtime.QuestionTimer;
+import com.demo.quizarena.realtime.RoomReaper;
+import com.demo.quizarena.service.RoomEventLoop;
+import com.demo.quizarena.service.RoomJournal;
+import com.demo.quizarena.service.RoomService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Stream;
+
+/**
+ * Write-ahead journal of room state, so a restarted node picks its games up where they were.
+ *
+ * Room threads encode each transition into a small framed record (see {@link JournalCodec}) and
+ * queue it; they never touch the disk. One writer thread appends the queued records to a
+ * preallocated memory-mapped segment and forces it once per {@code flush-interval-ms}, so a burst
+ * of answers costs one sync (group commit). A crash loses at most that interval.
+ *
+ * Every {@code snapshot-interval-ms} the full state of every room is captured on its owner thread
+ * and written to {@code snapshot-<seq>.bin}; segments that only hold older records are then
+ * deleted. A segment is unmapped as soon as the writer rolls past it, so only the current one stays
+ * mapped. On startup the latest snapshot is loaded and the segments replayed on top of it, record
+ * by record, through the same {@link RoomService} methods that made the changes.
+ */
+@Component
+@ConditionalOnProperty(name = "quiz.journal.enabled", havingValue = "true")
+public class MappedRoomJournal implements RoomJournal {
+
+    private static final int SNAPSHOT_MAGIC = 0x514A534E; // "QJSN"
+    private static final String SNAPSHOT_PREFIX = "snapshot-";
+
+    private record ClosedSegment(Path path, long maxSeq) {}
+
+    private final RoomService roomService;
+    private final RoomEventLoop roomEventLoop;
+    private final RoomReaper roomReaper;
+    private final QuestionTimer questionTimer;
+    private final Path dir;
+    private final int segmentBytes;
+    private final long flushIntervalNanos;
+    private final long snapshotIntervalMs;
+
+    private final AtomicLong nextSeq = new AtomicLong();
+    private final ConcurrentLinkedQueue<byte[]> pending = new ConcurrentLinkedQueue<>();
+    // full segments, oldest first; appended by the writer, pruned after snapshots
+    private final Deque<ClosedSegment> closed = new ArrayDeque<>();
+    private long nextSegmentIndex;
+    private JournalSegment current; // writer thread only once started
+    private Thread writer;
+    private ScheduledExecutorService snapshotter;
+    private volatile boolean running;
+
+    @Autowired
+    public MappedRoomJournal(RoomService roomService, RoomEventLoop roomEventLoop,
+                             RoomReaper roomReaper, QuestionTimer questionTimer,
+                             @Value("${quiz.journal.dir:data/journal}") String dir,
+                             @Value("${quiz.journal.segment-bytes:67108864}") int segmentBytes,
+                             @Value("${quiz.journal.flush-interval-ms:20}") long flushIntervalMs,
+                             @Value("${quiz.journal.snapshot-interval-ms:60000}") long snapshotIntervalMs) {
+        this.roomService = roomService;
+        this.roomEventLoop = roomEventLoop;
+        this.roomReaper = roomReaper;
+        this.questionTimer = questionTimer;
+        this.dir = Paths.get(dir);
+        this.segmentBytes = Math.max(64 * 1024, segmentBytes);
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, flushIntervalMs));
+        this.snapshotIntervalMs = Math.max(1000, snapshotIntervalMs);
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        int restored = open();
+        long now = System.currentTimeMillis();
+        for (RoomService.Room room : roomService.rooms()) {
+            roomEventLoop.execute(room.code, () -> {
+                room.lastActivityMs = now; // the downtime doesn't count as idleness
+                roomReaper.roomCreated(room);
+                if (room.status == RoomService.RoomStatus.IN_GAME && room.currentQuestionIndex >= 0) questionTimer.questionOpened(room);
+            });
+        }
+        System.out.println("[MappedRoomJournal.start] 房间日志已启用: dir=" + dir.toAbsolutePath() + ", 恢复房间数=" + restored);
+    }
+
+    /**
+     * Recover, then start journaling; {@link #start} minus handing the rooms back to the reaper and
+     * the question timer.
+     *
+     * @return rooms held after recovery
+     */
+    public int open() throws IOException {
+        Files.createDirectories(dir);
+        recover();
+        current = JournalSegment.create(dir, nextSegmentIndex++, segmentBytes); // never append to a possibly torn tail
+        running = true;
+        roomService.setJournal(this);
+
+        writer = new Thread(this::writeLoop, "room-journal");
+        writer.setDaemon(true);
+        writer.start();
+        snapshotter = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "room-journal-snapshot");
+            t.setDaemon(true);
+            return t;
+        });
+        snapshotter.scheduleWithFixedDelay(this::snapshotQuietly, snapshotIntervalMs, snapshotIntervalMs, TimeUnit.MILLISECONDS);
+        return roomService.roomCount();
+    }
+
+    /** Stop journaling; everything queued so far is written and forced first. */
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (!running) return;
+        roomService.setJournal(RoomJournal.NONE);
+        snapshotter.shutdownNow();
+        running = false;
+        LockSupport.unpark(writer);
+        writer.join();
+        current.close();
+    }
+
+    // ---- RoomJournal ----
+
+    @Override
+    public void roomCreated(RoomService.Room room) {
+        append(JournalCodec.CREATE, room, out -> out.writeUTF(room.hostToken));
+    }
+
+    @Override
+    public void playerJoined(RoomService.Room room, RoomService.Player player) {
+        append(JournalCodec.JOIN, room, out -> {
+            out.writeUTF(player.playerId);
+            out.writeUTF(player.nickname);
+        });
+    }
+
+    @Override
+    public void gameStarted(RoomService.Room room) {
+        List<QuestionSnapshot> questions = room.questionList;
+        append(JournalCodec.START, room, out -> JournalCodec.writeQuestions(out, questions));
+    }
+
+    @Override
+    public void questionOpened(RoomService.Room room) {
+        int index = room.currentQuestionIndex;
+        long openedAtMs = room.openedAtMs;
+        append(JournalCodec.OPEN, room, out -> {
+            out.writeInt(index);
+            out.writeLong(openedAtMs);
+        });
+    }
+
+    @Override
+    public void answerRecorded(RoomService.Room room, int slot) {
+        long latencyMs = room.answerLatencyMs[slot];
+        int option = room.chosenOption[slot];
+        append(JournalCodec.ANSWER, room, out -> {
+            out.writeInt(slot);
+            out.writeLong(latencyMs);
+            out.writeInt(option);
+        });
+    }
+
+    @Override
+    public void scoreAdded(RoomService.Room room, int slot, int points) {
+        append(JournalCodec.SCORE, room, out -> {
+            out.writeInt(slot);
+            out.writeInt(points);
+        });
+    }
+
+    @Override
+    public void answersScored(RoomService.Room room, int[] slots, int[] points, int count) {
+        append(JournalCodec.SCORED, room, out -> {
+            out.writeInt(count);
+            for (int i = 0; i < count; i++) {
+                out.writeInt(slots[i]);
+                out.writeInt(points[i]);
+            }
+        });
+    }
+
+    @Override
+    public void roomFinished(RoomService.Room room) {
+        String reason = room.finishReason == null ? "" : room.finishReason;
+        long finishedAtMs = room.finishedAtMs;
+        append(JournalCodec.FINISH, room, out -> {
+            out.writeUTF(reason);
+            out.writeLong(finishedAtMs);
+        });
+    }
+
+    @Override
+    public void roomRemoved(RoomService.Room room) {
+        append(JournalCodec.REMOVE, room, out -> {});
+    }
+
+    // the record is encoded synchronously, so it can't see later changes to the room
+    private void append(byte type, RoomService.Room room, JournalCodec.Fields fields) {
+        pending.add(JournalCodec.record(nextSeq.getAndIncrement(), type, room.code, fields));
+    }
+
+    // ---- writer ----
+
+    private void writeLoop() {
+        while (running) {
+            LockSupport.parkNanos(this, flushIntervalNanos);
+            drain();
+        }
+        drain();
+    }
+
+    private void drain() {
+        boolean wrote = false;
+        for (byte[] frame; (frame = pending.poll()) != null; ) {
+            try {
+                if (!current.append(frame)) {
+                    roll();
+                    if (!current.append(frame)) {
+                        System.err.println("[MappedRoomJournal.drain] 日志记录超过分段大小，已丢弃: bytes=" + frame.length);
+                    }
+                }
+                wrote = true;
+            } catch (IOException e) {
+                System.err.println("[MappedRoomJournal.drain] 日志写入失败: " + e);
+            }
+        }
+        if (wrote) current.force();
+    }
+
+    private void roll() throws IOException {
+        JournalSegment next = JournalSegment.create(dir, nextSegmentIndex++, segmentBytes);
+        // only the path and the last sequence are kept: the mapping goes now, the file once a snapshot covers it
+        current.close();
+        synchronized (closed) {
+            closed.addLast(new ClosedSegment(current.path, current.maxSeq()));
+        }
+        current = next;
+    }
+
+    // ---- snapshots ----
+
+    private void snapshotQuietly() {
+        try {
+            snapshot();
+        } catch (Exception e) {
+            System.err.println("[MappedRoomJournal.snapshot] 房间快照失败: " + e);
+        }
+    }
+
+    /**
+     * Write the state of every room and drop the segments it makes redundant.
+     * Each room is captured on its owner thread together with the sequence number it is current
+     * up to; records of rooms that appear after the listing all come after {@code base}.
+     */
+    public void snapshot() throws IOException {
+        long base = nextSeq.get(); // before listing the rooms
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        int count = 0;
+        for (RoomService.Room room : List.copyOf(roomService.rooms())) {
+            byte[] state = roomEventLoop.call(room.code, () ->
+                    roomService.findRoom(room.code) == room ? JournalCodec.encodeRoom(room, nextSeq.get()) : null);
+            if (state == null) continue;
+            out.write(state);
+            count++;
+        }
+
+        Path tmp = dir.resolve(SNAPSHOT_PREFIX + "tmp");
+        try (FileChannel ch = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer header = ByteBuffer.allocate(16).putInt(SNAPSHOT_MAGIC).putLong(base).putInt(count).flip();
+            while (header.hasRemaining()) ch.write(header);
+            ByteBuffer body = ByteBuffer.wrap(bytes.toByteArray());
+            while (body.hasRemaining()) ch.write(body);
+            ch.force(true);
+        }
+        Path target = dir.resolve(String.format("%s%020d.bin", SNAPSHOT_PREFIX, base));
+        Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+
+        for (Path old : snapshots()) {
+            if (!old.equals(target)) Files.deleteIfExists(old);
+        }
+        synchronized (closed) {
+            while (!closed.isEmpty() && closed.peekFirst().maxSeq() < base) Files.deleteIfExists(closed.pollFirst().path());
+        }
+    }
+
+    private List<Path> snapshots() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(p -> p.getFileName().toString().startsWith(SNAPSHOT_PREFIX) && p.getFileName().toString().endsWith(".bin"))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    // ---- recovery ----
+
+    /** Load the latest snapshot and replay the segments after it; runs before journaling starts. */
+    private void recover() throws IOException {
+        // journal sequence each snapshotted room is current up to; other rooms replay from base
+        Map<String, Long> roomSeqs = new HashMap<>();
+        long base = 0;
+        List<Path> snapshots = snapshots();
+        if (!snapshots.isEmpty()) {
+            Path latest = snapshots.get(snapshots.size() - 1);
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(latest)))) {
+                if (in.readInt() != SNAPSHOT_MAGIC) throw new IOException("not a room snapshot: " + latest);
+                base = in.readLong();
+                int count = in.readInt();
+                for (int i = 0; i < count; i++) {
+                    JournalCodec.Entry room = JournalCodec.restoreRoom(in, roomService);
+                    roomSeqs.put(room.code(), room.seq());
+                }
+            }
+        }
+
+        long maxSeq = base - 1;
+        int replayed = 0;
+        for (Path path : JournalSegment.list(dir)) {
+            long segmentMax = -1;
+            MappedByteBuffer view = JournalSegment.read(path);
+            try {
+                for (byte[] body; (body = JournalCodec.nextBody(view)) != null; ) {
+                    JournalCodec.Entry e = JournalCodec.decode(body);
+                    segmentMax = Math.max(segmentMax, e.seq());
+                    if (e.seq() >= roomSeqs.getOrDefault(e.code(), base) && JournalCodec.apply(e, roomService)) replayed++;
+                }
+            } finally {
+                JournalSegment.release(view);
+            }
+            closed.addLast(new ClosedSegment(path, segmentMax));
+            maxSeq = Math.max(maxSeq, segmentMax);
+            nextSegmentIndex = JournalSegment.indexOf(path) + 1;
+        }
+        nextSeq.set(maxSeq + 1);
+        System.out.println("[MappedRoomJournal.recover] 日志恢复完成: 快照房间数=" + roomSeqs.size() + ", 重放记录数=" + replayed
+                + ", 当前房间数=" + roomService.roomCount());
+    }
+}
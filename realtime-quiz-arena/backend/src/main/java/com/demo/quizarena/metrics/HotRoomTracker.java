@@ -0,0 +1,154 @@
+package com.demo.quizarena.metrics;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Per-room inbound message rates in bounded memory, and the hottest rooms of the last window.
+ *
+ * Messages are counted in a count-min sketch ({@value #DEPTH} rows of {@code quiz.hot-rooms.sketch-width}
+ * atomic counters), so memory doesn't depend on the number of rooms and {@link #record} is a few
+ * lock-free increments. A room whose estimate reaches the previous window's floor (half the N-th
+ * hottest count) becomes a candidate; candidates are capped at twice {@code quiz.hot-rooms.candidates},
+ * and only a room's first crossing writes to the candidate map. Every {@code quiz.hot-rooms.window-ms}
+ * the windows rotate and the candidates are ranked into the top N. Estimates never undercount; with
+ * many rooms a quiet one can be overcounted by the noise of the rooms sharing its cells.
+ */
+@Component
+public class HotRoomTracker {
+
+    private static final int DEPTH = 4;
+
+    /** A room and its estimated inbound messages per second over the last complete window. */
+    public record HotRoom(String code, double messagesPerSecond) {}
+
+    private static final class Window {
+        final AtomicLongArray cells;
+        final Map<String, Boolean> candidates = new ConcurrentHashMap<>();
+
+        Window(int width) {
+            cells = new AtomicLongArray(DEPTH * width);
+        }
+
+        void clear() {
+            for (int i = 0; i < cells.length(); i++) cells.set(i, 0);
+            candidates.clear();
+        }
+    }
+
+    private final int width;
+    private final long windowMs;
+    private final int topN;
+    private final int maxCandidates;
+    private volatile Window current;
+    private volatile Window previous;
+    private volatile long floor = 1;
+    private volatile List<HotRoom> hottest = List.of();
+    private ScheduledExecutorService ticker;
+
+    public HotRoomTracker(@Value("${quiz.hot-rooms.sketch-width:16384}") int sketchWidth,
+                          @Value("${quiz.hot-rooms.window-ms:1000}") long windowMs,
+                          @Value("${quiz.hot-rooms.top-n:10}") int topN,
+                          @Value("${quiz.hot-rooms.candidates:1024}") int maxCandidates) {
+        this.width = Integer.highestOneBit(Math.max(64, sketchWidth));
+        this.windowMs = Math.max(100, windowMs);
+        this.topN = Math.max(1, topN);
+        this.maxCandidates = Math.max(this.topN, maxCandidates);
+        this.current = new Window(width);
+        this.previous = new Window(width);
+    }
+
+    @PostConstruct
+    public void start() {
+        ticker = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "hot-room-tick");
+            t.setDaemon(true);
+            return t;
+        });
+        ticker.scheduleAtFixedRate(this::rotate, windowMs, windowMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (ticker != null) ticker.shutdownNow();
+    }
+
+    /** One inbound message for the room. Any thread, lock-free. */
+    public void record(String code) {
+        Window w = current;
+        long h = hash(code);
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < DEPTH; row++) {
+            estimate = Math.min(estimate, w.cells.incrementAndGet(cell(h, row)));
+        }
+        if (estimate >= floor && w.candidates.get(code) == null) {
+            int size = w.candidates.size();
+            // once the regular slots are taken (e.g. many equally busy rooms), a second batch is kept
+            // for rooms far above the floor, so a room going viral is never locked out
+            if (size < maxCandidates || (size < 2 * maxCandidates && estimate >= 8 * floor)) {
+                w.candidates.putIfAbsent(code, Boolean.TRUE);
+            }
+        }
+    }
+
+    /** Estimated messages per second of the room over the last complete window. */
+    public double messagesPerSecond(String code) {
+        return count(previous, hash(code)) * 1000.0 / windowMs;
+    }
+
+    /** The hottest rooms of the last complete window, hottest first. */
+    public List<HotRoom> hottest() {
+        return hottest;
+    }
+
+    /** Close the current window: rank its candidates and start counting into a cleared one. */
+    void rotate() {
+        Window closed = current;
+        Window next = previous;
+        next.clear();
+        current = next;
+        previous = closed;
+
+        List<HotRoom> ranked = new ArrayList<>(closed.candidates.size());
+        for (String code : closed.candidates.keySet()) {
+            ranked.add(new HotRoom(code, count(closed, hash(code)) * 1000.0 / windowMs));
+        }
+        ranked.sort(Comparator.comparingDouble(HotRoom::messagesPerSecond).reversed());
+        List<HotRoom> top = List.copyOf(ranked.subList(0, Math.min(topN, ranked.size())));
+        // newcomers get in at half the N-th count, so a room heating up is tracked before it takes over
+        floor = top.size() < topN ? 1 : Math.max(1, Math.round(top.get(topN - 1).messagesPerSecond() * windowMs / 1000.0) / 2);
+        hottest = top;
+    }
+
+    private long count(Window w, long h) {
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < DEPTH; row++) estimate = Math.min(estimate, w.cells.get(cell(h, row)));
+        return estimate;
+    }
+
+    /** Row {@code row}'s counter: double hashing over the two halves of one 64-bit hash. */
+    private int cell(long h, int row) {
+        int h1 = (int) h;
+        int h2 = (int) (h >>> 32) | 1;
+        return row * width + ((h1 + row * h2) & (width - 1));
+    }
+
+    private static long hash(String code) {
+        long h = code.hashCode() * 0x9E3779B97F4A7C15L;
+        h ^= h >>> 31;
+        h *= 0xBF58476D1CE4E5B9L;
+        return h ^ (h >>> 29);
+    }
+}
@@ -0,0 +1,102 @@
+package com.demo.quizarena.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Java Flight Recorder events for the room phases, so a recording ties CPU, allocation and latency
+ * to a room and a phase instead of just a thread. Record with e.g.
+ * {@code jcmd <pid> JFR.start duration=60s filename=quiz.jfr} and filter on the {@code Quiz Arena}
+ * category; the duration of each event is the phase itself.
+ *
+ * Call sites follow the usual pattern: {@code begin()} before the phase, then fill the fields and
+ * {@code commit()} only if {@code shouldCommit()}. Without a recording that test is false, the
+ * event object never escapes and the JIT drops it, so the phases cost nothing extra. Stack traces
+ * are off: the events fire on hot paths and the phase is already in the name.
+ */
+public final class QuizEvents {
+
+    private QuizEvents() {}
+
+    @Category("Quiz Arena")
+    @StackTrace(false)
+    public abstract static class RoomEvent extends Event {
+        @Label("Room Code")
+        public String roomCode;
+
+        @Label("Players")
+        @Description("Players in the room, or subscribers reached for broadcasts")
+        public int players;
+    }
+
+    @Name("com.demo.quizarena.QuestionOpened")
+    @Label("Question Opened")
+    @Description("A question became current in a room (RoomService.openQuestion)")
+    public static class QuestionOpened extends RoomEvent {
+        @Label("Question Index")
+        public int questionIndex;
+
+        @Label("Options")
+        public int options;
+    }
+
+    @Name("com.demo.quizarena.AnswerReceived")
+    @Label("Answer Received")
+    @Description("One answer frame handled on the inbound STOMP thread, up to handing it to the answer queue or the owning node")
+    public static class AnswerReceived extends RoomEvent {
+        @Label("Relayed")
+        @Description("The room lives on another node and the answer was forwarded there")
+        public boolean relayed;
+    }
+
+    @Name("com.demo.quizarena.AnswersProcessed")
+    @Label("Answers Processed")
+    @Description("One batch of answers scored on the room's owner thread")
+    public static class AnswersProcessed extends RoomEvent {
+        @Label("Answers")
+        public int answers;
+
+        @Label("Leaderboard Changed")
+        public boolean changed;
+    }
+
+    @Name("com.demo.quizarena.LeaderboardComputed")
+    @Label("Leaderboard Computed")
+    @Description("A leaderboard frame or snapshot was built from the room's ranking")
+    public static class LeaderboardComputed extends RoomEvent {
+        @Label("Entries")
+        public int entries;
+
+        @Label("Delta")
+        public boolean delta;
+    }
+
+    @Name("com.demo.quizarena.BroadcastSent")
+    @Label("Broadcast Sent")
+    @Description("A room broadcast was encoded and handed to the broker (RoomBroadcaster.broadcast)")
+    public static class BroadcastSent extends RoomEvent {
+        @Label("Kind")
+        public String kind;
+
+        @Label("Payload Size")
+        @DataAmount
+        public int payloadBytes;
+    }
+
+    @Name("com.demo.quizarena.BroadcastFannedOut")
+    @Label("Broadcast Fanned Out")
+    @Description("A broadcast was queued to every subscriber's outbox on a broker shard thread")
+    public static class BroadcastFannedOut extends RoomEvent {
+        @Label("Destination")
+        public String destination;
+
+        @Label("Payload Size")
+        @DataAmount
+        public int payloadBytes;
+    }
+}
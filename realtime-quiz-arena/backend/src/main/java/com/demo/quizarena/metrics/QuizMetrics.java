@@ -0,0 +1,163 @@
+package com.demo.quizarena.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Central place for the game's own meters. Tags are kept to small fixed sets (never room codes or
+ * player ids) so the number of time series doesn't grow with the number of rooms.
+ */
+@Component
+public class QuizMetrics {
+
+    private final MeterRegistry registry;
+    private final Map<String, BroadcastMeters> broadcastMeters = new ConcurrentHashMap<>();
+    private final Map<String, Counter> brokerDrops = new ConcurrentHashMap<>();
+    private final Map<String, Counter> roomEvictions = new ConcurrentHashMap<>();
+    private final Counter slowConsumerDisconnects;
+    private final DistributionSummary answerBatchSize;
+    private final Counter capacityRejections;
+    private final Counter speedSessionEvictions;
+    private final Counter answersAccepted;
+    private final Map<String, Counter> answersRejected = new ConcurrentHashMap<>();
+    private final Timer answerToScore;
+    private final Timer answerToLeaderboard;
+    private final DistributionSummary questionBurst;
+
+    private record BroadcastMeters(DistributionSummary jsonBytes, DistributionSummary cborBytes, DistributionSummary fanout) {}
+
+    public QuizMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        this.slowConsumerDisconnects = Counter.builder("quiz.broker.disconnects")
+                .description("Sessions closed because their outbound queue could not keep up").register(registry);
+        this.answerBatchSize = DistributionSummary.builder("quiz.answers.batch.size")
+                .description("Answers scored together in one room task").register(registry);
+        this.capacityRejections = Counter.builder("quiz.rooms.rejected")
+                .description("Room creations and joins refused because the node was at capacity").register(registry);
+        this.speedSessionEvictions = Counter.builder("quiz.speed.sessions.evicted")
+                .description("Idle speed game sessions removed").register(registry);
+        this.answersAccepted = Counter.builder("quiz.answers").tag("outcome", "accepted").tag("reason", "none")
+                .description("Answers that reached scoring, by outcome").register(registry);
+        // histograms so Grafana can take quantiles across instances; bounds keep the bucket count small
+        this.answerToScore = Timer.builder("quiz.answers.score.latency")
+                .description("From an answer's receipt to its score being applied to the room")
+                .publishPercentileHistogram().minimumExpectedValue(Duration.ofMillis(1))
+                .maximumExpectedValue(Duration.ofSeconds(60)).register(registry);
+        this.answerToLeaderboard = Timer.builder("quiz.answers.leaderboard.latency")
+                .description("From receipt of the oldest answer a leaderboard frame reflects to that frame being sent")
+                .publishPercentileHistogram().minimumExpectedValue(Duration.ofMillis(1))
+                .maximumExpectedValue(Duration.ofSeconds(60)).register(registry);
+        this.questionBurst = DistributionSummary.builder("quiz.questions.burst")
+                .description("Answers one question received while open: the burst its opening triggered")
+                .publishPercentileHistogram().minimumExpectedValue(1.0).maximumExpectedValue(100_000.0).register(registry);
+    }
+
+    /**
+     * One room broadcast: its encoded size per format ({@code cborBytes} is -1 when no CBOR was needed)
+     * and how many subscribers it was sent to. Each format is encoded once and shared, so a per-session
+     * encode would have cost {@code payload * fanout} bytes where {@code payload} were spent.
+     */
+    public void recordBroadcast(String kind, int jsonBytes, int cborBytes, int fanout) {
+        BroadcastMeters m = broadcastMeters.computeIfAbsent(kind, this::newBroadcastMeters);
+        m.jsonBytes.record(jsonBytes);
+        if (cborBytes >= 0) m.cborBytes.record(cborBytes);
+        m.fanout.record(fanout);
+    }
+
+    /** Outbound queue gauges of the room broker, sampled on scrape. */
+    public void registerBrokerQueues(Supplier<Number> queuedFrames, Supplier<Number> deepestQueue, Supplier<Number> sessions) {
+        Gauge.builder("quiz.broker.queue.depth", queuedFrames)
+                .description("Frames waiting in session outbound queues, all sessions").register(registry);
+        Gauge.builder("quiz.broker.queue.depth.max", deepestQueue)
+                .description("Frames waiting in the deepest session outbound queue").register(registry);
+        Gauge.builder("quiz.broker.sessions", sessions)
+                .description("Sessions with at least one topic subscription").register(registry);
+    }
+
+    /** A frame of the given kind was dropped for a slow consumer. */
+    public void recordBrokerDrop(String kind) {
+        brokerDrops.computeIfAbsent(kind, k -> Counter.builder("quiz.broker.dropped").tag("kind", k)
+                .description("Frames dropped from a slow consumer's outbound queue").register(registry)).increment();
+    }
+
+    public void recordSlowConsumerDisconnect() {
+        slowConsumerDisconnects.increment();
+    }
+
+    public void registerAnswerBacklog(Supplier<Number> backlog) {
+        Gauge.builder("quiz.answers.backlog", backlog)
+                .description("Consumed answers waiting to be batched").register(registry);
+    }
+
+    public void recordAnswerBatch(int size) {
+        answerBatchSize.record(size);
+    }
+
+    public void recordAnswerAccepted() {
+        answersAccepted.increment();
+    }
+
+    /**
+     * An answer was dropped before scoring; reason is one of {@code window_closed},
+     * {@code wrong_question}, {@code unknown_player}, {@code duplicate} or {@code invalid}.
+     */
+    public void recordAnswerRejected(String reason) {
+        answersRejected.computeIfAbsent(reason, r -> Counter.builder("quiz.answers").tag("outcome", "rejected").tag("reason", r)
+                .description("Answers that reached scoring, by outcome").register(registry)).increment();
+    }
+
+    /** The score of an answer received at {@code receivedAtMs} was just applied. */
+    public void recordAnswerScored(long receivedAtMs, long nowMs) {
+        answerToScore.record(Math.max(0, nowMs - receivedAtMs), TimeUnit.MILLISECONDS);
+    }
+
+    /** A leaderboard frame went out; the oldest score change it carries came from an answer received at {@code receivedAtMs}. */
+    public void recordLeaderboardSent(long receivedAtMs, long nowMs) {
+        answerToLeaderboard.record(Math.max(0, nowMs - receivedAtMs), TimeUnit.MILLISECONDS);
+    }
+
+    public void recordQuestionBurst(int answers) {
+        questionBurst.record(answers);
+    }
+
+    /** Sizes of the in-memory registries, sampled on scrape. */
+    public void registerLiveRooms(Supplier<Number> rooms, Supplier<Number> players, Supplier<Number> speedSessions) {
+        Gauge.builder("quiz.rooms.live", rooms).description("Rooms held in memory, finished ones included").register(registry);
+        Gauge.builder("quiz.players.live", players).description("Players in the rooms held in memory").register(registry);
+        Gauge.builder("quiz.speed.sessions.live", speedSessions).description("Speed game sessions held in memory").register(registry);
+    }
+
+    /** A room was removed from memory; reason is {@code completed} or {@code idle}. */
+    public void recordRoomEvicted(String reason) {
+        roomEvictions.computeIfAbsent(reason, r -> Counter.builder("quiz.rooms.evicted").tag("reason", r)
+                .description("Rooms removed from memory by the reaper").register(registry)).increment();
+    }
+
+    public void recordCapacityRejection() {
+        capacityRejections.increment();
+    }
+
+    public void recordSpeedSessionsEvicted(int count) {
+        speedSessionEvictions.increment(count);
+    }
+
+    private BroadcastMeters newBroadcastMeters(String kind) {
+        return new BroadcastMeters(
+                DistributionSummary.builder("quiz.broadcast.payload").baseUnit("bytes").tag("kind", kind).tag("format", "json")
+                        .description("Encoded size of one room broadcast, per wire format").register(registry),
+                DistributionSummary.builder("quiz.broadcast.payload").baseUnit("bytes").tag("kind", kind).tag("format", "cbor")
+                        .description("Encoded size of one room broadcast, per wire format").register(registry),
+                DistributionSummary.builder("quiz.broadcast.fanout").tag("kind", kind)
+                        .description("Subscribers reached by one room broadcast").register(registry));
+    }
+}
@@ -0,0 +1,109 @@
+package com.demo.quizarena.metrics;
+
+import com.demo.quizarena.realtime.RoomBroker;
+import com.demo.quizarena.service.RoomService;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * {@code /actuator/rooms}: the hottest rooms by inbound message rate (see {@link HotRoomTracker}),
+ * then up to {@code limit} live rooms (default 100), busiest first. {@code /actuator/rooms/{code}}
+ * shows one room. Room state is read off the owner thread, so the figures are a best-effort sample,
+ * which is all a dashboard needs; nothing here touches the room event loops.
+ */
+@Component
+@Endpoint(id = "rooms")
+public class RoomsEndpoint {
+
+    private static final int DEFAULT_LIMIT = 100;
+
+    private final RoomService roomService;
+    private final RoomBroker broker;
+    private final HotRoomTracker tracker;
+
+    public RoomsEndpoint(RoomService roomService, RoomBroker broker, HotRoomTracker tracker) {
+        this.roomService = roomService;
+        this.broker = broker;
+        this.tracker = tracker;
+    }
+
+    public static class RoomView {
+        public String code;
+        public String status;
+        public int players;
+        public double messagesPerSecond;
+        public int queueDepth;
+        public long lastActivityMs;
+    }
+
+    public static class RoomsReport {
+        public int liveRooms;
+        public int livePlayers;
+        public List<RoomView> hottest;
+        public List<RoomView> rooms;
+    }
+
+    @ReadOperation
+    public RoomsReport rooms(@Nullable Integer limit) {
+        int max = limit == null ? DEFAULT_LIMIT : Math.max(0, limit);
+        RoomsReport report = new RoomsReport();
+        report.liveRooms = roomService.roomCount();
+        report.livePlayers = roomService.playerCount();
+
+        report.hottest = new ArrayList<>();
+        for (HotRoomTracker.HotRoom hot : tracker.hottest()) {
+            RoomService.Room room = roomService.findRoom(hot.code());
+            if (room != null) report.hottest.add(view(room, hot.messagesPerSecond()));
+        }
+
+        // busiest max rooms without sorting all of them: a min-heap of the best so far
+        Comparator<RoomView> byRate = Comparator.comparingDouble(v -> v.messagesPerSecond);
+        PriorityQueue<RoomView> busiest = new PriorityQueue<>(Math.max(1, max), byRate);
+        if (max > 0) {
+            for (RoomService.Room room : roomService.rooms()) {
+                double rate = tracker.messagesPerSecond(room.code);
+                if (busiest.size() < max) {
+                    busiest.add(summary(room, rate));
+                } else if (rate > busiest.peek().messagesPerSecond) {
+                    busiest.poll();
+                    busiest.add(summary(room, rate));
+                }
+            }
+        }
+        report.rooms = new ArrayList<>(busiest);
+        report.rooms.sort(byRate.reversed());
+        // queue depth walks the room's subscribers, so only the rooms actually listed pay for it
+        for (RoomView v : report.rooms) v.queueDepth = broker.queueDepth(v.code);
+        return report;
+    }
+
+    @ReadOperation
+    public RoomView room(@Selector String code) {
+        RoomService.Room room = roomService.findRoom(code);
+        return room == null ? null : view(room, tracker.messagesPerSecond(code));
+    }
+
+    private RoomView view(RoomService.Room room, double rate) {
+        RoomView v = summary(room, rate);
+        v.queueDepth = broker.queueDepth(room.code);
+        return v;
+    }
+
+    private static RoomView summary(RoomService.Room room, double rate) {
+        RoomView v = new RoomView();
+        v.code = room.code;
+        v.status = room.status.name();
+        v.players = room.players.size();
+        v.messagesPerSecond = rate;
+        v.lastActivityMs = room.lastActivityMs;
+        return v;
+    }
+}
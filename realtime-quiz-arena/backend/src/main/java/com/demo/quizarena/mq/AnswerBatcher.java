@@ -0,0 +1,181 @@
+package com.demo.quizarena.mq;
+
+import com.demo.quizarena.metrics.QuizMetrics;
+import com.demo.quizarena.realtime.AnswerProcessor;
+import com.demo.quizarena.service.RoomEventLoop;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Groups consumed answers per room and hands each group to the room's owner thread as one task.
+ *
+ * A room's batch is flushed once it holds {@code quiz.answers.batch-size} answers or its oldest
+ * answer has waited {@code quiz.answers.linger-ms}. The inbox is unbounded and the batcher thread
+ * only moves references, so a spike at question close is queued rather than dropped or pushed back
+ * onto the STOMP threads; scoring then costs one event-loop task (and at most one leaderboard
+ * update) per batch instead of per answer. With the in-memory queue the spike therefore sits in the
+ * heap; with {@link RabbitAnswerQueue} the prefetch limit keeps the inbox small and the broker holds
+ * the rest. Each answer's {@link SubmittedAnswer#onScored} runs after its batch was applied.
+ *
+ * {@link #drain} lets the host's {@code /next} wait for a room's lingering answers first: they were
+ * received while the closing question was open and would otherwise be checked against the next one.
+ */
+@Component
+public class AnswerBatcher {
+
+    private static final class Batch {
+        final List<SubmittedAnswer> answers = new ArrayList<>();
+        long firstAtNanos;
+    }
+
+    /** Marks a point in the inbox for {@link #drain}; never scored. */
+    private static final class DrainMarker extends SubmittedAnswer {
+        final CountDownLatch applied = new CountDownLatch(1);
+
+        DrainMarker(String roomCode) {
+            super(roomCode, null, 0);
+        }
+    }
+
+    private final LinkedBlockingQueue<SubmittedAnswer> inbox = new LinkedBlockingQueue<>();
+    private final Map<String, Batch> batches = new HashMap<>(); // batcher thread only
+    private final RoomEventLoop roomEventLoop;
+    private final AnswerProcessor processor;
+    private final QuizMetrics metrics;
+    private final int batchSize;
+    private final long lingerNanos;
+    private volatile boolean running;
+    private Thread thread;
+
+    public AnswerBatcher(RoomEventLoop roomEventLoop, AnswerProcessor processor, QuizMetrics metrics,
+                         @Value("${quiz.answers.batch-size:256}") int batchSize,
+                         @Value("${quiz.answers.linger-ms:20}") long lingerMs) {
+        this.roomEventLoop = roomEventLoop;
+        this.processor = processor;
+        this.metrics = metrics;
+        this.batchSize = Math.max(1, batchSize);
+        this.lingerNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, lingerMs));
+    }
+
+    /** Accept an answer from a queue consumer. Never blocks. */
+    public void offer(SubmittedAnswer answer) {
+        inbox.add(answer);
+    }
+
+    public int backlog() {
+        return inbox.size();
+    }
+
+    /**
+     * Wait until every answer for the room offered before this call has been applied on the room's
+     * owner thread. Returns false if that took longer than {@code timeoutMs}. Must not be called
+     * from the room's owner thread, which is what it waits on. With {@link RabbitAnswerQueue}, only
+     * answers already consumed from the broker are covered.
+     */
+    public boolean drain(String roomCode, long timeoutMs) {
+        if (!running) return true;
+        DrainMarker marker = new DrainMarker(roomCode);
+        inbox.add(marker);
+        try {
+            return marker.applied.await(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    @PostConstruct
+    public void start() {
+        metrics.registerAnswerBacklog(this::backlog);
+        running = true;
+        thread = new Thread(this::run, "answer-batcher");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (thread != null) thread.interrupt();
+    }
+
+    private void run() {
+        List<SubmittedAnswer> drained = new ArrayList<>();
+        while (running) {
+            try {
+                SubmittedAnswer first = inbox.poll(pollTimeoutNanos(), TimeUnit.NANOSECONDS);
+                if (first != null) {
+                    drained.add(first);
+                    inbox.drainTo(drained, 4 * batchSize);
+                    for (SubmittedAnswer a : drained) add(a);
+                    drained.clear();
+                }
+                flushLingering();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                System.err.println("[AnswerBatcher.run] 批处理失败: " + e);
+            }
+        }
+    }
+
+    private void add(SubmittedAnswer answer) {
+        if (answer instanceof DrainMarker marker) {
+            // flush what the room has now; the room loop runs the release after that batch
+            Batch pending = batches.remove(marker.roomCode);
+            if (pending != null) flush(marker.roomCode, pending);
+            roomEventLoop.execute(marker.roomCode, marker.applied::countDown);
+            return;
+        }
+        Batch batch = batches.computeIfAbsent(answer.roomCode, k -> new Batch());
+        if (batch.answers.isEmpty()) batch.firstAtNanos = System.nanoTime();
+        batch.answers.add(answer);
+        if (batch.answers.size() >= batchSize) {
+            batches.remove(answer.roomCode);
+            flush(answer.roomCode, batch);
+        }
+    }
+
+    private void flushLingering() {
+        long now = System.nanoTime();
+        for (Iterator<Map.Entry<String, Batch>> it = batches.entrySet().iterator(); it.hasNext(); ) {
+            Map.Entry<String, Batch> e = it.next();
+            if (now - e.getValue().firstAtNanos >= lingerNanos) {
+                it.remove();
+                flush(e.getKey(), e.getValue());
+            }
+        }
+    }
+
+    private long pollTimeoutNanos() {
+        if (batches.isEmpty()) return TimeUnit.MILLISECONDS.toNanos(100);
+        long oldest = Long.MAX_VALUE;
+        for (Batch b : batches.values()) oldest = Math.min(oldest, b.firstAtNanos);
+        return Math.max(0, oldest + lingerNanos - System.nanoTime());
+    }
+
+    private void flush(String roomCode, Batch batch) {
+        metrics.recordAnswerBatch(batch.answers.size());
+        roomEventLoop.execute(roomCode, () -> {
+            try {
+                processor.applyBatch(roomCode, batch.answers);
+            } finally {
+                for (SubmittedAnswer a : batch.answers) {
+                    if (a.onScored != null) a.onScored.run();
+                }
+            }
+        });
+    }
+}
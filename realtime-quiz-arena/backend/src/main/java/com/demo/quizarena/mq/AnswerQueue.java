@@ -0,0 +1,11 @@
+package com.demo.quizarena.mq;
+
+/**
+ * Where {@code submitAnswer} puts answers; consumers hand them to the {@link AnswerBatcher}.
+ * Selected with {@code quiz.answers.queue}: {@code memory} ({@link InMemoryAnswerQueue}) or
+ * {@code rabbit} ({@link RabbitAnswerQueue}).
+ */
+public interface AnswerQueue {
+
+    void publish(SubmittedAnswer answer);
+}
@@ -0,0 +1,21 @@
+package com.demo.quizarena.mq;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/** In-process queue: answers go straight into the batcher's unbounded inbox. No broker needed. */
+@Component
+@ConditionalOnProperty(name = "quiz.answers.queue", havingValue = "memory", matchIfMissing = true)
+public class InMemoryAnswerQueue implements AnswerQueue {
+
+    private final AnswerBatcher batcher;
+
+    public InMemoryAnswerQueue(AnswerBatcher batcher) {
+        this.batcher = batcher;
+    }
+
+    @Override
+    public void publish(SubmittedAnswer answer) {
+        batcher.offer(answer);
+    }
+}
@@ -5,9 +5,8 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
 /**
- * Demo MQ scaffolding. Extend with:
- * - exchange + routing keys
- * - consumers for scoring/analytics
+ * MQ declarations. {@link #ANSWER_SUBMITTED_QUEUE} carries submitted answers when
+ * {@code quiz.answers.queue=rabbit} (see {@link RabbitAnswerQueue}).
  */
 @Configuration
 public class MqConfig {
@@ -0,0 +1,103 @@
+package com.demo.quizarena.mq;
+
+import com.demo.quizarena.cluster.ClusterMembership;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.amqp.core.AcknowledgeMode;
+import org.springframework.amqp.core.AmqpAdmin;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.core.Queue;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.rabbit.listener.SimpleMessageListenerContainer;
+import org.springframework.amqp.rabbit.listener.api.ChannelAwareMessageListener;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+
+/**
+ * Answers through the durable {@link MqConfig#ANSWER_SUBMITTED_QUEUE} queue. The consumer acks
+ * manually, and only once {@link com.demo.quizarena.realtime.AnswerProcessor#applyBatch} has run
+ * for the answer's batch, so at most {@code prefetch} answers are in the JVM at a time: during a
+ * spike the backlog stays in the broker, and answers not yet scored when a node dies are redelivered
+ * rather than lost (a redelivered duplicate is rejected by the one-answer-per-question rule).
+ * In cluster mode each node gets its own {@code answer.submitted.{nodeId}} queue, since only the
+ * owner may score a room.
+ */
+@Component
+@ConditionalOnProperty(name = "quiz.answers.queue", havingValue = "rabbit")
+public class RabbitAnswerQueue implements AnswerQueue {
+
+    private final RabbitTemplate rabbitTemplate;
+    private final ConnectionFactory connectionFactory;
+    private final AmqpAdmin amqpAdmin;
+    private final ObjectMapper objectMapper;
+    private final AnswerBatcher batcher;
+    private final String queueName;
+    private final int prefetch;
+    private SimpleMessageListenerContainer container;
+
+    public RabbitAnswerQueue(RabbitTemplate rabbitTemplate, ConnectionFactory connectionFactory, AmqpAdmin amqpAdmin,
+                             ObjectMapper objectMapper, AnswerBatcher batcher, ClusterMembership membership,
+                             @Value("${quiz.answers.batch-size:256}") int batchSize) {
+        this.rabbitTemplate = rabbitTemplate;
+        this.connectionFactory = connectionFactory;
+        this.amqpAdmin = amqpAdmin;
+        this.objectMapper = objectMapper;
+        this.batcher = batcher;
+        this.queueName = membership.enabled()
+                ? MqConfig.ANSWER_SUBMITTED_QUEUE + "." + membership.selfId()
+                : MqConfig.ANSWER_SUBMITTED_QUEUE;
+        this.prefetch = 4 * Math.max(1, batchSize);
+    }
+
+    @PostConstruct
+    public void start() {
+        amqpAdmin.declareQueue(new Queue(queueName, true));
+        container = new SimpleMessageListenerContainer(connectionFactory);
+        container.setQueueNames(queueName);
+        container.setAcknowledgeMode(AcknowledgeMode.MANUAL);
+        container.setPrefetchCount(prefetch); // unacked (not yet scored) answers: a few rooms' full batches
+        container.setMessageListener((ChannelAwareMessageListener) (message, channel) -> {
+            long tag = message.getMessageProperties().getDeliveryTag();
+            SubmittedAnswer answer;
+            try {
+                answer = objectMapper.readValue(message.getBody(), SubmittedAnswer.class);
+            } catch (IOException e) {
+                System.err.println("[RabbitAnswerQueue] 无法解析答题消息: " + e.getMessage());
+                channel.basicReject(tag, false);
+                return;
+            }
+            answer.onScored = () -> {
+                try {
+                    channel.basicAck(tag, false);
+                } catch (IOException e) { // channel gone: the broker redelivers it
+                    System.err.println("[RabbitAnswerQueue] 确认答题消息失败: " + e.getMessage());
+                }
+            };
+            batcher.offer(answer);
+        });
+        container.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (container != null) container.stop();
+    }
+
+    @Override
+    public void publish(SubmittedAnswer answer) {
+        try {
+            MessageProperties props = new MessageProperties();
+            props.setContentType(MessageProperties.CONTENT_TYPE_JSON);
+            rabbitTemplate.send("", queueName, new Message(objectMapper.writeValueAsBytes(answer), props));
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Cannot encode answer", e);
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.demo.quizarena.mq;
+
+import com.demo.quizarena.realtime.AnswerSubmitMessage;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+/** One answer on its way from the STOMP handler to scoring, stamped with when the server first saw it. */
+public class SubmittedAnswer {
+    public String roomCode;
+    public AnswerSubmitMessage answer;
+    public long receivedAtMs;
+    // run once the answer's batch has been scored; the Rabbit consumer acks the delivery here (null in memory)
+    @JsonIgnore
+    public Runnable onScored;
+
+    public SubmittedAnswer() {}
+
+    public SubmittedAnswer(String roomCode, AnswerSubmitMessage answer, long receivedAtMs) {
+        this.roomCode = roomCode;
+        this.answer = answer;
+        this.receivedAtMs = receivedAtMs;
+    }
+}
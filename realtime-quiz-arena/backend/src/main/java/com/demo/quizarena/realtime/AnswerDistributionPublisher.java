@@ -0,0 +1,125 @@
+package com.demo.quizarena.realtime;
+
+import com.demo.quizarena.service.AnswerDistribution;
+import com.demo.quizarena.service.RoomService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Counts answers into the room's {@link AnswerDistribution} as they arrive and pushes the live
+ * numbers to the host ({@code /user/queue/answers}) at most once per
+ * {@code quiz.answers.distribution-interval-ms}, and only when they changed. At close the numbers
+ * are frozen and pushed one last time with {@code closed = true}.
+ */
+@Component
+public class AnswerDistributionPublisher {
+
+    private final RoomService roomService;
+    private final RoomBroadcaster broadcaster;
+    private final long intervalMs;
+
+    // rooms with an open question -> answered count at the last push
+    private final Map<String, Long> openRooms = new ConcurrentHashMap<>();
+    private ScheduledExecutorService ticker;
+
+    public AnswerDistributionPublisher(RoomService roomService, RoomBroadcaster broadcaster,
+                                       @Value("${quiz.answers.distribution-interval-ms:250}") long intervalMs) {
+        this.roomService = roomService;
+        this.broadcaster = broadcaster;
+        this.intervalMs = Math.max(10, intervalMs);
+    }
+
+    @PostConstruct
+    public void start() {
+        ticker = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "answer-distribution-tick");
+            t.setDaemon(true);
+            return t;
+        });
+        ticker.scheduleAtFixedRate(this::tick, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (ticker != null) ticker.shutdownNow();
+    }
+
+    /** Count an answer on the receiving thread, before it is queued for scoring. Any thread. */
+    public void record(String code, AnswerSubmitMessage msg, long receivedAtMs) {
+        RoomService.Room room = roomService.findRoom(code);
+        AnswerDistribution d = room == null ? null : room.answerDistribution;
+        if (d == null) return;
+        int slot;
+        if (msg.slot != null) {
+            slot = msg.slot; // bound to the sending session by RealtimeController
+            if (slot >= room.players.size()) return;
+        } else {
+            RoomService.Player p = room.players.get(msg.playerId);
+            if (p == null) return;
+            slot = p.slot;
+        }
+        d.record(slot, msg.questionId, msg.optionIndex, msg.answer, receivedAtMs);
+    }
+
+    /** A question opened: start pushing its distribution. Owner thread only. */
+    public void questionOpened(RoomService.Room room) {
+        openRooms.put(room.code, -1L); // the first tick pushes the empty distribution
+    }
+
+    /** The question closed: freeze its numbers and push them as final. Owner thread only. */
+    public void questionClosed(RoomService.Room room) {
+        openRooms.remove(room.code);
+        AnswerDistribution d = room.answerDistribution;
+        if (d == null) return;
+        d.freeze();
+        push(room, d);
+    }
+
+    /** Current numbers for the host's first fetch, or null before the game starts. */
+    public AnswerDistributionPush snapshot(RoomService.Room room) {
+        AnswerDistribution d = room.answerDistribution;
+        return d == null ? null : toPush(room, d, d.counts());
+    }
+
+    private void tick() {
+        openRooms.forEach((code, lastAnswered) -> {
+            RoomService.Room room = roomService.findRoom(code);
+            AnswerDistribution d = room == null ? null : room.answerDistribution;
+            if (d == null || d.isFrozen()) {
+                openRooms.remove(code, lastAnswered);
+                return;
+            }
+            long[] counts = d.counts();
+            long answered = counts[counts.length - 1];
+            if (answered != lastAnswered && openRooms.replace(code, lastAnswered, answered)) {
+                broadcaster.sendToUser(PlayerPrincipalInterceptor.hostUser(room.hostToken), "/queue/answers", toPush(room, d, counts));
+            }
+        });
+    }
+
+    private void push(RoomService.Room room, AnswerDistribution d) {
+        broadcaster.sendToUser(PlayerPrincipalInterceptor.hostUser(room.hostToken), "/queue/answers", toPush(room, d, d.counts()));
+    }
+
+    private static AnswerDistributionPush toPush(RoomService.Room room, AnswerDistribution d, long[] counts) {
+        AnswerDistributionPush push = new AnswerDistributionPush();
+        push.questionId = d.questionId;
+        push.options = d.options;
+        push.counts = Arrays.copyOf(counts, counts.length - 1);
+        push.answered = counts[counts.length - 1];
+        push.totalPlayers = room.players.size();
+        push.unanswered = Math.max(0, push.totalPlayers - push.answered);
+        push.closed = d.isFrozen();
+        push.serverTimeEpochMs = System.currentTimeMillis();
+        return push;
+    }
+}
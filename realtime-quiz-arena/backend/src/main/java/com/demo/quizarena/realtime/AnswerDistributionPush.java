@@ -0,0 +1,20 @@
+package com.demo.quizarena.realtime;
+
+import java.util.List;
+
+/**
+ * Host-only live answer distribution of the current question, on {@code /user/queue/answers} for a
+ * session that connected with the room's {@code hostToken}. {@code closed} marks the final numbers.
+ */
+public class AnswerDistributionPush {
+    public Long questionId;
+    public List<String> options;
+    public long[] counts; // per option, same order as options
+    public long answered;
+    public long unanswered;
+    public int totalPlayers;
+    public boolean closed;
+    public long serverTimeEpochMs;
+
+    public AnswerDistributionPush() {}
+}
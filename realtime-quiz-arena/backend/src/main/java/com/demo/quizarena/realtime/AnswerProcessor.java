@@ -0,0 +1,162 @@
+package com.demo.quizarena.realtime;
+
+import com.demo.quizarena.domain.QuestionSnapshot;
+import com.demo.quizarena.metrics.QuizEvents;
+import com.demo.quizarena.metrics.QuizMetrics;
+import com.demo.quizarena.mq.SubmittedAnswer;
+import com.demo.quizarena.service.QuestionBank;
+import com.demo.quizarena.service.RoomEventLoop;
+import com.demo.quizarena.service.RoomService;
+import com.demo.quizarena.service.ScoreService;
+import com.demo.quizarena.service.ScoringMode;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.BitSet;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+
+/**
+ * Scores batches of answers for one room. Runs on the room's owner thread (see {@link RoomEventLoop}).
+ *
+ * With {@code quiz.answers.scoring=deferred} answers are only recorded (slot, option, latency) while
+ * the question is open, and {@link #scoreClosedQuestion} scores the whole room in one pass at close,
+ * so the leaderboard moves once per question instead of with every batch.
+ */
+@Component
+public class AnswerProcessor {
+
+    private final RoomService roomService;
+    private final ScoreService scoreService;
+    private final QuestionBank questionBank;
+    private final LeaderboardPublisher leaderboardPublisher;
+    private final ScoringMode scoringMode;
+    private final QuizMetrics metrics;
+
+    public AnswerProcessor(RoomService roomService, ScoreService scoreService, QuestionBank questionBank,
+                           LeaderboardPublisher leaderboardPublisher,
+                           @Value("${quiz.answers.scoring:immediate}") ScoringMode scoringMode,
+                           QuizMetrics metrics) {
+        this.roomService = roomService;
+        this.scoreService = scoreService;
+        this.questionBank = questionBank;
+        this.leaderboardPublisher = leaderboardPublisher;
+        this.scoringMode = scoringMode;
+        this.metrics = metrics;
+    }
+
+    public void applyBatch(String code, List<SubmittedAnswer> answers) {
+        QuizEvents.AnswersProcessed event = new QuizEvents.AnswersProcessed();
+        event.begin();
+        RoomService.Room room = roomService.getRoomOrThrow(code);
+        room.lastActivityMs = System.currentTimeMillis();
+        boolean changed = false;
+        for (SubmittedAnswer a : answers) {
+            try {
+                changed |= applyAnswer(room, a.answer, a.receivedAtMs);
+            } catch (RuntimeException e) {
+                metrics.recordAnswerRejected("invalid");
+                // one bad answer (unknown player, stale question) must not cost the rest of the batch
+                System.err.println("[AnswerProcessor.applyBatch] 答案处理失败: code=" + code + ", error=" + e.getMessage());
+            }
+        }
+        // one leaderboard update per batch, further coalesced by the publisher's tick
+        if (changed) leaderboardPublisher.markDirty(room);
+        if (event.shouldCommit()) {
+            event.roomCode = code;
+            event.players = room.playersBySlot.size();
+            event.answers = answers.size();
+            event.changed = changed;
+            event.commit();
+        }
+    }
+
+    /** @return whether the player's score changed */
+    private boolean applyAnswer(RoomService.Room room, AnswerSubmitMessage msg, long now) {
+        if (!roomService.canAcceptAnswer(room, now, msg.questionId)) {
+            // ignore invalid window; could send error to user in real project
+            metrics.recordAnswerRejected(roomService.isCurrentQuestion(room, msg.questionId) ? "window_closed" : "wrong_question");
+            return false;
+        }
+
+        // the slot is normally resolved once at subscribe time; the UUID lookup is the fallback
+        int slot;
+        try {
+            slot = msg.slot != null
+                    ? roomService.requireSlot(room, msg.slot)
+                    : roomService.getPlayer(room, msg.playerId).slot;
+        } catch (NoSuchElementException e) {
+            metrics.recordAnswerRejected("unknown_player");
+            System.err.println("[AnswerProcessor.applyAnswer] 未知玩家: code=" + room.code + ", playerId=" + msg.playerId + ", slot=" + msg.slot);
+            return false;
+        }
+        String answer = msg.answer != null ? msg.answer : roomService.optionAt(room, msg.optionIndex);
+        int option = msg.optionIndex != null ? msg.optionIndex : roomService.optionIndexOf(room, answer);
+        long latency = Math.max(0, now - room.openedAtMs);
+        if (!roomService.recordAnswer(room, slot, latency, option)) { // one answer per question
+            metrics.recordAnswerRejected("duplicate");
+            return false;
+        }
+        metrics.recordAnswerAccepted();
+        // deferred: scored with the rest of the room at close (stragglers applied after that are scored now)
+        if (scoringMode == ScoringMode.DEFERRED && !room.answersScored) return false;
+
+        boolean correct = isCorrect(room, msg.questionId, answer);
+        int base = (room.currentQuestion != null) ? room.currentQuestion.getBasePoints() : 1000;
+        int limit = (room.currentQuestion != null) ? room.currentQuestion.getTimeLimitSec() : 15;
+
+        int score = scoreService.computeScore(correct, base, limit, latency);
+        roomService.addScore(room, slot, score);
+        metrics.recordAnswerScored(now, System.currentTimeMillis());
+        if (score != 0) noteUnsent(room, now);
+        return score != 0;
+    }
+
+    /**
+     * Deferred scoring: score every answer recorded for the current question in one pass over the
+     * room's slot arrays. Does nothing in immediate mode or if the question was already scored.
+     * Owner thread only.
+     */
+    public void scoreClosedQuestion(RoomService.Room room) {
+        if (scoringMode != ScoringMode.DEFERRED || room.answersScored) return;
+
+        int correct = room.currentQuestion != null ? room.currentQuestion.getCorrectIndex() : roomService.optionIndexOf(room, "Mars");
+        int base = (room.currentQuestion != null) ? room.currentQuestion.getBasePoints() : 1000;
+        long limitMs = ((room.currentQuestion != null) ? room.currentQuestion.getTimeLimitSec() : 15) * 1000L;
+
+        BitSet answered = room.answeredSlots;
+        int[] chosen = room.chosenOption;
+        long[] latency = room.answerLatencyMs;
+        int[] slots = new int[answered.cardinality()];
+        int[] points = new int[slots.length];
+        int n = 0;
+        long now = System.currentTimeMillis();
+        for (int slot = answered.nextSetBit(0); slot >= 0; slot = answered.nextSetBit(slot + 1)) {
+            long receivedAtMs = room.openedAtMs + latency[slot];
+            metrics.recordAnswerScored(receivedAtMs, now);
+            if (correct < 0 || chosen[slot] != correct) continue;
+            slots[n] = slot;
+            points[n++] = scoreService.computeScoreFixed(base, limitMs, latency[slot]);
+            noteUnsent(room, receivedAtMs);
+        }
+        roomService.applyDeferredScores(room, slots, points, n);
+        if (n > 0) leaderboardPublisher.markDirty(room);
+    }
+
+    /** Remember the oldest answer whose score change is waiting for a leaderboard frame. */
+    private static void noteUnsent(RoomService.Room room, long receivedAtMs) {
+        if (room.oldestUnsentAnswerMs == 0 || receivedAtMs < room.oldestUnsentAnswerMs) room.oldestUnsentAnswerMs = receivedAtMs;
+    }
+
+    private boolean isCorrect(RoomService.Room room, Long questionId, String answer) {
+        if (questionId == -1L) {
+            return Objects.equals(answer, "Mars");
+        }
+        QuestionSnapshot q = (room.currentQuestion != null && Objects.equals(room.currentQuestion.getId(), questionId))
+                ? room.currentQuestion
+                : questionBank.find(questionId);
+        if (q == null) throw new NoSuchElementException("Question");
+        return q.isCorrect(answer);
+    }
+}
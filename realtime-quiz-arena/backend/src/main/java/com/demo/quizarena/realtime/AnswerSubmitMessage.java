@@ -1,17 +1,39 @@
 package com.demo.quizarena.realtime;
 
-import jakarta.validation.constraints.NotBlank;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.validation.constraints.AssertTrue;
 import jakarta.validation.constraints.NotNull;
 
+/**
+ * Answer frame sent to {@code /app/room/{code}/answer}.
+ * JSON clients send {@code playerId} + {@code answer}; compact (CBOR) clients may send the
+ * player's {@code slot} and the chosen {@code optionIndex} instead. Either way the session must have
+ * connected as that player ({@code playerId} + {@code playerToken} headers): the ids here are checked
+ * against it, not trusted.
+ */
 public class AnswerSubmitMessage {
-    @NotBlank
     public String playerId;
 
-    @NotBlank
     public String answer;
 
+    public Integer slot;
+
+    public Integer optionIndex;
+
     @NotNull
     public Long questionId;
 
     public long clientTimestampMs;
+
+    @JsonIgnore
+    @AssertTrue(message = "playerId or slot is required")
+    public boolean isPlayerIdentified() {
+        return (playerId != null && !playerId.isBlank()) || slot != null;
+    }
+
+    @JsonIgnore
+    @AssertTrue(message = "answer or optionIndex is required")
+    public boolean isAnswerPresent() {
+        return (answer != null && !answer.isBlank()) || optionIndex != null;
+    }
 }
@@ -0,0 +1,33 @@
+package com.demo.quizarena.realtime;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeType;
+
+/**
+ * Opt-in binary encoding of the realtime frames: CBOR, written straight from the same DTOs the JSON
+ * frames come from. The DTOs are already compact (leaderboard rows carry the dense {@code slot},
+ * not the player UUID); clients learn their own slot from the join response and other players'
+ * nicknames from the leaderboard rows.
+ */
+@Component
+public class CompactCborCodec {
+
+    public static final MimeType APPLICATION_CBOR = new MimeType("application", "cbor");
+
+    private final CBORMapper cborMapper = new CBORMapper();
+
+    public CBORMapper cborMapper() {
+        return cborMapper;
+    }
+
+    /** Encode a frame payload as CBOR. */
+    public byte[] encode(Object payload) {
+        try {
+            return cborMapper.writeValueAsBytes(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot encode " + payload.getClass().getSimpleName() + " as CBOR", e);
+        }
+    }
+}
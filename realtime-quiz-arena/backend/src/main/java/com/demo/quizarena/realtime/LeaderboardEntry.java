@@ -1,14 +1,27 @@
 package com.demo.quizarena.realtime;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * One leaderboard row, keyed by {@code slot}. Rows are broadcast, so they never carry the playerId:
+ * that is what a session proves its identity with. In delta pushes the nickname is only sent the
+ * first time a slot appears.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public class LeaderboardEntry {
-    public String playerId;
     public String nickname;
     public int totalScore;
+    public Integer slot;
+    public Integer rank;
 
     public LeaderboardEntry() {}
-    public LeaderboardEntry(String playerId, String nickname, int totalScore) {
-        this.playerId = playerId;
+    public LeaderboardEntry(String nickname, int totalScore) {
         this.nickname = nickname;
         this.totalScore = totalScore;
     }
+    public LeaderboardEntry(String nickname, int totalScore, int slot, int rank) {
+        this(nickname, totalScore);
+        this.slot = slot;
+        this.rank = rank;
+    }
 }
@@ -0,0 +1,13 @@
+package com.demo.quizarena.realtime;
+
+/**
+ * How room leaderboards go over the wire ({@code quiz.leaderboard.protocol}).
+ */
+public enum LeaderboardProtocol {
+    /** Every frame carries every player. */
+    FULL,
+    /** Sequenced frames with only changed entries; snapshot on subscribe. */
+    DELTA,
+    /** Room topic carries the top K only; each player gets their own rank on /user/queue/rank. */
+    TOP_K
+}
@@ -0,0 +1,171 @@
+package com.demo.quizarena.realtime;
+
+import com.demo.quizarena.metrics.QuizMetrics;
+import com.demo.quizarena.service.RoomEventLoop;
+import com.demo.quizarena.service.RoomService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coalescing leaderboard broadcaster.
+ *
+ * Score changes only mark a room dirty. A single ticker thread walks the dirty rooms and asks each
+ * room's owner thread to flush, which happens at most once per interval per room (the interval
+ * grows with room size), plus immediately once the current question has closed. A burst of N
+ * answers therefore costs a handful of sorts and pushes instead of N.
+ *
+ * With {@code quiz.leaderboard.protocol=delta} the periodic frames only carry changed entries
+ * (see {@link LeaderboardPush}); full snapshots go out at game start and on subscribe.
+ * With {@code top-k} the room topic only carries the best K rows and every player whose rank or
+ * score moved gets their own {@link RankPush} on {@code /user/queue/rank}.
+ */
+@Component
+public class LeaderboardPublisher {
+
+    private final RoomBroadcaster broadcaster;
+    private final RoomService roomService;
+    private final RoomEventLoop roomEventLoop;
+    private final QuizMetrics metrics;
+
+    private final long minIntervalMs;
+    private final long maxIntervalMs;
+    private final int largeRoomPlayers;
+    private final LeaderboardProtocol protocol;
+    private final int topK;
+
+    private final Set<String> dirtyRooms = ConcurrentHashMap.newKeySet();
+    private ScheduledExecutorService ticker;
+
+    public LeaderboardPublisher(RoomBroadcaster broadcaster,
+                                RoomService roomService, RoomEventLoop roomEventLoop, QuizMetrics metrics,
+                                @Value("${quiz.leaderboard.min-interval-ms:100}") long minIntervalMs,
+                                @Value("${quiz.leaderboard.max-interval-ms:250}") long maxIntervalMs,
+                                @Value("${quiz.leaderboard.large-room-players:1000}") int largeRoomPlayers,
+                                @Value("${quiz.leaderboard.protocol:full}") LeaderboardProtocol protocol,
+                                @Value("${quiz.leaderboard.top-k:10}") int topK) {
+        this.broadcaster = broadcaster;
+        this.roomService = roomService;
+        this.roomEventLoop = roomEventLoop;
+        this.metrics = metrics;
+        this.minIntervalMs = Math.max(1, minIntervalMs);
+        this.maxIntervalMs = Math.max(this.minIntervalMs, maxIntervalMs);
+        this.largeRoomPlayers = Math.max(1, largeRoomPlayers);
+        this.protocol = protocol;
+        this.topK = Math.max(1, topK);
+    }
+
+    public LeaderboardProtocol protocol() {
+        return protocol;
+    }
+
+    /** What a (re)subscribing client should start from: the whole board, or the top K in top-K mode. */
+    public LeaderboardPush snapshot(RoomService.Room room) {
+        return protocol == LeaderboardProtocol.TOP_K ? roomService.leaderboard(room, topK) : roomService.leaderboard(room);
+    }
+
+    @PostConstruct
+    public void start() {
+        ticker = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "leaderboard-tick");
+            t.setDaemon(true);
+            return t;
+        });
+        long tickMs = Math.max(10, minIntervalMs / 2);
+        ticker.scheduleAtFixedRate(this::tick, tickMs, tickMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (ticker != null) ticker.shutdownNow();
+    }
+
+    /** Record that the room's ranking changed. Must be called on the room's owner thread. */
+    public void markDirty(RoomService.Room room) {
+        room.leaderboardDirty = true;
+        dirtyRooms.add(room.code);
+    }
+
+    /** Push the leaderboard right now (question change, close). Owner thread only. */
+    public void flushNow(RoomService.Room room) {
+        switch (protocol) {
+            case FULL -> send(room, roomService.nextLeaderboardFrame(room, false));
+            case DELTA -> {
+                if (room.changedSlots.isEmpty()) {
+                    room.leaderboardDirty = false; // nothing new; don't burn a sequence number
+                    return;
+                }
+                send(room, roomService.nextLeaderboardFrame(room, true));
+            }
+            case TOP_K -> {
+                sendPersonalRanks(room); // reads changedSlots, which the frame resets
+                send(room, roomService.nextTopLeaderboardFrame(room, topK));
+            }
+        }
+    }
+
+    /** Broadcast a snapshot regardless of protocol (game start resets every client). Owner thread only. */
+    public void publishSnapshot(RoomService.Room room) {
+        if (protocol == LeaderboardProtocol.TOP_K) {
+            flushNow(room);
+        } else {
+            send(room, roomService.nextLeaderboardFrame(room, false));
+        }
+    }
+
+    private void send(RoomService.Room room, LeaderboardPush push) {
+        room.leaderboardDirty = false;
+        room.leaderboardFlushedAtMs = System.currentTimeMillis();
+        broadcaster.broadcast(room.code, "leaderboard", push);
+        if (room.oldestUnsentAnswerMs != 0) {
+            metrics.recordLeaderboardSent(room.oldestUnsentAnswerMs, System.currentTimeMillis());
+            room.oldestUnsentAnswerMs = 0;
+        }
+    }
+
+    private void sendPersonalRanks(RoomService.Room room) {
+        roomService.forEachRankChange(room, (player, push) ->
+                broadcaster.sendToUser(player.playerId, "/queue/rank", push));
+    }
+
+    /** Flush only if something changed since the last push. Owner thread only. */
+    public void flushIfDirty(RoomService.Room room) {
+        if (room.leaderboardDirty) flushNow(room);
+    }
+
+    /** Push interval for a room of the given size: small rooms feel live, huge rooms stay cheap. */
+    long intervalMs(int players) {
+        double fill = Math.min(1.0, players / (double) largeRoomPlayers);
+        return minIntervalMs + Math.round((maxIntervalMs - minIntervalMs) * fill);
+    }
+
+    private void tick() {
+        Iterator<String> it = dirtyRooms.iterator();
+        while (it.hasNext()) {
+            String code = it.next();
+            it.remove();
+            roomEventLoop.execute(code, () -> flushIfDue(code));
+        }
+    }
+
+    private void flushIfDue(String code) {
+        RoomService.Room room = roomService.findRoom(code);
+        if (room == null || !room.leaderboardDirty) return;
+
+        long now = System.currentTimeMillis();
+        boolean questionClosed = now > room.closedAtMs;
+        if (questionClosed || now - room.leaderboardFlushedAtMs >= intervalMs(room.players.size())) {
+            flushNow(room);
+        } else {
+            dirtyRooms.add(code); // not due yet, look again next tick
+        }
+    }
+}
@@ -2,13 +2,29 @@ package com.demo.quizarena.realtime;
 
 import java.util.List;
 
+/**
+ * Leaderboard frame on {@code /topic/room/{code}/leaderboard}.
+ *
+ * {@code full} frames carry every entry in rank order. Delta frames ({@code full == false}) carry only
+ * the entries whose score changed since frame {@code seq - 1}; every other row keeps its score and
+ * clients re-derive ranks by ordering on (totalScore desc, slot asc). A client that sees a gap in
+ * {@code seq} resyncs by subscribing to {@code /app/room/{code}/leaderboard}, which answers with a
+ * full snapshot.
+ */
 public class LeaderboardPush {
     public List<LeaderboardEntry> entries;
     public long serverTimeEpochMs;
+    public long seq;
+    public boolean full = true;
 
     public LeaderboardPush() {}
     public LeaderboardPush(List<LeaderboardEntry> entries, long serverTimeEpochMs) {
         this.entries = entries;
         this.serverTimeEpochMs = serverTimeEpochMs;
     }
+    public LeaderboardPush(List<LeaderboardEntry> entries, long serverTimeEpochMs, long seq, boolean full) {
+        this(entries, serverTimeEpochMs);
+        this.seq = seq;
+        this.full = full;
+    }
 }
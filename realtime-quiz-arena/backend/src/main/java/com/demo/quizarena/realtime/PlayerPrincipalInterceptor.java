@@ -0,0 +1,96 @@
+package com.demo.quizarena.realtime;
+
+import com.demo.quizarena.service.RoomService;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.stereotype.Component;
+
+import java.security.Principal;
+import java.util.Map;
+
+/**
+ * Binds a STOMP session to a player: clients send their {@code playerId} and the secret
+ * {@code playerToken} from the join response as CONNECT headers, and once the token checks out
+ * (see {@link PlayerTokens}) the playerId becomes the session principal, so answers are accepted
+ * as that player and per-player frames can go to {@code /user/queue/...}. A playerId with a missing
+ * or wrong token leaves the session anonymous.
+ * A host sends {@code hostToken} instead and receives host-only frames (answer distribution) under
+ * {@link #hostUser(String)}. Spectators simply connect without either header.
+ *
+ * When a player subscribes to one of their room's topics, their playerId is resolved to the
+ * room slot once and kept in the session, so answers on that session skip the UUID lookup.
+ */
+@Component
+public class PlayerPrincipalInterceptor implements ChannelInterceptor {
+
+    public static final String PLAYER_ID_HEADER = "playerId";
+    public static final String PLAYER_TOKEN_HEADER = "playerToken";
+    public static final String HOST_TOKEN_HEADER = "hostToken";
+    private static final String SLOT_ATTRIBUTE_PREFIX = "quiz.slot.";
+
+    private final RoomService roomService;
+    private final PlayerTokens playerTokens;
+
+    public PlayerPrincipalInterceptor(RoomService roomService, PlayerTokens playerTokens) {
+        this.roomService = roomService;
+        this.playerTokens = playerTokens;
+    }
+
+    public record PlayerPrincipal(String playerId) implements Principal {
+        @Override
+        public String getName() {
+            return playerId;
+        }
+    }
+
+    /** User name of a host session; derived from the secret token, so only the host can claim it. */
+    public static String hostUser(String hostToken) {
+        return "host-" + hostToken;
+    }
+
+    /** Slot of {@code playerId} in room {@code code} if this session resolved it on subscribe, else null. */
+    public static Integer resolvedSlot(SimpMessageHeaderAccessor headers, String code, String playerId) {
+        Principal user = headers.getUser();
+        Map<String, Object> attributes = headers.getSessionAttributes();
+        if (user == null || attributes == null || !user.getName().equals(playerId)) return null;
+        return (Integer) attributes.get(SLOT_ATTRIBUTE_PREFIX + code);
+    }
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (accessor != null && StompCommand.SUBSCRIBE.equals(accessor.getCommand())) {
+            resolveSlot(accessor);
+        } else if (accessor != null && StompCommand.CONNECT.equals(accessor.getCommand())) {
+            String playerId = accessor.getFirstNativeHeader(PLAYER_ID_HEADER);
+            String hostToken = accessor.getFirstNativeHeader(HOST_TOKEN_HEADER);
+            if (playerId != null && !playerId.isBlank()) {
+                if (playerTokens.verify(playerId, accessor.getFirstNativeHeader(PLAYER_TOKEN_HEADER))) {
+                    accessor.setUser(new PlayerPrincipal(playerId));
+                } else {
+                    System.err.println("[PlayerPrincipalInterceptor.preSend] 玩家令牌无效，会话不绑定玩家: playerId=" + playerId);
+                }
+            } else if (hostToken != null && !hostToken.isBlank()) {
+                accessor.setUser(new PlayerPrincipal(hostUser(hostToken)));
+            }
+        }
+        return message;
+    }
+
+    private void resolveSlot(StompHeaderAccessor accessor) {
+        String destination = accessor.getDestination();
+        Principal user = accessor.getUser();
+        Map<String, Object> attributes = accessor.getSessionAttributes();
+        if (destination == null || user == null || attributes == null
+                || !destination.startsWith(RoomBroker.ROOM_TOPIC_PREFIX)) return;
+        String code = RoomBroker.roomKey(destination);
+        RoomService.Room room = roomService.findRoom(code); // null when another node owns the room
+        RoomService.Player p = room == null ? null : room.players.get(user.getName());
+        if (p != null) attributes.put(SLOT_ATTRIBUTE_PREFIX + code, p.slot);
+    }
+}
@@ -0,0 +1,55 @@
+package com.demo.quizarena.realtime;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+
+/**
+ * Secret per-player tokens: the join response hands a player {@code HMAC-SHA256(secret, playerId)}
+ * and a STOMP session may only act as that player if it presents it on CONNECT (see
+ * {@link PlayerPrincipalInterceptor}). The token is derived, not stored, so any node sharing
+ * {@code quiz.rooms.player-token-secret} can check it, also after a restart that recovered the room.
+ * Without a configured secret a random one is used: fine for a single node, but players must rejoin
+ * after a restart.
+ */
+@Component
+public class PlayerTokens {
+
+    private static final String ALGORITHM = "HmacSHA256";
+
+    private final SecretKeySpec key;
+
+    public PlayerTokens(@Value("${quiz.rooms.player-token-secret:}") String secret) {
+        byte[] bytes;
+        if (secret.isBlank()) {
+            bytes = new byte[32];
+            new SecureRandom().nextBytes(bytes);
+            System.out.println("[PlayerTokens] 未配置 quiz.rooms.player-token-secret，使用随机密钥：集群各节点无法互认，重启后玩家需重新加入");
+        } else {
+            bytes = secret.getBytes(StandardCharsets.UTF_8);
+        }
+        this.key = new SecretKeySpec(bytes, ALGORITHM);
+    }
+
+    public String issue(String playerId) {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(mac.doFinal(playerId.getBytes(StandardCharsets.UTF_8)));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 unavailable", e);
+        }
+    }
+
+    public boolean verify(String playerId, String token) {
+        if (playerId == null || token == null) return false;
+        return MessageDigest.isEqual(issue(playerId).getBytes(StandardCharsets.UTF_8), token.getBytes(StandardCharsets.UTF_8));
+    }
+}
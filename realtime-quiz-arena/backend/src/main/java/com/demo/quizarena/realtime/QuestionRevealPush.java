@@ -0,0 +1,18 @@
+package com.demo.quizarena.realtime;
+
+/**
+ * Broadcast on {@code /topic/room/{code}/reveal} when a question's window closes: the correct
+ * answer, whether that was the last question, and when the next one opens if the server advances
+ * on its own ({@code 0} when the host advances).
+ */
+public class QuestionRevealPush {
+    public Long questionId;
+    public String correctAnswer;
+    public int correctOptionIndex; // -1 if the answer is not among the options
+    public int currentIndex;
+    public int totalCount;
+    public boolean finished;
+    public long nextAtEpochMs;
+
+    public QuestionRevealPush() {}
+}
@@ -0,0 +1,100 @@
+package com.demo.quizarena.realtime;
+
+import com.demo.quizarena.metrics.QuizMetrics;
+import com.demo.quizarena.service.RoomEventLoop;
+import com.demo.quizarena.service.RoomService;
+import com.demo.quizarena.service.TimerWheel;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Server-driven question lifecycle on a single {@link TimerWheel}.
+ *
+ * When a question's window ends ({@code closedAtMs}) its deferred answers are scored, the room's
+ * final standings for it are flushed, the host's answer distribution is frozen, and a
+ * {@link QuestionRevealPush} goes to {@code /topic/room/{code}/reveal}; after the last question
+ * the room is {@code FINISHED}. With {@code quiz.question.auto-advance} the next question
+ * opens {@code reveal-delay-ms} later without the host. Timer callbacks only hop onto the room's
+ * event loop; a callback for a question that is no longer current (the host moved on) is ignored.
+ */
+@Component
+public class QuestionTimer {
+
+    private final RoomService roomService;
+    private final RoomEventLoop roomEventLoop;
+    private final RoomBroadcaster broadcaster;
+    private final LeaderboardPublisher leaderboardPublisher;
+    private final AnswerDistributionPublisher distributionPublisher;
+    private final AnswerProcessor answerProcessor;
+    private final QuizMetrics metrics;
+    private final boolean autoAdvance;
+    private final long revealDelayMs;
+    private final TimerWheel wheel;
+
+    public QuestionTimer(RoomService roomService, RoomEventLoop roomEventLoop, RoomBroadcaster broadcaster,
+                         LeaderboardPublisher leaderboardPublisher, AnswerDistributionPublisher distributionPublisher,
+                         AnswerProcessor answerProcessor, QuizMetrics metrics,
+                         @Value("${quiz.question.auto-advance:false}") boolean autoAdvance,
+                         @Value("${quiz.question.reveal-delay-ms:5000}") long revealDelayMs,
+                         @Value("${quiz.question.timer-tick-ms:50}") long tickMs) {
+        this.roomService = roomService;
+        this.roomEventLoop = roomEventLoop;
+        this.broadcaster = broadcaster;
+        this.leaderboardPublisher = leaderboardPublisher;
+        this.distributionPublisher = distributionPublisher;
+        this.answerProcessor = answerProcessor;
+        this.metrics = metrics;
+        this.autoAdvance = autoAdvance;
+        this.revealDelayMs = Math.max(0, revealDelayMs);
+        this.wheel = new TimerWheel("question-timer", tickMs, 512);
+    }
+
+    @PreDestroy
+    public void stop() {
+        wheel.stop();
+    }
+
+    /** A question was just opened in the room: close it when its window ends. Owner thread only. */
+    public void questionOpened(RoomService.Room room) {
+        String code = room.code;
+        int index = room.currentQuestionIndex;
+        long openedAt = room.openedAtMs;
+        distributionPublisher.questionOpened(room);
+        wheel.scheduleAt(room.closedAtMs, () -> roomEventLoop.execute(code, () -> close(code, index, openedAt)));
+    }
+
+    private void close(String code, int index, long openedAt) {
+        RoomService.Room room = current(code, index, openedAt);
+        if (room == null) return;
+
+        metrics.recordQuestionBurst(room.answeredSlots.cardinality());
+        // this question's final standings and answer counts go out before the answer is revealed
+        answerProcessor.scoreClosedQuestion(room);
+        leaderboardPublisher.flushIfDirty(room);
+        distributionPublisher.questionClosed(room);
+        QuestionRevealPush reveal = roomService.closeQuestion(room);
+        if (autoAdvance && !reveal.finished) {
+            reveal.nextAtEpochMs = System.currentTimeMillis() + revealDelayMs;
+            wheel.scheduleAt(reveal.nextAtEpochMs, () -> roomEventLoop.execute(code, () -> advance(code, index, openedAt)));
+        }
+        broadcaster.broadcast(code, "reveal", reveal);
+    }
+
+    private void advance(String code, int index, long openedAt) {
+        RoomService.Room room = current(code, index, openedAt);
+        if (room == null) return;
+
+        QuestionPush push = roomService.advanceQuestion(room);
+        broadcaster.broadcast(code, "question", push);
+        questionOpened(room);
+    }
+
+    /** The room, if it is still in game on the question the timer was set for. */
+    private RoomService.Room current(String code, int index, long openedAt) {
+        RoomService.Room room = roomService.findRoom(code);
+        if (room == null || room.status != RoomService.RoomStatus.IN_GAME) return null;
+        if (room.currentQuestionIndex != index || room.openedAtMs != openedAt) return null;
+        return room;
+    }
+}
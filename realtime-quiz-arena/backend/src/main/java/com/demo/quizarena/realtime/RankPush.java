@@ -0,0 +1,19 @@
+package com.demo.quizarena.realtime;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * A player's own standing, sent to {@code /user/queue/rank} in top-K mode.
+ * {@code above}/{@code below} are the direct neighbours (absent at the ends of the board).
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class RankPush {
+    public int rank;
+    public int totalScore;
+    public int totalPlayers;
+    public LeaderboardEntry above;
+    public LeaderboardEntry below;
+    public long serverTimeEpochMs;
+
+    public RankPush() {}
+}
@@ -1,65 +1,152 @@
 package com.demo.quizarena.realtime;
 
-import com.demo.quizarena.domain.Question;
-import com.demo.quizarena.repo.QuestionRepository;
+import com.demo.quizarena.cluster.ClusterClient;
+import com.demo.quizarena.cluster.ClusterMembership;
+import com.demo.quizarena.cluster.ClusterMessage;
+import com.demo.quizarena.cluster.ClusterRelay;
+import com.demo.quizarena.metrics.HotRoomTracker;
+import com.demo.quizarena.metrics.QuizEvents;
+import com.demo.quizarena.metrics.QuizMetrics;
+import com.demo.quizarena.mq.AnswerQueue;
+import com.demo.quizarena.mq.SubmittedAnswer;
+import com.demo.quizarena.service.RoomEventLoop;
 import com.demo.quizarena.service.RoomService;
-import com.demo.quizarena.service.ScoreService;
 import jakarta.validation.Valid;
 import org.springframework.messaging.handler.annotation.DestinationVariable;
 import org.springframework.messaging.handler.annotation.MessageMapping;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.annotation.SubscribeMapping;
 import org.springframework.stereotype.Controller;
 
-import java.util.NoSuchElementException;
-import java.util.Objects;
+import java.security.Principal;
 
 @Controller
 public class RealtimeController {
 
-    private final SimpMessagingTemplate messagingTemplate;
     private final RoomService roomService;
-    private final ScoreService scoreService;
-    private final QuestionRepository questionRepository;
+    private final RoomEventLoop roomEventLoop;
+    private final LeaderboardPublisher leaderboardPublisher;
+    private final ClusterMembership membership;
+    private final ClusterRelay relay;
+    private final ClusterClient clusterClient;
+    private final AnswerQueue answerQueue;
+    private final AnswerDistributionPublisher distributionPublisher;
+    private final HotRoomTracker hotRooms;
+    private final QuizMetrics metrics;
 
-    public RealtimeController(SimpMessagingTemplate messagingTemplate, RoomService roomService,
-                              ScoreService scoreService, QuestionRepository questionRepository) {
-        this.messagingTemplate = messagingTemplate;
+    public RealtimeController(RoomService roomService, RoomEventLoop roomEventLoop, LeaderboardPublisher leaderboardPublisher,
+                              ClusterMembership membership, ClusterRelay relay, ClusterClient clusterClient,
+                              AnswerQueue answerQueue, AnswerDistributionPublisher distributionPublisher,
+                              HotRoomTracker hotRooms, QuizMetrics metrics) {
         this.roomService = roomService;
-        this.scoreService = scoreService;
-        this.questionRepository = questionRepository;
+        this.roomEventLoop = roomEventLoop;
+        this.leaderboardPublisher = leaderboardPublisher;
+        this.membership = membership;
+        this.relay = relay;
+        this.clusterClient = clusterClient;
+        this.answerQueue = answerQueue;
+        this.distributionPublisher = distributionPublisher;
+        this.hotRooms = hotRooms;
+        this.metrics = metrics;
     }
 
+    /**
+     * The answer is always the session's own: the player is the CONNECT principal, proven by its
+     * token (see {@link PlayerPrincipalInterceptor}), never what the payload claims. Slots are public (every
+     * leaderboard entry carries one), so a payload naming another player or slot is rejected.
+     */
     @MessageMapping("/room/{code}/answer")
-    public void submitAnswer(@DestinationVariable String code, @Valid AnswerSubmitMessage msg) {
-        RoomService.Room room = roomService.getRoomOrThrow(code);
+    public void submitAnswer(@DestinationVariable String code, @Valid AnswerSubmitMessage msg,
+                             SimpMessageHeaderAccessor headers) {
+        // stamp receive time here so queueing on the room loop doesn't cost the player points
         long now = System.currentTimeMillis();
-
-        if (!roomService.canAcceptAnswer(room, now, msg.questionId)) {
-            // ignore invalid window; could send error to user in real project
-            return;
+        QuizEvents.AnswerReceived event = new QuizEvents.AnswerReceived();
+        event.begin();
+        hotRooms.record(code);
+        Principal user = headers.getUser();
+        boolean local = membership.isLocal(code);
+        if (user == null || (msg.playerId != null && !msg.playerId.equals(user.getName()))) {
+            reject(code, msg, user);
+        } else if (!local) {
+            // room lives on another node: hand the answer (and its receive time) to the owner, which checks the slot
+            msg.playerId = user.getName();
+            relay.send(membership.ownerOf(code), ClusterMessage.answer(membership.selfId(), code, msg, now));
+        } else {
+            msg.playerId = user.getName();
+            accept(code, msg, now, PlayerPrincipalInterceptor.resolvedSlot(headers, code, msg.playerId));
+        }
+        if (event.shouldCommit()) {
+            RoomService.Room room = local ? roomService.findRoom(code) : null;
+            event.roomCode = code;
+            event.players = room == null ? 0 : room.players.size();
+            event.relayed = !local;
+            event.commit();
         }
+    }
 
-        RoomService.Player p = roomService.getPlayer(room, msg.playerId);
+    /**
+     * Queue an answer relayed by the node that received it; {@code receivedAtMs} is when that node saw
+     * it, and {@code playerId} is already that session's principal.
+     */
+    public void acceptAnswer(String code, AnswerSubmitMessage msg, long receivedAtMs) {
+        accept(code, msg, receivedAtMs, null);
+    }
 
-        boolean correct = isCorrect(room, msg.questionId, msg.answer);
-        int base = (room.currentQuestion != null) ? room.currentQuestion.getBasePoints() : 1000;
-        int limit = (room.currentQuestion != null) ? room.currentQuestion.getTimeLimitSec() : 15;
-        long latency = Math.max(0, now - room.openedAtMs);
+    /**
+     * Queue an answer for a room owned by this node, once its slot is bound to the sending player.
+     * Scoring happens later, in batches (see {@link com.demo.quizarena.mq.AnswerBatcher}).
+     */
+    private void accept(String code, AnswerSubmitMessage msg, long receivedAtMs, Integer sessionSlot) {
+        Integer slot = sessionSlot;
+        if (slot == null) { // not subscribed yet, or relayed: look the player up once
+            RoomService.Room room = roomService.findRoom(code);
+            RoomService.Player p = room == null ? null : room.players.get(msg.playerId);
+            slot = p == null ? null : p.slot;
+        }
+        if (msg.slot != null && !msg.slot.equals(slot)) {
+            reject(code, msg, null);
+            return;
+        }
+        msg.slot = slot; // null for an unknown player: rejected as such when scored
+        distributionPublisher.record(code, msg, receivedAtMs); // lock-free, on the receiving thread
+        answerQueue.publish(new SubmittedAnswer(code, msg, receivedAtMs));
+    }
 
-        int score = scoreService.computeScore(correct, base, limit, latency);
-        p.totalScore += score;
+    private void reject(String code, AnswerSubmitMessage msg, Principal user) {
+        metrics.recordAnswerRejected("invalid");
+        System.err.println("[RealtimeController.submitAnswer] 答案与会话身份不符，已拒绝: code=" + code
+                + ", playerId=" + msg.playerId + ", slot=" + msg.slot + (user != null ? ", session=" + user.getName() : ""));
+    }
 
-        // broadcast updated leaderboard
-        messagingTemplate.convertAndSend("/topic/room/" + code + "/leaderboard", roomService.leaderboard(room));
+    /**
+     * Full leaderboard snapshot, sent only to the subscribing session. Clients subscribe here after
+     * subscribing to {@code /topic/room/{code}/leaderboard}, and again whenever they detect a gap in
+     * the delta sequence.
+     */
+    @SubscribeMapping("/room/{code}/leaderboard")
+    public LeaderboardPush leaderboardSnapshot(@DestinationVariable String code) {
+        hotRooms.record(code);
+        if (!membership.isLocal(code)) {
+            return clusterClient.get(membership.ownerOf(code), "/api/rooms/" + code + "/leaderboard", LeaderboardPush.class);
+        }
+        return roomEventLoop.call(code, () -> leaderboardPublisher.snapshot(roomService.getRoomOrThrow(code)));
     }
 
-    private boolean isCorrect(RoomService.Room room, Long questionId, String answer) {
-        if (questionId == -1L) {
-            return Objects.equals(answer, "Mars");
+    /**
+     * The subscribing player's current standing (top-K mode); later changes arrive on
+     * {@code /user/queue/rank}. Requires the {@code playerId}/{@code playerToken} CONNECT headers.
+     */
+    @SubscribeMapping("/room/{code}/rank")
+    public RankPush rankSnapshot(@DestinationVariable String code, Principal principal) {
+        hotRooms.record(code);
+        if (principal == null) throw new IllegalStateException("CONNECT without a valid playerId/playerToken");
+        if (!membership.isLocal(code)) {
+            return clusterClient.get(membership.ownerOf(code),
+                    "/api/rooms/" + code + "/players/" + principal.getName() + "/rank", RankPush.class);
         }
-        Question q = (room.currentQuestion != null && Objects.equals(room.currentQuestion.getId(), questionId))
-                ? room.currentQuestion
-                : questionRepository.findById(questionId).orElseThrow(() -> new NoSuchElementException("Question"));
-        return Objects.equals(q.getCorrectAnswer(), answer);
+        return roomEventLoop.call(code, () -> {
+            RoomService.Room room = roomService.getRoomOrThrow(code);
+            return roomService.rankPush(room, roomService.getPlayer(room, principal.getName()));
+        });
     }
 }
@@ -0,0 +1,121 @@
+package com.demo.quizarena.realtime;
+
+import com.demo.quizarena.cluster.ClusterMembership;
+import com.demo.quizarena.cluster.ClusterMessage;
+import com.demo.quizarena.cluster.ClusterRelay;
+import com.demo.quizarena.metrics.QuizEvents;
+import com.demo.quizarena.metrics.QuizMetrics;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeTypeUtils;
+
+/**
+ * Single path for room broadcasts on {@code /topic/room/{code}/...}.
+ *
+ * The payload is encoded once into a byte array that is handed to the broker as-is; the template's
+ * converter is not involved. When binary sessions may be listening it is also encoded once as CBOR,
+ * straight from the DTO, and that array rides along on the same message for
+ * {@link WireFormatNegotiator} to hand to those sessions. The STOMP handler still writes a MESSAGE
+ * frame per session (each has its own subscription header). Each call records the payload size per
+ * format and the fan-out in {@link QuizMetrics}.
+ *
+ * In cluster mode the same bytes (both formats) are relayed to the other nodes, which hand them to
+ * their own subscribers ({@link #deliverLocally}); per-player frames go to every node because the
+ * player may be connected to any of them.
+ */
+@Component
+public class RoomBroadcaster {
+
+    private final SimpMessagingTemplate messagingTemplate;
+    private final ObjectMapper objectMapper;
+    private final CompactCborCodec cborCodec;
+    private final WireFormatNegotiator wireFormats;
+    private final RoomBroker broker;
+    private final QuizMetrics metrics;
+    private final ClusterMembership membership;
+    private final ClusterRelay relay;
+
+    public RoomBroadcaster(SimpMessagingTemplate messagingTemplate, ObjectMapper objectMapper,
+                           CompactCborCodec cborCodec, WireFormatNegotiator wireFormats,
+                           RoomBroker broker, QuizMetrics metrics, ClusterMembership membership, ClusterRelay relay) {
+        this.messagingTemplate = messagingTemplate;
+        this.objectMapper = objectMapper;
+        this.cborCodec = cborCodec;
+        this.wireFormats = wireFormats;
+        this.broker = broker;
+        this.metrics = metrics;
+        this.membership = membership;
+        this.relay = relay;
+    }
+
+    public static String destination(String roomCode, String kind) {
+        return RoomBroker.ROOM_TOPIC_PREFIX + roomCode + "/" + kind;
+    }
+
+    /** Broadcast to {@code /topic/room/{roomCode}/{kind}}, e.g. kind = "question" or "leaderboard". */
+    public void broadcast(String roomCode, String kind, Object payload) {
+        QuizEvents.BroadcastSent event = new QuizEvents.BroadcastSent();
+        event.begin();
+        String destination = destination(roomCode, kind);
+        byte[] body = encode(payload);
+        byte[] cborBody = encodeCborIfNeeded(payload);
+        deliverLocally(destination, body, cborBody);
+        int subscribers = broker.subscriberCount(destination);
+        metrics.recordBroadcast(kind, body.length, cborBody == null ? -1 : cborBody.length, subscribers);
+        if (membership.enabled()) relay.publish(ClusterMessage.broadcast(membership.selfId(), destination, body, cborBody));
+        if (event.shouldCommit()) {
+            event.roomCode = roomCode;
+            event.players = subscribers;
+            event.kind = kind;
+            event.payloadBytes = body.length;
+            event.commit();
+        }
+    }
+
+    /** Send to one player's {@code /user/queue/...} destination, on whichever node they are connected to. */
+    public void sendToUser(String user, String destination, Object payload) {
+        byte[] body = encode(payload);
+        byte[] cborBody = encodeCborIfNeeded(payload);
+        deliverToUserLocally(user, destination, body, cborBody);
+        if (membership.enabled()) relay.publish(ClusterMessage.toUser(membership.selfId(), user, destination, body, cborBody));
+    }
+
+    /** Hand an already encoded frame to this node's subscribers; {@code cborBody} may be null. */
+    public void deliverLocally(String destination, byte[] body, byte[] cborBody) {
+        messagingTemplate.send(destination, jsonMessage(body, cborBody));
+    }
+
+    /** Hand an already encoded frame to the user's sessions on this node, if any; {@code cborBody} may be null. */
+    public void deliverToUserLocally(String user, String destination, byte[] body, byte[] cborBody) {
+        messagingTemplate.send(messagingTemplate.getUserDestinationPrefix() + user + destination, jsonMessage(body, cborBody));
+    }
+
+    byte[] encode(Object payload) {
+        try {
+            return objectMapper.writeValueAsBytes(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot encode " + payload.getClass().getSimpleName(), e);
+        }
+    }
+
+    /**
+     * CBOR only when a binary session could receive it: one connected here, or any node of the
+     * cluster (the relayed frame carries both formats). A session connecting mid-call gets JSON once.
+     */
+    private byte[] encodeCborIfNeeded(Object payload) {
+        return wireFormats.hasCborSessions() || membership.enabled() ? cborCodec.encode(payload) : null;
+    }
+
+    private static Message<byte[]> jsonMessage(byte[] body, byte[] cborBody) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create();
+        accessor.setContentType(MimeTypeUtils.APPLICATION_JSON);
+        if (cborBody != null) accessor.setHeader(WireFormatNegotiator.CBOR_BODY_HEADER, cborBody);
+        accessor.setLeaveMutable(true); // the template still sets the destination header
+        return MessageBuilder.createMessage(body, accessor.getMessageHeaders());
+    }
+}
@@ -0,0 +1,368 @@
+package com.demo.quizarena.realtime;
+
+import com.demo.quizarena.metrics.QuizEvents;
+import com.demo.quizarena.metrics.QuizMetrics;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.broker.AbstractBrokerMessageHandler;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.AbstractSubscribableChannel;
+import org.springframework.messaging.support.ExecutorChannelInterceptor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * In-process broker for {@code /topic/...}, replacing the simple broker there (it keeps {@code /queue}).
+ *
+ * <ul>
+ *   <li>Subscriptions are indexed by room code, then destination, so a broadcast looks up its
+ *       subscribers directly instead of matching every subscription in the server.</li>
+ *   <li>Fan-out runs on a fixed set of shard threads, picked by room code, so a huge room keeps one
+ *       shard busy rather than the caller (the room's event loop).</li>
+ *   <li>Every session has a bounded outbox with at most one frame handed to clientOutboundChannel at
+ *       a time; the next one goes when that frame has been written. A slow client therefore only
+ *       fills its own outbox. When the outbox is full, queued leaderboard frames are dropped first
+ *       (a later frame supersedes them; delta clients resync on the sequence gap), question frames
+ *       are kept, and the session is disconnected when nothing can be dropped or after
+ *       {@code quiz.broker.disconnect-after-drops} drops without ever catching up.</li>
+ * </ul>
+ */
+@Component
+public class RoomBroker extends AbstractBrokerMessageHandler {
+
+    public static final String ROOM_TOPIC_PREFIX = "/topic/room/";
+
+    /** Marks frames sent from an outbox, so their completion releases the next one. */
+    private static final String OUTBOX_HEADER = "roomBrokerOutbox";
+
+    private record Subscription(String sessionId, String subscriptionId) {}
+
+    private final AbstractSubscribableChannel outboundChannel;
+    private final QuizMetrics metrics;
+    private final int queueCapacity;
+    private final int disconnectAfterDrops;
+    private final ExecutorService[] shards;
+
+    // roomCode -> destination -> subscriptions
+    private final Map<String, Map<String, Set<Subscription>>> rooms = new ConcurrentHashMap<>();
+    private final Map<String, SessionOutbox> sessions = new ConcurrentHashMap<>();
+    private final AtomicInteger queuedFrames = new AtomicInteger();
+
+    public RoomBroker(@Qualifier("clientInboundChannel") AbstractSubscribableChannel clientInboundChannel,
+                      @Qualifier("clientOutboundChannel") AbstractSubscribableChannel clientOutboundChannel,
+                      @Qualifier("brokerChannel") AbstractSubscribableChannel brokerChannel,
+                      QuizMetrics metrics,
+                      @Value("${quiz.broker.shards:0}") int shards,
+                      @Value("${quiz.broker.session-queue-capacity:64}") int queueCapacity,
+                      @Value("${quiz.broker.disconnect-after-drops:256}") int disconnectAfterDrops) {
+        super(clientInboundChannel, clientOutboundChannel, brokerChannel, List.of("/topic/"));
+        this.outboundChannel = clientOutboundChannel;
+        this.metrics = metrics;
+        this.queueCapacity = Math.max(1, queueCapacity);
+        this.disconnectAfterDrops = Math.max(1, disconnectAfterDrops);
+        int n = shards > 0 ? shards : Runtime.getRuntime().availableProcessors();
+        this.shards = new ExecutorService[n];
+        for (int i = 0; i < n; i++) {
+            final int index = i;
+            this.shards[i] = Executors.newSingleThreadExecutor(r -> {
+                Thread t = new Thread(r, "room-broker-" + index);
+                t.setDaemon(true);
+                return t;
+            });
+        }
+    }
+
+    @Override
+    protected void startInternal() {
+        outboundChannel.addInterceptor(new OutboxCompletion());
+        metrics.registerBrokerQueues(queuedFrames::get, this::deepestQueue, sessions::size);
+        publishBrokerAvailableEvent();
+    }
+
+    @Override
+    protected void stopInternal() {
+        publishBrokerUnavailableEvent();
+        for (ExecutorService shard : shards) shard.shutdown();
+    }
+
+    /** Current number of subscriptions on a destination. */
+    public int subscriberCount(String destination) {
+        Map<String, Set<Subscription>> room = rooms.get(roomKey(destination));
+        Set<Subscription> subs = room == null ? null : room.get(destination);
+        return subs == null ? 0 : subs.size();
+    }
+
+    /** Frames queued for the room's subscribers, over all its destinations (a session subscribed twice counts once). */
+    public int queueDepth(String roomCode) {
+        Map<String, Set<Subscription>> room = rooms.get(roomCode);
+        if (room == null) return 0;
+        Set<String> seen = new HashSet<>();
+        int depth = 0;
+        for (Set<Subscription> subs : room.values()) {
+            for (Subscription sub : subs) {
+                SessionOutbox box = seen.add(sub.sessionId()) ? sessions.get(sub.sessionId()) : null;
+                if (box != null) depth += box.depth();
+            }
+        }
+        return depth;
+    }
+
+    @Override
+    protected void handleMessageInternal(Message<?> message) {
+        MessageHeaders headers = message.getHeaders();
+        SimpMessageType type = SimpMessageHeaderAccessor.getMessageType(headers);
+        String destination = SimpMessageHeaderAccessor.getDestination(headers);
+        String sessionId = SimpMessageHeaderAccessor.getSessionId(headers);
+        // the base class leaves the prefix check to subclasses: /user and /queue traffic is not ours
+        if (type == null || !checkDestinationPrefix(destination)) return;
+
+        switch (type) {
+            case MESSAGE -> {
+                if (destination == null) return;
+                String room = roomKey(destination);
+                shards[shardIndex(room)].execute(() -> fanOut(room, destination, message));
+            }
+            case SUBSCRIBE -> {
+                String subscriptionId = SimpMessageHeaderAccessor.getSubscriptionId(headers);
+                if (destination == null || sessionId == null || subscriptionId == null) return;
+                SessionOutbox box = sessions.computeIfAbsent(sessionId, SessionOutbox::new);
+                String previous = box.subscriptions.put(subscriptionId, destination);
+                if (previous != null) removeSubscription(previous, sessionId, subscriptionId);
+                // compute() serialises with removeSubscription on the same room, so an emptied room map
+                // can't be dropped between lookup and add
+                rooms.compute(roomKey(destination), (code, byDestination) -> {
+                    if (byDestination == null) byDestination = new ConcurrentHashMap<>();
+                    byDestination.computeIfAbsent(destination, k -> ConcurrentHashMap.newKeySet())
+                            .add(new Subscription(sessionId, subscriptionId));
+                    return byDestination;
+                });
+            }
+            case UNSUBSCRIBE -> {
+                String subscriptionId = SimpMessageHeaderAccessor.getSubscriptionId(headers);
+                SessionOutbox box = sessionId == null ? null : sessions.get(sessionId);
+                if (box == null || subscriptionId == null) return;
+                String previous = box.subscriptions.remove(subscriptionId);
+                if (previous != null) removeSubscription(previous, sessionId, subscriptionId);
+            }
+            case DISCONNECT -> {
+                if (sessionId != null) removeSession(sessionId);
+            }
+            default -> {
+                // CONNECT, heartbeats: answered by the simple broker that still serves /queue
+            }
+        }
+    }
+
+    private void fanOut(String room, String destination, Message<?> message) {
+        Map<String, Set<Subscription>> byDestination = rooms.get(room);
+        Set<Subscription> subs = byDestination == null ? null : byDestination.get(destination);
+        if (subs == null || subs.isEmpty()) return;
+        QuizEvents.BroadcastFannedOut event = new QuizEvents.BroadcastFannedOut();
+        event.begin();
+        String kind = destination.substring(destination.lastIndexOf('/') + 1);
+        boolean droppable = "leaderboard".equals(kind);
+        int reached = 0;
+        for (Subscription sub : subs) {
+            SessionOutbox box = sessions.get(sub.sessionId());
+            if (box != null) {
+                box.offer(toSubscriber(message, sub), kind, droppable);
+                reached++;
+            }
+        }
+        if (event.shouldCommit()) {
+            event.roomCode = room;
+            event.players = reached;
+            event.destination = destination;
+            event.payloadBytes = message.getPayload() instanceof byte[] body ? body.length : 0;
+            event.commit();
+        }
+    }
+
+    private static Message<?> toSubscriber(Message<?> message, Subscription sub) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        accessor.setSessionId(sub.sessionId());
+        accessor.setSubscriptionId(sub.subscriptionId());
+        accessor.copyHeadersIfAbsent(message.getHeaders());
+        accessor.setHeader(OUTBOX_HEADER, Boolean.TRUE);
+        accessor.setLeaveMutable(true);
+        // the payload (one shared, already encoded buffer) is not copied per subscriber
+        return MessageBuilder.createMessage(message.getPayload(), accessor.getMessageHeaders());
+    }
+
+    private void removeSubscription(String destination, String sessionId, String subscriptionId) {
+        rooms.computeIfPresent(roomKey(destination), (code, byDestination) -> {
+            byDestination.computeIfPresent(destination, (d, subs) -> {
+                subs.remove(new Subscription(sessionId, subscriptionId));
+                return subs.isEmpty() ? null : subs;
+            });
+            return byDestination.isEmpty() ? null : byDestination;
+        });
+    }
+
+    private void removeSession(String sessionId) {
+        SessionOutbox box = sessions.remove(sessionId);
+        if (box == null) return;
+        box.close();
+        box.subscriptions.forEach((subscriptionId, destination) -> removeSubscription(destination, sessionId, subscriptionId));
+    }
+
+    private int deepestQueue() {
+        int max = 0;
+        for (SessionOutbox box : sessions.values()) max = Math.max(max, box.depth());
+        return max;
+    }
+
+    /** Room code for {@code /topic/room/{code}/...}; any other destination is its own key. */
+    static String roomKey(String destination) {
+        if (!destination.startsWith(ROOM_TOPIC_PREFIX)) return destination;
+        int end = destination.indexOf('/', ROOM_TOPIC_PREFIX.length());
+        return end < 0 ? destination.substring(ROOM_TOPIC_PREFIX.length()) : destination.substring(ROOM_TOPIC_PREFIX.length(), end);
+    }
+
+    private int shardIndex(String room) {
+        int h = room.hashCode();
+        h ^= (h >>> 16);
+        return Math.floorMod(h, shards.length);
+    }
+
+    private final class SessionOutbox {
+        final String sessionId;
+        final Map<String, String> subscriptions = new ConcurrentHashMap<>(); // subscriptionId -> destination
+
+        private final ArrayDeque<Queued> queue = new ArrayDeque<>();
+        private boolean inFlight;
+        private boolean closed;
+        private int dropsSinceDrained;
+
+        private record Queued(Message<?> message, String kind, boolean droppable) {}
+
+        SessionOutbox(String sessionId) {
+            this.sessionId = sessionId;
+        }
+
+        void offer(Message<?> message, String kind, boolean droppable) {
+            boolean sendNow = false;
+            boolean disconnect = false;
+            String dropped = null;
+            synchronized (this) {
+                if (closed) return;
+                if (!inFlight) {
+                    inFlight = true;
+                    sendNow = true;
+                } else if (queue.size() < queueCapacity) {
+                    enqueue(message, kind, droppable);
+                } else {
+                    Queued evicted = evictDroppable();
+                    if (evicted != null) {
+                        dropped = evicted.kind();
+                        enqueue(message, kind, droppable);
+                    } else if (droppable) {
+                        dropped = kind;
+                    } else {
+                        disconnect = true; // nothing left to give up but question frames
+                    }
+                    if (dropped != null && ++dropsSinceDrained >= disconnectAfterDrops) disconnect = true;
+                }
+            }
+            if (dropped != null) metrics.recordBrokerDrop(dropped);
+            if (disconnect) {
+                disconnectSlowConsumer(this);
+            } else if (sendNow) {
+                send(message);
+            }
+        }
+
+        /** The frame handed to clientOutboundChannel has been written (or failed): release the next one. */
+        void sent() {
+            Message<?> next;
+            synchronized (this) {
+                Queued queued = closed ? null : queue.pollFirst();
+                if (queued == null) {
+                    inFlight = false;
+                    dropsSinceDrained = 0;
+                    return;
+                }
+                queuedFrames.decrementAndGet();
+                next = queued.message();
+            }
+            send(next);
+        }
+
+        synchronized int depth() {
+            return queue.size();
+        }
+
+        synchronized void close() {
+            closed = true;
+            queuedFrames.addAndGet(-queue.size());
+            queue.clear();
+        }
+
+        private void enqueue(Message<?> message, String kind, boolean droppable) {
+            queue.addLast(new Queued(message, kind, droppable));
+            queuedFrames.incrementAndGet();
+        }
+
+        private Queued evictDroppable() {
+            for (Iterator<Queued> it = queue.iterator(); it.hasNext(); ) {
+                Queued q = it.next();
+                if (q.droppable()) {
+                    it.remove();
+                    queuedFrames.decrementAndGet();
+                    return q;
+                }
+            }
+            return null;
+        }
+
+        private void send(Message<?> message) {
+            boolean accepted;
+            try {
+                accepted = outboundChannel.send(message);
+            } catch (Exception e) {
+                accepted = false;
+            }
+            if (!accepted) sent(); // never reached a handler, so no completion callback will come
+        }
+    }
+
+    private void disconnectSlowConsumer(SessionOutbox box) {
+        System.out.println("[RoomBroker.disconnectSlowConsumer] 客户端消费过慢，断开连接: sessionId=" + box.sessionId);
+        removeSession(box.sessionId);
+        // an ERROR frame makes the STOMP handler close the WebSocket after sending it
+        StompHeaderAccessor accessor = StompHeaderAccessor.create(StompCommand.ERROR);
+        accessor.setSessionId(box.sessionId);
+        accessor.setMessage("slow consumer");
+        accessor.setLeaveMutable(true);
+        outboundChannel.send(MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders()));
+        metrics.recordSlowConsumerDisconnect();
+    }
+
+    private final class OutboxCompletion implements ExecutorChannelInterceptor {
+        @Override
+        public void afterMessageHandled(Message<?> message, MessageChannel channel, MessageHandler handler, Exception ex) {
+            if (!Boolean.TRUE.equals(message.getHeaders().get(OUTBOX_HEADER))) return;
+            String sessionId = SimpMessageHeaderAccessor.getSessionId(message.getHeaders());
+            SessionOutbox box = sessionId == null ? null : sessions.get(sessionId);
+            if (box != null) box.sent();
+        }
+    }
+}
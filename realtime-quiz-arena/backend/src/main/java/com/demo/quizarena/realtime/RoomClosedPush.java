@@ -0,0 +1,18 @@
+package com.demo.quizarena.realtime;
+
+/**
+ * Broadcast on {@code /topic/room/{code}/closed} right before a room is evicted; the room code
+ * stops resolving afterwards. {@code reason} is {@code completed} (the game ended normally and
+ * its retention ran out) or {@code idle} (nothing happened for the idle timeout).
+ */
+public class RoomClosedPush {
+    public String reason;
+    public long serverTimeEpochMs;
+
+    public RoomClosedPush() {}
+
+    public RoomClosedPush(String reason, long serverTimeEpochMs) {
+        this.reason = reason;
+        this.serverTimeEpochMs = serverTimeEpochMs;
+    }
+}
@@ -0,0 +1,113 @@
+package com.demo.quizarena.realtime;
+
+import com.demo.quizarena.metrics.QuizMetrics;
+import com.demo.quizarena.service.RoomEventLoop;
+import com.demo.quizarena.service.RoomService;
+import com.demo.quizarena.service.SpeedGameService;
+import com.demo.quizarena.service.TimerWheel;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Room lifecycle: live, then finished, then evicted, so a long-running node's memory plateaus.
+ *
+ * Every room has one pending check on a coarse {@link TimerWheel}. The check runs on the room's
+ * owner thread and either reschedules itself for the room's next deadline or moves it on:
+ * <ul>
+ *   <li>a live room with no activity for {@code quiz.rooms.idle-timeout-ms} is finished as {@code idle};</li>
+ *   <li>a finished room is kept {@code finished-retention-ms} for result pages, then a
+ *       {@link RoomClosedPush} goes to {@code /topic/room/{code}/closed} and the room is removed.</li>
+ * </ul>
+ * Activity only bumps a timestamp; nothing is cancelled or rescheduled on the hot path. Idle speed
+ * game sessions are swept on the same wheel.
+ */
+@Component
+public class RoomReaper {
+
+    private final RoomService roomService;
+    private final SpeedGameService speedGameService;
+    private final RoomEventLoop roomEventLoop;
+    private final RoomBroadcaster broadcaster;
+    private final QuizMetrics metrics;
+    private final long idleTimeoutMs;
+    private final long finishedRetentionMs;
+    private final long speedSessionIdleMs;
+    private final long speedSweepIntervalMs;
+    private final TimerWheel wheel;
+
+    public RoomReaper(RoomService roomService, SpeedGameService speedGameService, RoomEventLoop roomEventLoop,
+                      RoomBroadcaster broadcaster, QuizMetrics metrics,
+                      @Value("${quiz.rooms.idle-timeout-ms:1800000}") long idleTimeoutMs,
+                      @Value("${quiz.rooms.finished-retention-ms:600000}") long finishedRetentionMs,
+                      @Value("${quiz.rooms.speed-session-idle-ms:3600000}") long speedSessionIdleMs,
+                      @Value("${quiz.rooms.reaper-tick-ms:1000}") long tickMs) {
+        this.roomService = roomService;
+        this.speedGameService = speedGameService;
+        this.roomEventLoop = roomEventLoop;
+        this.broadcaster = broadcaster;
+        this.metrics = metrics;
+        this.idleTimeoutMs = Math.max(1, idleTimeoutMs);
+        this.finishedRetentionMs = Math.max(0, finishedRetentionMs);
+        this.speedSessionIdleMs = Math.max(1, speedSessionIdleMs);
+        this.speedSweepIntervalMs = Math.max(1, this.speedSessionIdleMs / 2); // a session lives at most 1.5x the limit
+        this.wheel = new TimerWheel("room-reaper", tickMs, 512);
+    }
+
+    @PostConstruct
+    public void start() {
+        metrics.registerLiveRooms(roomService::roomCount, roomService::playerCount, speedGameService::sessionCount);
+        wheel.schedule(speedSweepIntervalMs, this::sweepSpeedSessions);
+    }
+
+    @PreDestroy
+    public void stop() {
+        wheel.stop();
+    }
+
+    /** Start tracking a newly created room. Any thread. */
+    public void roomCreated(RoomService.Room room) {
+        schedule(room.code, room.lastActivityMs + idleTimeoutMs);
+    }
+
+    private void schedule(String code, long atEpochMs) {
+        wheel.scheduleAt(atEpochMs, () -> roomEventLoop.execute(code, () -> check(code)));
+    }
+
+    private void check(String code) {
+        RoomService.Room room = roomService.findRoom(code);
+        if (room == null) return;
+
+        long now = System.currentTimeMillis();
+        if (room.status != RoomService.RoomStatus.FINISHED) {
+            long idleAt = room.lastActivityMs + idleTimeoutMs;
+            if (now < idleAt) {
+                schedule(code, idleAt);
+                return;
+            }
+            System.out.println("[RoomReaper.check] 房间长时间无活动，结束游戏: code=" + code);
+            roomService.finish(room, "idle");
+        }
+
+        long expireAt = room.finishedAtMs + finishedRetentionMs;
+        if (now < expireAt) {
+            schedule(code, expireAt);
+            return;
+        }
+        broadcaster.broadcast(code, "closed", new RoomClosedPush(room.finishReason, now));
+        roomService.removeRoom(room);
+        metrics.recordRoomEvicted(room.finishReason);
+        System.out.println("[RoomReaper.check] 房间已回收: code=" + code + ", reason=" + room.finishReason
+                + ", 剩余房间数=" + roomService.roomCount());
+    }
+
+    private void sweepSpeedSessions() {
+        try {
+            int evicted = speedGameService.evictIdleSessions(speedSessionIdleMs);
+            if (evicted > 0) metrics.recordSpeedSessionsEvicted(evicted);
+        } finally {
+            wheel.schedule(speedSweepIntervalMs, this::sweepSpeedSessions);
+        }
+    }
+}
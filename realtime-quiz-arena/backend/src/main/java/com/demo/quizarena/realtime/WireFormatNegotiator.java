@@ -0,0 +1,139 @@
+package com.demo.quizarena.realtime;
+
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.converter.MessageConverter;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-connection wire format negotiation.
+ *
+ * A client opts into binary frames by sending {@code x-wire-format: cbor} on CONNECT. It then gets
+ * binary WebSocket frames ({@code content-type: application/octet-stream}, plus the same
+ * {@code x-wire-format} header) holding CBOR; every other client keeps receiving JSON. Such a client
+ * sends CBOR the same way: a binary frame with {@code content-type: application/octet-stream} (or
+ * {@code application/cbor}).
+ *
+ * Nothing is transcoded here. {@link RoomBroadcaster} encodes each payload once per format and
+ * attaches the CBOR bytes to the JSON message under {@link #CBOR_BODY_HEADER}; the outbound
+ * interceptor only swaps them in for binary sessions. Replies to {@code @SubscribeMapping} go to a
+ * single session, so {@link #outboundConverter()} encodes those as CBOR directly.
+ */
+@Component
+public class WireFormatNegotiator {
+
+    public static final String WIRE_FORMAT_HEADER = "x-wire-format";
+    public static final String CBOR = "cbor";
+    /** Internal message header with the CBOR encoding of a JSON frame; never written to the wire. */
+    public static final String CBOR_BODY_HEADER = "quiz.cborBody";
+
+    private final CompactCborCodec codec;
+    private final Map<String, Boolean> cborSessions = new ConcurrentHashMap<>();
+
+    private final ChannelInterceptor inbound = new ChannelInterceptor() {
+        @Override
+        public Message<?> preSend(Message<?> message, MessageChannel channel) {
+            StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+            if (accessor == null) return message;
+            if (StompCommand.CONNECT.equals(accessor.getCommand())
+                    && CBOR.equalsIgnoreCase(accessor.getFirstNativeHeader(WIRE_FORMAT_HEADER))) {
+                cborSessions.put(accessor.getSessionId(), Boolean.TRUE);
+            } else if (StompCommand.SEND.equals(accessor.getCommand()) && isCbor(accessor.getSessionId())
+                    && MimeTypeUtils.APPLICATION_OCTET_STREAM.equals(accessor.getContentType())) {
+                // binary frames have to be octet-stream on the wire; for a cbor session that means CBOR
+                accessor.setContentType(CompactCborCodec.APPLICATION_CBOR);
+            }
+            return message;
+        }
+    };
+
+    private final ChannelInterceptor outbound = new ChannelInterceptor() {
+        @Override
+        public Message<?> preSend(Message<?> message, MessageChannel channel) {
+            if (SimpMessageHeaderAccessor.getMessageType(message.getHeaders()) == SimpMessageType.MESSAGE
+                    && message.getHeaders().get(CBOR_BODY_HEADER) instanceof byte[] cbor
+                    && isCbor(SimpMessageHeaderAccessor.getSessionId(message.getHeaders()))) {
+                SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.wrap(message);
+                markCbor(accessor);
+                return MessageBuilder.createMessage(cbor, accessor.getMessageHeaders());
+            }
+            return message;
+        }
+    };
+
+    private final MessageConverter converter = new MessageConverter() {
+        @Override
+        public Object fromMessage(Message<?> message, Class<?> targetClass) {
+            return null; // inbound CBOR is read by the application/cbor Jackson converter
+        }
+
+        @Override
+        public Message<?> toMessage(Object payload, MessageHeaders headers) {
+            if (headers == null || !isCbor(SimpMessageHeaderAccessor.getSessionId(headers))) return null;
+            SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create();
+            accessor.copyHeaders(headers);
+            markCbor(accessor);
+            accessor.setLeaveMutable(true); // the template still sets the destination header
+            return MessageBuilder.createMessage(codec.encode(payload), accessor.getMessageHeaders());
+        }
+    };
+
+    public WireFormatNegotiator(CompactCborCodec codec) {
+        this.codec = codec;
+    }
+
+    /** For clientInboundChannel: records the format a session asked for on CONNECT. */
+    public ChannelInterceptor inboundInterceptor() {
+        return inbound;
+    }
+
+    /** For clientOutboundChannel: hands binary sessions the CBOR encoding attached to a frame. */
+    public ChannelInterceptor outboundInterceptor() {
+        return outbound;
+    }
+
+    /**
+     * First in the message converter chain: encodes replies addressed to one binary session as CBOR
+     * and leaves everything else to the JSON converter.
+     */
+    public MessageConverter outboundConverter() {
+        return converter;
+    }
+
+    public boolean isCbor(String sessionId) {
+        return sessionId != null && cborSessions.containsKey(sessionId);
+    }
+
+    /** Whether any session on this node asked for CBOR, i.e. whether broadcasts need that encoding too. */
+    public boolean hasCborSessions() {
+        return !cborSessions.isEmpty();
+    }
+
+    @EventListener
+    public void onDisconnect(SessionDisconnectEvent event) {
+        cborSessions.remove(event.getSessionId());
+    }
+
+    private static void markCbor(SimpMessageHeaderAccessor accessor) {
+        // octet-stream is what makes Spring send a binary WebSocket frame; replies to @SubscribeMapping
+        // already carry a native content-type header, so both have to agree
+        accessor.setContentType(MimeTypeUtils.APPLICATION_OCTET_STREAM);
+        accessor.setNativeHeader(StompHeaderAccessor.STOMP_CONTENT_TYPE_HEADER, MimeTypeUtils.APPLICATION_OCTET_STREAM_VALUE);
+        accessor.setNativeHeader(WIRE_FORMAT_HEADER, CBOR);
+        accessor.removeHeader(CBOR_BODY_HEADER);
+    }
+}
@@ -0,0 +1,90 @@
+package com.demo.quizarena.service;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Live per-option answer counts of one question, written directly by the threads that receive
+ * answers rather than by the room's owner thread.
+ *
+ * Every option has its own {@link LongAdder} (internally striped into per-thread cells), and
+ * first-answer detection is a CAS on a bit per player slot, so a burst of answers at question close
+ * spreads over many cache lines instead of serialising on one counter. Reads ({@link #counts}) sum the
+ * cells and may be a moment behind the writers; {@link #freeze} fixes the final numbers at close.
+ */
+public final class AnswerDistribution {
+
+    public final Long questionId;
+    public final List<String> options;
+    public final long openedAtMs;
+    public final long closedAtMs;
+
+    private final LongAdder[] perOption;
+    private final LongAdder answered = new LongAdder();
+    // one bit per slot of the players present at open; players who join mid-question go to the set
+    private final AtomicLongArray answeredBits;
+    private final Set<Integer> answeredLateJoiners = ConcurrentHashMap.newKeySet();
+    private volatile long[] frozen;
+
+    public AnswerDistribution(Long questionId, List<String> options, long openedAtMs, long closedAtMs, int players) {
+        this.questionId = questionId;
+        this.options = List.copyOf(options);
+        this.openedAtMs = openedAtMs;
+        this.closedAtMs = closedAtMs;
+        this.perOption = new LongAdder[this.options.size()];
+        for (int i = 0; i < perOption.length; i++) perOption[i] = new LongAdder();
+        this.answeredBits = new AtomicLongArray((Math.max(0, players) + 63) >>> 6);
+    }
+
+    /**
+     * Count a player's first answer to this question. Safe from any thread.
+     *
+     * @param slot        the player's slot (repeat answers are not counted)
+     * @param optionIndex chosen option, or null to look {@code answer} up among the options
+     * @return whether it was counted
+     */
+    public boolean record(int slot, Long questionId, Integer optionIndex, String answer, long receivedAtMs) {
+        if (frozen != null || !this.questionId.equals(questionId)) return false;
+        if (receivedAtMs < openedAtMs || receivedAtMs > closedAtMs) return false;
+        int index = optionIndex != null ? optionIndex : options.indexOf(answer);
+        if (index < 0 || index >= perOption.length) return false;
+        if (slot < 0 || !markAnswered(slot)) return false;
+        perOption[index].increment();
+        answered.increment();
+        return true;
+    }
+
+    private boolean markAnswered(int slot) {
+        int word = slot >>> 6;
+        if (word >= answeredBits.length()) return answeredLateJoiners.add(slot);
+        long bit = 1L << slot; // shift distance is taken mod 64
+        long old;
+        do {
+            old = answeredBits.get(word);
+            if ((old & bit) != 0) return false;
+        } while (!answeredBits.compareAndSet(word, old, old | bit));
+        return true;
+    }
+
+    public boolean isFrozen() {
+        return frozen != null;
+    }
+
+    /** Answers per option (index-aligned with {@link #options}), then the answered total as the last element. */
+    public long[] counts() {
+        long[] fixed = frozen;
+        if (fixed != null) return fixed.clone();
+        long[] counts = new long[perOption.length + 1];
+        for (int i = 0; i < perOption.length; i++) counts[i] = perOption[i].sum();
+        counts[perOption.length] = answered.sum();
+        return counts;
+    }
+
+    /** Stop counting and keep the current numbers as final. */
+    public void freeze() {
+        if (frozen == null) frozen = counts();
+    }
+}
@@ -0,0 +1,11 @@
+package com.demo.quizarena.service;
+
+/**
+ * The node is at its configured limit of live rooms or players; the request may succeed later
+ * (or on another node). Mapped to 503 by {@code GlobalExceptionHandler}.
+ */
+public class CapacityExceededException extends RuntimeException {
+    public CapacityExceededException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,163 @@
+package com.demo.quizarena.service;
+
+import com.demo.quizarena.domain.Question;
+import com.demo.quizarena.domain.QuestionSnapshot;
+import com.demo.quizarena.repo.QuestionRepository;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * All questions, in memory, for drawing games without touching the database.
+ *
+ * Readers see an immutable {@link Snapshot}: a dense array of {@link QuestionSnapshot}s, an id index
+ * and one index array per category. Every room drawing a question gets the same shared instance, so a
+ * question's parsed options exist once however many games use it. Drawing k
+ * questions picks k distinct slots with Floyd's algorithm, so it costs O(k) whatever the bank size,
+ * instead of {@code ORDER BY RANDOM()} sorting the whole table per game. Writes ({@link #put},
+ * {@link #remove}) are rare admin edits: they copy the snapshot with the change applied and publish
+ * the copy, so a draw in progress never sees a half-applied edit.
+ *
+ * The bank loads itself from the database on first use; {@link #reload} re-reads it after bulk
+ * changes such as the startup seed.
+ */
+@Component
+public class QuestionBank {
+
+    private static final int[] NONE = new int[0];
+
+    /** One immutable version of the bank. */
+    private static final class Snapshot {
+        final QuestionSnapshot[] questions;
+        final Map<Long, Integer> indexById;
+        final Map<String, int[]> indexByCategory;
+
+        Snapshot(QuestionSnapshot[] questions) {
+            this.questions = questions;
+            this.indexById = new HashMap<>(questions.length * 2);
+            Map<String, List<Integer>> byCategory = new HashMap<>();
+            for (int i = 0; i < questions.length; i++) {
+                indexById.put(questions[i].getId(), i);
+                String category = questions[i].getCategory();
+                if (category != null) byCategory.computeIfAbsent(category, c -> new ArrayList<>()).add(i);
+            }
+            this.indexByCategory = new HashMap<>(byCategory.size() * 2);
+            byCategory.forEach((c, list) -> indexByCategory.put(c, list.stream().mapToInt(Integer::intValue).toArray()));
+        }
+    }
+
+    private final QuestionRepository questionRepository;
+    private volatile Snapshot snapshot;
+
+    public QuestionBank(QuestionRepository questionRepository) {
+        this.questionRepository = questionRepository;
+    }
+
+    /** Re-read every question from the database and publish them as the new snapshot. */
+    public synchronized void reload() {
+        List<Question> all = questionRepository.findAll();
+        QuestionSnapshot[] questions = new QuestionSnapshot[all.size()];
+        for (int i = 0; i < questions.length; i++) questions[i] = snapshotOf(all.get(i));
+        snapshot = new Snapshot(questions);
+        System.out.println("[QuestionBank.reload] 题库已加载: " + questions.length + " 道题目, " + snapshot.indexByCategory.size() + " 个分类");
+    }
+
+    /** A question was created or updated (already saved, so it has an id). */
+    public synchronized void put(Question saved) {
+        Snapshot current = current();
+        QuestionSnapshot copy = snapshotOf(saved);
+        Integer index = current.indexById.get(copy.getId());
+        QuestionSnapshot[] questions;
+        if (index != null) {
+            questions = current.questions.clone();
+            questions[index] = copy;
+        } else {
+            questions = Arrays.copyOf(current.questions, current.questions.length + 1);
+            questions[questions.length - 1] = copy;
+        }
+        snapshot = new Snapshot(questions);
+    }
+
+    /** A question was deleted. */
+    public synchronized void remove(Long id) {
+        Snapshot current = current();
+        Integer index = current.indexById.get(id);
+        if (index == null) return;
+        QuestionSnapshot[] questions = new QuestionSnapshot[current.questions.length - 1];
+        System.arraycopy(current.questions, 0, questions, 0, index);
+        System.arraycopy(current.questions, index + 1, questions, index, questions.length - index);
+        snapshot = new Snapshot(questions);
+    }
+
+    public int size() {
+        return current().questions.length;
+    }
+
+    /** The question with this id, or null. */
+    public QuestionSnapshot find(Long id) {
+        Snapshot s = current();
+        Integer index = s.indexById.get(id);
+        return index == null ? null : s.questions[index];
+    }
+
+    /** Up to {@code count} distinct questions in random order; all of them if the bank is smaller. */
+    public List<QuestionSnapshot> sample(int count) {
+        Snapshot s = current();
+        return pick(s.questions, null, s.questions.length, count);
+    }
+
+    /** Like {@link #sample(int)}, from one category only. */
+    public List<QuestionSnapshot> sample(String category, int count) {
+        Snapshot s = current();
+        int[] indexes = s.indexByCategory.getOrDefault(category, NONE);
+        return pick(s.questions, indexes, indexes.length, count);
+    }
+
+    private Snapshot current() {
+        Snapshot s = snapshot;
+        if (s == null) {
+            synchronized (this) {
+                if (snapshot == null) reload();
+                s = snapshot;
+            }
+        }
+        return s;
+    }
+
+    /**
+     * Floyd's sampling: k distinct positions out of n with exactly k random draws. Every k-subset
+     * is equally likely but the order they come out in is not, so the picks are shuffled afterwards.
+     */
+    private static List<QuestionSnapshot> pick(QuestionSnapshot[] questions, int[] indexes, int n, int count) {
+        int k = Math.max(0, Math.min(count, n));
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Set<Integer> chosen = new HashSet<>(k * 2);
+        List<QuestionSnapshot> picked = new ArrayList<>(k);
+        for (int j = n - k; j < n; j++) {
+            int t = random.nextInt(j + 1);
+            int position = chosen.contains(t) ? j : t; // j itself can't be taken yet: earlier draws were all below it
+            chosen.add(position);
+            picked.add(questions[indexes == null ? position : indexes[position]]);
+        }
+        Collections.shuffle(picked, random);
+        return picked;
+    }
+
+    /** Rows written before answers were checked against the options would score nobody: say so. */
+    private static QuestionSnapshot snapshotOf(Question q) {
+        QuestionSnapshot s = QuestionSnapshot.of(q);
+        if (s.getCorrectIndex() < 0) {
+            System.err.println("[QuestionBank] 题目的正确答案不在选项中，没有人能答对: id=" + q.getId()
+                    + ", correctAnswer=" + q.getCorrectAnswer() + ", options=" + s.getOptions());
+        }
+        return s;
+    }
+}
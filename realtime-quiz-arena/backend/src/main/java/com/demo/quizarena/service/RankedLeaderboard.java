@@ -0,0 +1,233 @@
+package com.demo.quizarena.service;
+
+import java.util.Arrays;
+
+/**
+ * Order-statistic ranking of one room, kept up to date incrementally instead of re-sorting.
+ *
+ * An indexable skip list (each forward link remembers how many entries it jumps over) ordered by
+ * score descending, then by join slot ascending so ties rank in join order. Players are addressed
+ * by their dense join slot.
+ * <ul>
+ *   <li>{@link #add} / {@link #setScore}: O(log N)</li>
+ *   <li>{@link #rankOf}: O(log N)</li>
+ *   <li>{@link #forEachTop}: O(K)</li>
+ *   <li>{@link #forEachInRanks}: O(log N + K)</li>
+ * </ul>
+ * Not thread-safe: like the rest of the room it is only touched on the room's owner thread.
+ */
+public final class RankedLeaderboard {
+
+    /** Receives entries in rank order; rank is 1-based. */
+    @FunctionalInterface
+    public interface Visitor {
+        void visit(int rank, int slot, int score);
+    }
+
+    private static final int MAX_LEVEL = 32;
+
+    private static final class Node {
+        final int slot;
+        int score;
+        Node prev;
+        final Node[] next;
+        final int[] span; // level-0 steps from this node to next[i]
+
+        Node(int slot, int score, int level) {
+            this.slot = slot;
+            this.score = score;
+            this.next = new Node[level];
+            this.span = new int[level];
+        }
+    }
+
+    private final Node head = new Node(-1, Integer.MAX_VALUE, MAX_LEVEL);
+    private final Node[] update = new Node[MAX_LEVEL];
+    private final int[] rankAt = new int[MAX_LEVEL];
+    private Node[] bySlot = new Node[16];
+    private int level = 1;
+    private int size;
+    private long seed = 0x9E3779B97F4A7C15L;
+
+    public int size() {
+        return size;
+    }
+
+    public boolean contains(int slot) {
+        return slot >= 0 && slot < bySlot.length && bySlot[slot] != null;
+    }
+
+    /** Add a new player with the given starting score. */
+    public void add(int slot, int score) {
+        if (contains(slot)) throw new IllegalArgumentException("slot already ranked: " + slot);
+        if (slot >= bySlot.length) bySlot = Arrays.copyOf(bySlot, Math.max(slot + 1, bySlot.length * 2));
+        bySlot[slot] = insert(slot, score);
+    }
+
+    public void remove(int slot) {
+        Node node = nodeOrThrow(slot);
+        delete(node);
+        bySlot[slot] = null;
+    }
+
+    public int scoreOf(int slot) {
+        return nodeOrThrow(slot).score;
+    }
+
+    /** Move a player to a new score; a no-op on the structure if the order doesn't change. */
+    public void setScore(int slot, int score) {
+        Node node = nodeOrThrow(slot);
+        if (node.score == score) return;
+        Node before = node.prev;
+        Node after = node.next[0];
+        if ((before == null || precedes(before.score, before.slot, score, slot))
+                && (after == null || precedes(score, slot, after.score, after.slot))) {
+            node.score = score; // still between the same neighbours
+            return;
+        }
+        delete(node);
+        bySlot[slot] = insert(slot, score);
+    }
+
+    /** 1-based rank of the player. */
+    public int rankOf(int slot) {
+        Node node = nodeOrThrow(slot);
+        int rank = 0;
+        Node x = head;
+        for (int i = level - 1; i >= 0; i--) {
+            while (x.next[i] != null && (x.next[i] == node || precedes(x.next[i], node.score, node.slot))) {
+                rank += x.span[i];
+                x = x.next[i];
+            }
+            if (x == node) return rank;
+        }
+        throw new IllegalStateException("ranking corrupted at slot " + slot);
+    }
+
+    /** Slot ranked directly above the given one, or -1 if it leads. */
+    public int slotAbove(int slot) {
+        Node prev = nodeOrThrow(slot).prev;
+        return prev == null ? -1 : prev.slot;
+    }
+
+    /** Slot ranked directly below the given one, or -1 if it is last. */
+    public int slotBelow(int slot) {
+        Node next = nodeOrThrow(slot).next[0];
+        return next == null ? -1 : next.slot;
+    }
+
+    /** Visit the best {@code k} entries in rank order. */
+    public void forEachTop(int k, Visitor visitor) {
+        Node x = head.next[0];
+        for (int rank = 1; x != null && rank <= k; rank++, x = x.next[0]) {
+            visitor.visit(rank, x.slot, x.score);
+        }
+    }
+
+    /** Visit the entries ranked {@code fromRank..toRank} (1-based, inclusive, clamped to the board) in rank order. */
+    public void forEachInRanks(int fromRank, int toRank, Visitor visitor) {
+        int rank = 0;
+        Node x = head;
+        int target = Math.max(1, fromRank);
+        for (int i = level - 1; i >= 0; i--) {
+            while (x.next[i] != null && rank + x.span[i] <= target) {
+                rank += x.span[i];
+                x = x.next[i];
+            }
+        }
+        if (rank != target) return; // fromRank lies past the end
+        for (int last = Math.min(toRank, size); x != null && rank <= last; rank++, x = x.next[0]) {
+            visitor.visit(rank, x.slot, x.score);
+        }
+    }
+
+    /** Visit every entry in rank order. */
+    public void forEach(Visitor visitor) {
+        forEachTop(Integer.MAX_VALUE, visitor);
+    }
+
+    // ---- skip list internals ----
+
+    /** Whether (scoreA, slotA) ranks strictly before (scoreB, slotB). */
+    private static boolean precedes(int scoreA, int slotA, int scoreB, int slotB) {
+        return scoreA > scoreB || (scoreA == scoreB && slotA < slotB);
+    }
+
+    private static boolean precedes(Node a, int score, int slot) {
+        return precedes(a.score, a.slot, score, slot);
+    }
+
+    private Node nodeOrThrow(int slot) {
+        if (!contains(slot)) throw new IllegalArgumentException("slot not ranked: " + slot);
+        return bySlot[slot];
+    }
+
+    private Node insert(int slot, int score) {
+        Node x = head;
+        for (int i = level - 1; i >= 0; i--) {
+            rankAt[i] = (i == level - 1) ? 0 : rankAt[i + 1];
+            while (x.next[i] != null && precedes(x.next[i], score, slot)) {
+                rankAt[i] += x.span[i];
+                x = x.next[i];
+            }
+            update[i] = x;
+        }
+
+        int lvl = randomLevel();
+        if (lvl > level) {
+            for (int i = level; i < lvl; i++) {
+                rankAt[i] = 0;
+                update[i] = head;
+                head.span[i] = size;
+            }
+            level = lvl;
+        }
+
+        Node node = new Node(slot, score, lvl);
+        for (int i = 0; i < lvl; i++) {
+            node.next[i] = update[i].next[i];
+            update[i].next[i] = node;
+            node.span[i] = update[i].span[i] - (rankAt[0] - rankAt[i]);
+            update[i].span[i] = (rankAt[0] - rankAt[i]) + 1;
+        }
+        for (int i = lvl; i < level; i++) update[i].span[i]++;
+
+        node.prev = (update[0] == head) ? null : update[0];
+        if (node.next[0] != null) node.next[0].prev = node;
+        size++;
+        return node;
+    }
+
+    private void delete(Node node) {
+        Node x = head;
+        for (int i = level - 1; i >= 0; i--) {
+            while (x.next[i] != null && precedes(x.next[i], node.score, node.slot)) x = x.next[i];
+            update[i] = x;
+        }
+        for (int i = 0; i < level; i++) {
+            if (update[i].next[i] == node) {
+                update[i].span[i] += node.span[i] - 1;
+                update[i].next[i] = node.next[i];
+            } else {
+                update[i].span[i]--;
+            }
+        }
+        if (node.next[0] != null) node.next[0].prev = node.prev;
+        while (level > 1 && head.next[level - 1] == null) level--;
+        size--;
+    }
+
+    private int randomLevel() {
+        // xorshift: the owner thread is the only caller, no need for a shared Random
+        seed ^= seed << 13;
+        seed ^= seed >>> 7;
+        seed ^= seed << 17;
+        int lvl = 1;
+        long bits = seed;
+        while (lvl < MAX_LEVEL && (bits & 3) == 0) { // p = 1/4
+            lvl++;
+            bits >>>= 2;
+        }
+        return lvl;
+    }
+}
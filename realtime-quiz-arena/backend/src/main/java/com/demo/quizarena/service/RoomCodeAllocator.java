@@ -0,0 +1,112 @@
+package com.demo.quizarena.service;
+
+import java.security.SecureRandom;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
+
+/**
+ * Hands out 6-character room codes without repeats, from any number of threads, without a lock.
+ *
+ * The code space is 32^6 = 2^30. Fresh codes walk it in a keyed pseudo-random order: index
+ * {@code i} goes through a 4-round Feistel network over 30 bits, which is a bijection, so the first
+ * 2^30 codes handed out are all distinct and consecutive codes look unrelated. Indices come from
+ * striped counters (stripe {@code s} issues {@code s, s + S, s + 2S, ...}), so concurrent callers
+ * mostly hit different cache lines instead of one hot atomic.
+ *
+ * Released codes sit in quarantine for {@code quarantineMs} before they are handed out again, so a
+ * stale link or a reconnecting client can't land in somebody else's new room. Codes are unique per
+ * process only: after a restart rooms recovered from the journal hold codes this allocator knows
+ * nothing about, which is why {@link RoomService} still registers with {@code putIfAbsent}.
+ */
+public final class RoomCodeAllocator {
+
+    public static final int LENGTH = 6;
+    private static final String ALPHABET = "ABCDEFGHJKLMNPQRSTUVWXYZ23456789"; // no I/O/0/1
+    private static final int HALF_BITS = 15;
+    private static final int HALF_MASK = (1 << HALF_BITS) - 1;
+    private static final long SPACE = 1L << (2 * HALF_BITS); // 32^6
+    private static final int ROUNDS = 4;
+    private static final int PAD = 16; // longs between stripe counters: one per 128-byte line pair
+
+    private record Released(String code, long reusableAtMs) {}
+
+    private final int[] roundKeys = new int[ROUNDS];
+    private final int stripes;
+    private final AtomicLongArray counters;
+    private final long quarantineMs;
+    private final LongSupplier clockMs;
+    private final ConcurrentLinkedQueue<Released> quarantine = new ConcurrentLinkedQueue<>();
+
+    public RoomCodeAllocator(long quarantineMs) {
+        this(quarantineMs, System::currentTimeMillis);
+    }
+
+    /** @param clockMs wall clock in milliseconds, for the quarantine */
+    public RoomCodeAllocator(long quarantineMs, LongSupplier clockMs) {
+        long seed = new SecureRandom().nextLong();
+        this.quarantineMs = Math.max(0, quarantineMs);
+        this.clockMs = clockMs;
+        for (int i = 0; i < ROUNDS; i++) {
+            seed = seed * 6364136223846793005L + 1442695040888963407L;
+            roundKeys[i] = (int) (seed >>> 33);
+        }
+        this.stripes = Integer.highestOneBit(Math.max(1, Runtime.getRuntime().availableProcessors() * 2 - 1)) << 1;
+        this.counters = new AtomicLongArray(stripes * PAD);
+    }
+
+    /** Next code that satisfies {@code accept}; a code quarantined long enough is preferred over a fresh one. */
+    public String next(Predicate<String> accept) {
+        long now = clockMs.getAsLong();
+        Released head = quarantine.peek();
+        if (head != null && head.reusableAtMs() <= now) {
+            Released r = quarantine.poll(); // another caller may have taken head: r can be a younger code
+            if (r != null) {
+                if (r.reusableAtMs() <= now && accept.test(r.code())) return r.code();
+                quarantine.add(r);
+            }
+        }
+        while (true) {
+            String code = codeAt(nextIndex());
+            if (accept.test(code)) return code;
+        }
+    }
+
+    /** The room holding {@code code} is gone; the code may be handed out again after the quarantine. */
+    public void release(String code) {
+        quarantine.add(new Released(code, clockMs.getAsLong() + quarantineMs));
+    }
+
+    public int quarantined() {
+        return quarantine.size();
+    }
+
+    private long nextIndex() {
+        int stripe = (int) (Thread.currentThread().getId() & (stripes - 1));
+        long n = counters.getAndIncrement(stripe * PAD);
+        return (n * stripes + stripe) & (SPACE - 1); // wraps after 2^30 codes; RoomService re-checks liveness
+    }
+
+    /** The {@code index}-th code of this allocator's permutation. */
+    private String codeAt(long index) {
+        int left = (int) (index >>> HALF_BITS) & HALF_MASK;
+        int right = (int) index & HALF_MASK;
+        for (int key : roundKeys) {
+            int f = right * 0x9E3779B1 + key;
+            f ^= f >>> 15;
+            f *= 0x85EBCA6B;
+            f ^= f >>> 13;
+            int next = left ^ (f & HALF_MASK);
+            left = right;
+            right = next;
+        }
+        long permuted = ((long) left << HALF_BITS) | right;
+        char[] chars = new char[LENGTH];
+        for (int i = LENGTH - 1; i >= 0; i--) {
+            chars[i] = ALPHABET.charAt((int) (permuted & 31));
+            permuted >>>= 5;
+        }
+        return new String(chars);
+    }
+}
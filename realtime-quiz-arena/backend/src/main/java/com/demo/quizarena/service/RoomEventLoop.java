@@ -0,0 +1,117 @@
+package com.demo.quizarena.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single-writer event loop for rooms.
+ *
+ * Every room is owned by exactly one worker thread, picked by hashing the room code over a
+ * fixed pool. All mutations of a {@link RoomService.Room} (joins, score updates, window checks,
+ * question changes and the broadcasts that follow them) must be submitted here, so they run in
+ * order on the owner thread and the room itself needs no locks. Different rooms spread over the
+ * workers, so throughput grows with the number of cores as the number of rooms grows.
+ */
+@Component
+public class RoomEventLoop {
+
+    private final ExecutorService[] workers;
+    private final Thread[] workerThreads;
+
+    public RoomEventLoop(@Value("${quiz.room.workers:0}") int workers) {
+        int n = workers > 0 ? workers : Runtime.getRuntime().availableProcessors();
+        this.workers = new ExecutorService[n];
+        this.workerThreads = new Thread[n];
+        for (int i = 0; i < n; i++) {
+            final int index = i;
+            this.workers[i] = Executors.newSingleThreadExecutor(r -> {
+                Thread t = new Thread(r, "room-loop-" + index);
+                t.setDaemon(true);
+                workerThreads[index] = t;
+                return t;
+            });
+        }
+    }
+
+    public int workerCount() {
+        return workers.length;
+    }
+
+    /**
+     * Fire-and-forget: run the task on the room's owner thread.
+     * Failures are logged, never propagated to the caller.
+     */
+    public void execute(String roomCode, Runnable task) {
+        workers[ownerIndex(roomCode)].execute(() -> {
+            try {
+                task.run();
+            } catch (Exception e) {
+                System.err.println("[RoomEventLoop.execute] 房间任务执行失败: code=" + roomCode + ", error=" + e);
+            }
+        });
+    }
+
+    /**
+     * Run the task on the room's owner thread and wait for its result.
+     * Runtime exceptions thrown by the task are rethrown as-is so callers (and
+     * {@code GlobalExceptionHandler}) see the original error.
+     */
+    public <T> T call(String roomCode, Callable<T> task) {
+        int index = ownerIndex(roomCode);
+        if (Thread.currentThread() == workerThreads[index]) {
+            // already on the owner thread: run inline instead of deadlocking on ourselves
+            try {
+                return task.call();
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        Future<T> future = workers[index].submit(task);
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for room " + roomCode, e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException re) throw re;
+            if (cause instanceof Error err) throw err;
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    /** Whether the current thread owns the given room. */
+    public boolean isOwnerThread(String roomCode) {
+        return Thread.currentThread() == workerThreads[ownerIndex(roomCode)];
+    }
+
+    int ownerIndex(String roomCode) {
+        int h = roomCode.hashCode();
+        h ^= (h >>> 16); // spread: room codes share a small alphabet
+        return Math.floorMod(h, workers.length);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        for (ExecutorService worker : workers) worker.shutdown();
+        for (ExecutorService worker : workers) {
+            try {
+                worker.awaitTermination(2, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.demo.quizarena.service;
+
+/**
+ * Listener for every state transition of every room, called by {@link RoomService} right after the
+ * change. Calls for one room arrive in order: on the room's owner thread, except
+ * {@link #roomCreated}, which comes from the creating thread before the code is handed out.
+ * Implementations must not block (see {@code journal.MappedRoomJournal}).
+ */
+public interface RoomJournal {
+
+    RoomJournal NONE = new RoomJournal() {};
+
+    default void roomCreated(RoomService.Room room) {}
+
+    default void playerJoined(RoomService.Room room, RoomService.Player player) {}
+
+    /** The question list was fixed and the game started; the first question opens next. */
+    default void gameStarted(RoomService.Room room) {}
+
+    /** {@code currentQuestionIndex}, {@code openedAtMs} and {@code closedAtMs} are the new question's. */
+    default void questionOpened(RoomService.Room room) {}
+
+    /** The slot's latency and chosen option are in the room's arrays. */
+    default void answerRecorded(RoomService.Room room, int slot) {}
+
+    default void scoreAdded(RoomService.Room room, int slot, int points) {}
+
+    /** Deferred scoring credited {@code points[i]} to {@code slots[i]} for the current question. */
+    default void answersScored(RoomService.Room room, int[] slots, int[] points, int count) {}
+
+    default void roomFinished(RoomService.Room room) {}
+
+    default void roomRemoved(RoomService.Room room) {}
+}
@@ -1,31 +1,53 @@
 package com.demo.quizarena.service;
 
 import com.demo.quizarena.api.dto.QuestionWithAnswerResponse;
-import com.demo.quizarena.domain.Question;
-import com.demo.quizarena.repo.QuestionRepository;
+import com.demo.quizarena.domain.QuestionSnapshot;
+import com.demo.quizarena.metrics.QuizEvents;
 import com.demo.quizarena.realtime.LeaderboardEntry;
 import com.demo.quizarena.realtime.LeaderboardPush;
 import com.demo.quizarena.realtime.QuestionPush;
+import com.demo.quizarena.realtime.QuestionRevealPush;
+import com.demo.quizarena.realtime.RankPush;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.time.Instant;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
+/**
+ * Room state machine. Rooms are single-writer: every method that reads or mutates a {@link Room}
+ * must run on the room's owner thread, i.e. be submitted through {@link RoomEventLoop}.
+ * Only the registry itself ({@link #createRoom()} / lookups) is safe from any thread.
+ *
+ * The registry is bounded: {@code quiz.rooms.max-rooms} live rooms and {@code max-players} players
+ * across them, beyond which creating or joining fails with {@link CapacityExceededException}.
+ * Rooms leave it through {@link #removeRoom}, driven by the room reaper.
+ *
+ * Every state transition is also reported to the {@link RoomJournal} (a no-op unless the journal
+ * is enabled); the {@code restore*} methods rebuild rooms from it on startup.
+ */
 @Service
 public class RoomService {
 
     public enum RoomStatus { LOBBY, IN_GAME, FINISHED }
 
+    /** Identity of a player; all mutable per-player state lives in the room's slot-indexed arrays. */
     public static class Player {
         public final String playerId;
         public final String nickname;
-        public int totalScore = 0;
+        // dense join order inside the room; doubles as the leaderboard tie-breaker
+        public final int slot;
 
-        public Player(String playerId, String nickname) {
+        public Player(String playerId, String nickname, int slot) {
             this.playerId = playerId;
             this.nickname = nickname;
+            this.slot = slot;
         }
     }
 
@@ -33,42 +55,133 @@ public class RoomService {
         public final String code;
         public final String hostToken;
         public RoomStatus status = RoomStatus.LOBBY;
+        // lifecycle (see RoomReaper): last join/start/question change/answer, and when and why the room finished
+        public long lastActivityMs = System.currentTimeMillis();
+        public long finishedAtMs;
+        public String finishReason;
 
+        // playerId -> player; only for resolving a UUID to its slot (REST, subscribe), not per answer
         public final Map<String, Player> players = new ConcurrentHashMap<>();
+        // players indexed by slot, and their live ranking
+        public final List<Player> playersBySlot = new ArrayList<>();
+        public final RankedLeaderboard ranking = new RankedLeaderboard();
+
+        // per-player game state, indexed by slot (owner thread only)
+        public int[] scores = new int[16];
+        // who has answered the current question, how long after it opened, and which option they chose
+        public final BitSet answeredSlots = new BitSet();
+        public long[] answerLatencyMs = new long[16];
+        public int[] chosenOption = new int[16];
+        // deferred scoring: the current question's recorded answers have been scored
+        public boolean answersScored;
 
         // 当前房间的题目列表
-        public List<Question> questionList = new ArrayList<>();
+        public List<QuestionSnapshot> questionList = new ArrayList<>();
         // 当前题目索引（初始为 -1，表示未开始）
         public int currentQuestionIndex = -1;
 
         // current question window
-        public Question currentQuestion;
+        public QuestionSnapshot currentQuestion;
         // last question payload we pushed to clients (so late joiners can fetch via REST)
         public QuestionPush currentQuestionPush;
+        // live answer counts of the current question; written by the receiving threads, hence volatile
+        public volatile AnswerDistribution answerDistribution;
         public long openedAtMs;
         public long closedAtMs;
 
+        // leaderboard coalescing state (see LeaderboardPublisher)
+        public boolean leaderboardDirty;
+        public long leaderboardFlushedAtMs;
+        // receive time of the oldest answer whose score change no leaderboard frame carries yet (0 = none)
+        public long oldestUnsentAnswerMs;
+        // leaderboard delta protocol: frame sequence, slots changed since the last frame,
+        // and how many slots clients already know the nickname of
+        public long leaderboardSeq;
+        public final BitSet changedSlots = new BitSet();
+        public int announcedSlots;
+        // top-K mode: last rank/score each player was personally told, by slot (0 = never)
+        public int[] rankSentBySlot = new int[0];
+        public int[] scoreSentBySlot = new int[0];
+
         public Room(String code, String hostToken) {
             this.code = code;
             this.hostToken = hostToken;
         }
     }
 
-    private final QuestionRepository questionRepository;
+    private final QuestionBank questionBank;
 
     // in-memory rooms (demo)
     private final Map<String, Room> rooms = new ConcurrentHashMap<>();
+    private final AtomicInteger liveRooms = new AtomicInteger();
+    private final AtomicInteger livePlayers = new AtomicInteger();
+    private final int maxRooms;
+    private final int maxPlayers;
+    private final RoomCodeAllocator codes;
+    private volatile RoomJournal journal = RoomJournal.NONE;
+
+    public RoomService(QuestionBank questionBank) {
+        this(questionBank, Integer.MAX_VALUE, Integer.MAX_VALUE);
+    }
+
+    public RoomService(QuestionBank questionBank, int maxRooms, int maxPlayers) {
+        this(questionBank, maxRooms, maxPlayers, 3_600_000);
+    }
+
+    @Autowired
+    public RoomService(QuestionBank questionBank,
+                       @Value("${quiz.rooms.max-rooms:10000}") int maxRooms,
+                       @Value("${quiz.rooms.max-players:200000}") int maxPlayers,
+                       @Value("${quiz.rooms.code-quarantine-ms:3600000}") long codeQuarantineMs) {
+        this.questionBank = questionBank;
+        this.maxRooms = Math.max(1, maxRooms);
+        this.maxPlayers = Math.max(1, maxPlayers);
+        this.codes = new RoomCodeAllocator(codeQuarantineMs);
+    }
+
+    public void setJournal(RoomJournal journal) {
+        this.journal = journal;
+    }
+
+    /** Live rooms, for background sweeps; each room must still only be touched on its owner thread. */
+    public Collection<Room> rooms() {
+        return Collections.unmodifiableCollection(rooms.values());
+    }
+
+    public int roomCount() {
+        return rooms.size();
+    }
 
-    public RoomService(QuestionRepository questionRepository) {
-        this.questionRepository = questionRepository;
+    public int playerCount() {
+        return livePlayers.get();
     }
 
     public Room createRoom() {
+        return createRoom(code -> true);
+    }
+
+    /** Create a room whose code satisfies {@code acceptCode} (in cluster mode: owned by this node). */
+    public Room createRoom(Predicate<String> acceptCode) {
         System.out.println("[RoomService.createRoom] 开始创建房间");
-        String code = randomCode(6);
+        // reserve the slot first, as joinRoom does for players: checking rooms.size() would let
+        // concurrent creates all pass the check before any of them is put
+        if (liveRooms.incrementAndGet() > maxRooms) {
+            liveRooms.decrementAndGet();
+            System.err.println("[RoomService.createRoom] 房间数已达上限: " + maxRooms);
+            throw new CapacityExceededException("服务器房间已满，请稍后再试");
+        }
         String hostToken = UUID.randomUUID().toString();
-        Room room = new Room(code, hostToken);
-        rooms.put(code, room);
+        Room room;
+        try {
+            room = new Room(codes.next(acceptCode), hostToken);
+            // codes are unique per allocator; a room recovered from the journal may still hold the same one
+            while (rooms.putIfAbsent(room.code, room) != null) room = new Room(codes.next(acceptCode), hostToken);
+        } catch (RuntimeException e) {
+            liveRooms.decrementAndGet();
+            throw e;
+        }
+        String code = room.code;
+        journal.roomCreated(room); // after put: a snapshot that misses the room can't miss this record
         System.out.println("[RoomService.createRoom] 房间创建成功: code=" + code + ", 当前房间数=" + rooms.size());
         return room;
     }
@@ -83,17 +196,73 @@ public class RoomService {
         return room;
     }
 
+    /** Drop a room and release its players' capacity. Owner thread only. */
+    public void removeRoom(Room room) {
+        if (!rooms.remove(room.code, room)) return;
+        liveRooms.decrementAndGet();
+        livePlayers.addAndGet(-room.players.size());
+        codes.release(room.code);
+        journal.roomRemoved(room);
+    }
+
+    /** Lookup that returns null instead of throwing, for background tasks. */
+    public Room findRoom(String code) {
+        return rooms.get(code);
+    }
+
     public Player joinRoom(String code, String nickname) {
         System.out.println("[RoomService.joinRoom] 开始加入房间: code=" + code + ", nickname=" + nickname);
         Room room = getRoomOrThrow(code);
-        String playerId = UUID.randomUUID().toString();
-        Player p = new Player(playerId, nickname);
-        room.players.put(playerId, p);
+        if (livePlayers.incrementAndGet() > maxPlayers) {
+            livePlayers.decrementAndGet();
+            System.err.println("[RoomService.joinRoom] 在线玩家数已达上限: " + maxPlayers);
+            throw new CapacityExceededException("服务器玩家已满，请稍后再试");
+        }
+        Player p = addPlayer(room, UUID.randomUUID().toString(), nickname);
+        journal.playerJoined(room, p);
+        String playerId = p.playerId;
         System.out.println("[RoomService.joinRoom] 加入房间成功: playerId=" + playerId + ", 房间当前人数=" + room.players.size());
         return p;
     }
 
+    private Player addPlayer(Room room, String playerId, String nickname) {
+        Player p = new Player(playerId, nickname, room.playersBySlot.size());
+        if (p.slot >= room.scores.length) {
+            room.scores = Arrays.copyOf(room.scores, room.scores.length * 2);
+            room.answerLatencyMs = Arrays.copyOf(room.answerLatencyMs, room.scores.length);
+            room.chosenOption = Arrays.copyOf(room.chosenOption, room.scores.length);
+        }
+        room.playersBySlot.add(p);
+        room.ranking.add(p.slot, 0);
+        room.changedSlots.set(p.slot);
+        room.players.put(playerId, p);
+        room.lastActivityMs = System.currentTimeMillis();
+        return p;
+    }
+
     public QuestionPush startGameAndOpenFirstQuestion(String code, String hostToken) {
+        requireHost(getRoomOrThrow(code), hostToken);
+        return startGameAndOpenFirstQuestion(code, hostToken, drawQuestions());
+    }
+
+    /**
+     * Pick the questions of a new game. Blocks on the database, so call it from the request thread
+     * before handing the result to the room's owner thread: a slow query must not stall every other
+     * room sharing that event loop worker.
+     */
+    public List<QuestionSnapshot> drawQuestions() {
+        // 从内存题库抽取20道（不足20道时全部使用），不访问数据库
+        List<QuestionSnapshot> questions = questionBank.sample(20);
+        if (questions.isEmpty()) {
+            System.err.println("[RoomService.drawQuestions] 题库中没有题目！请检查 QuestionDataInitializer 是否正常执行");
+            throw new IllegalStateException("数据库中没有题目，请先初始化题目数据。请重启后端应用以确保数据初始化。");
+        }
+        System.out.println("[RoomService.drawQuestions] 抽取 " + questions.size() + " 道题目, 第一道题: ID=" + questions.get(0).getId());
+        return questions;
+    }
+
+    /** Start the game with questions from {@link #drawQuestions}. Owner thread only. */
+    public QuestionPush startGameAndOpenFirstQuestion(String code, String hostToken, List<QuestionSnapshot> questions) {
         System.out.println("[RoomService.startGameAndOpenFirstQuestion] 开始启动游戏: code=" + code);
         Room room = getRoomOrThrow(code);
         System.out.println("[RoomService.startGameAndOpenFirstQuestion] 房间找到: code=" + room.code + ", status=" + room.status);
@@ -101,65 +270,42 @@ public class RoomService {
         System.out.println("[RoomService.startGameAndOpenFirstQuestion] 主机令牌验证通过");
 
         room.status = RoomStatus.IN_GAME;
-
-        // 先检查数据库中的题目总数
-        long totalQuestions = questionRepository.count();
-        System.out.println("[RoomService.startGameAndOpenFirstQuestion] 数据库中总共有 " + totalQuestions + " 道题目");
-        
-        if (totalQuestions == 0) {
-            System.err.println("[RoomService.startGameAndOpenFirstQuestion] 数据库中没有题目！请检查 QuestionDataInitializer 是否正常执行");
-            throw new IllegalStateException("数据库中没有题目，请先初始化题目数据。请重启后端应用以确保数据初始化。");
-        }
-        
-        // 调用随机抽题获取20道题目
-        List<Question> questions;
-        try {
-            System.out.println("[RoomService.startGameAndOpenFirstQuestion] 尝试获取20道随机题目");
-            questions = questionRepository.findRandomQuestions(20);
-            System.out.println("[RoomService.startGameAndOpenFirstQuestion] 成功获取 " + questions.size() + " 道题目");
-            // 打印第一道题的信息用于调试
-            if (!questions.isEmpty()) {
-                Question first = questions.get(0);
-                System.out.println("[RoomService.startGameAndOpenFirstQuestion] 第一道题: ID=" + first.getId() + ", stem=" + first.getStem());
-            }
-        } catch (Exception e) {
-            // 如果随机抽题失败，尝试获取所有题目
-            System.err.println("[RoomService.startGameAndOpenFirstQuestion] 随机抽题失败，尝试获取所有题目: " + e.getMessage());
-            e.printStackTrace();
-            questions = questionRepository.findAll();
-            System.out.println("[RoomService.startGameAndOpenFirstQuestion] 获取到 " + questions.size() + " 道题目");
-        }
-        
-        // 确保至少有题目
-        if (questions.isEmpty()) {
-            System.err.println("[RoomService.startGameAndOpenFirstQuestion] 数据库中没有题目！");
-            throw new IllegalStateException("数据库中没有题目，请先初始化题目数据");
-        }
-        
-        // 如果题目数量少于20道，使用所有题目；如果超过20道，随机选择20道
-        if (questions.size() < 20) {
-            System.out.println("[RoomService.startGameAndOpenFirstQuestion] 题目数量(" + questions.size() + ")少于20道，使用所有题目");
-        } else if (questions.size() > 20) {
-            // 如果题目超过20道，随机选择20道
-            java.util.Collections.shuffle(questions);
-            questions = questions.subList(0, 20);
-            System.out.println("[RoomService.startGameAndOpenFirstQuestion] 题目数量超过20道，随机选择20道");
-        } else {
-            System.out.println("[RoomService.startGameAndOpenFirstQuestion] 题目数量正好20道");
-        }
+        room.lastActivityMs = System.currentTimeMillis();
 
         // 存储题目列表到房间
         room.questionList = questions;
-        room.currentQuestionIndex = 0;
-        
-        // 获取第一道题目
-        Question q = questions.get(0);
+        journal.gameStarted(room);
+
+        // 打开第一道题目
+        QuestionPush push = openQuestion(room, 0, System.currentTimeMillis());
+        System.out.println("[RoomService.startGameAndOpenFirstQuestion] 游戏启动成功，第一题ID=" + push.questionId);
+        return push;
+    }
+
+    /** Open question {@code index} of the room's list at {@code openedAtMs}. Owner thread only. */
+    public QuestionPush openQuestion(Room room, int index, long openedAtMs) {
+        QuizEvents.QuestionOpened event = new QuizEvents.QuestionOpened();
+        event.begin();
+        QuestionSnapshot q = room.questionList.get(index);
+        room.currentQuestionIndex = index;
         room.currentQuestion = q;
-        room.openedAtMs = System.currentTimeMillis();
-        room.closedAtMs = room.openedAtMs + (q.getTimeLimitSec() * 1000L);
+        room.openedAtMs = openedAtMs;
+        room.closedAtMs = openedAtMs + (q.getTimeLimitSec() * 1000L);
+        room.lastActivityMs = Math.max(room.lastActivityMs, openedAtMs);
         QuestionPush push = toQuestionPush(q, room.openedAtMs, room.closedAtMs, room);
         room.currentQuestionPush = push;
-        System.out.println("[RoomService.startGameAndOpenFirstQuestion] 游戏启动成功，第一题ID=" + q.getId());
+        room.answeredSlots.clear();
+        room.answersScored = false;
+        room.answerDistribution = new AnswerDistribution(push.questionId, push.options, room.openedAtMs, room.closedAtMs,
+                room.playersBySlot.size());
+        journal.questionOpened(room);
+        if (event.shouldCommit()) {
+            event.roomCode = room.code;
+            event.players = room.playersBySlot.size();
+            event.questionIndex = index;
+            event.options = push.options.size();
+            event.commit();
+        }
         return push;
     }
 
@@ -175,6 +321,12 @@ public class RoomService {
         return nowMs >= room.openedAtMs && nowMs <= room.closedAtMs;
     }
 
+    /** Whether {@code questionId} names the question the room is on (the synthetic one is -1). */
+    public boolean isCurrentQuestion(Room room, Long questionId) {
+        Long current = room.currentQuestion != null ? room.currentQuestion.getId() : Long.valueOf(-1L);
+        return Objects.equals(current, questionId);
+    }
+
     /**
      * Current question payload for REST polling / late joiners.
      * Returns null if the game hasn't started yet.
@@ -184,12 +336,173 @@ public class RoomService {
         return room.currentQuestionPush;
     }
 
+    /** Full snapshot at the room's current sequence number. Does not advance it. */
     public LeaderboardPush leaderboard(Room room) {
-        List<LeaderboardEntry> list = room.players.values().stream()
-                .sorted(Comparator.comparingInt((Player p) -> p.totalScore).reversed())
-                .map(p -> new LeaderboardEntry(p.playerId, p.nickname, p.totalScore))
-                .collect(Collectors.toList());
-        return new LeaderboardPush(list, System.currentTimeMillis());
+        return leaderboard(room, Integer.MAX_VALUE);
+    }
+
+    /** Best {@code limit} entries at the room's current sequence number. Does not advance it. */
+    public LeaderboardPush leaderboard(Room room, int limit) {
+        QuizEvents.LeaderboardComputed event = new QuizEvents.LeaderboardComputed();
+        event.begin();
+        List<LeaderboardEntry> list = new ArrayList<>(Math.min(limit, room.ranking.size()));
+        room.ranking.forEachTop(limit, (rank, slot, score) -> {
+            Player p = room.playersBySlot.get(slot);
+            list.add(new LeaderboardEntry(p.nickname, score, slot, rank));
+        });
+        commitLeaderboardEvent(event, room, list.size(), false);
+        return new LeaderboardPush(list, System.currentTimeMillis(), room.leaderboardSeq, true);
+    }
+
+    private static void commitLeaderboardEvent(QuizEvents.LeaderboardComputed event, Room room, int entries, boolean delta) {
+        if (!event.shouldCommit()) return;
+        event.roomCode = room.code;
+        event.players = room.playersBySlot.size();
+        event.entries = entries;
+        event.delta = delta;
+        event.commit();
+    }
+
+    /** Next top-K frame to broadcast; advances the sequence number. */
+    public LeaderboardPush nextTopLeaderboardFrame(Room room, int k) {
+        room.leaderboardSeq++;
+        room.changedSlots.clear();
+        room.announcedSlots = room.playersBySlot.size();
+        return leaderboard(room, k);
+    }
+
+    /** The player's own standing with direct neighbours. Owner thread only. */
+    public RankPush rankPush(Room room, Player p) {
+        return rankPush(room, p.slot, room.ranking.rankOf(p.slot), room.scores[p.slot]);
+    }
+
+    /**
+     * Hand every player whose standing may have moved since the last call to {@code sink}, together
+     * with their new standing. Must run before {@link #nextTopLeaderboardFrame}, which resets
+     * {@code changedSlots}. Owner thread only.
+     *
+     * Only players in {@code changedSlots} moved on their own. Everybody else keeps their score, so
+     * their rank only shifts if a changed player crossed them, i.e. if it lies between that player's
+     * last announced rank and its new one, and their {@code above}/{@code below} only change next to
+     * such a shift. So the walk covers, per changed player, the ranks between old and new position
+     * plus one on either side: O(changed × log N + ranks crossed) instead of the whole board.
+     */
+    public void forEachRankChange(Room room, BiConsumer<Player, RankPush> sink) {
+        int n = room.playersBySlot.size();
+        if (room.changedSlots.isEmpty() || n == 0) return;
+        if (room.rankSentBySlot.length < n) {
+            room.rankSentBySlot = Arrays.copyOf(room.rankSentBySlot, Math.max(n, room.rankSentBySlot.length * 2));
+            room.scoreSentBySlot = Arrays.copyOf(room.scoreSentBySlot, room.rankSentBySlot.length);
+        }
+        BitSet ranks = new BitSet(n + 2);
+        for (int slot = room.changedSlots.nextSetBit(0); slot >= 0; slot = room.changedSlots.nextSetBit(slot + 1)) {
+            int now = room.ranking.rankOf(slot);
+            int before = room.rankSentBySlot[slot] == 0 ? n : room.rankSentBySlot[slot]; // never told: joined at the bottom
+            ranks.set(Math.max(1, Math.min(now, before) - 1), Math.min(n, Math.max(now, before) + 1) + 1);
+        }
+        for (int from = ranks.nextSetBit(1); from >= 0; from = ranks.nextSetBit(from)) {
+            int to = ranks.nextClearBit(from) - 1;
+            room.ranking.forEachInRanks(from, to, (rank, slot, score) -> {
+                room.rankSentBySlot[slot] = rank;
+                room.scoreSentBySlot[slot] = score;
+                sink.accept(room.playersBySlot.get(slot), rankPush(room, slot, rank, score));
+            });
+            from = to + 1;
+        }
+    }
+
+    private RankPush rankPush(Room room, int slot, int rank, int score) {
+        RankPush push = new RankPush();
+        push.rank = rank;
+        push.totalScore = score;
+        push.totalPlayers = room.ranking.size();
+        int above = room.ranking.slotAbove(slot);
+        int below = room.ranking.slotBelow(slot);
+        if (above >= 0) push.above = neighbourEntry(room, above, rank - 1);
+        if (below >= 0) push.below = neighbourEntry(room, below, rank + 1);
+        push.serverTimeEpochMs = System.currentTimeMillis();
+        return push;
+    }
+
+    private LeaderboardEntry neighbourEntry(Room room, int slot, int rank) {
+        Player p = room.playersBySlot.get(slot);
+        return new LeaderboardEntry(p.nickname, room.scores[slot], slot, rank);
+    }
+
+    /**
+     * Next leaderboard frame to broadcast: advances the sequence number and resets change tracking.
+     * A delta frame carries only the slots whose score changed (or that joined) since the previous frame.
+     */
+    public LeaderboardPush nextLeaderboardFrame(Room room, boolean delta) {
+        room.leaderboardSeq++;
+        LeaderboardPush push;
+        if (delta) {
+            QuizEvents.LeaderboardComputed event = new QuizEvents.LeaderboardComputed();
+            event.begin();
+            List<LeaderboardEntry> list = new ArrayList<>(room.changedSlots.cardinality());
+            for (int slot = room.changedSlots.nextSetBit(0); slot >= 0; slot = room.changedSlots.nextSetBit(slot + 1)) {
+                Player p = room.playersBySlot.get(slot);
+                boolean announced = slot < room.announcedSlots;
+                list.add(new LeaderboardEntry(announced ? null : p.nickname, room.scores[slot], slot, room.ranking.rankOf(slot)));
+            }
+            push = new LeaderboardPush(list, System.currentTimeMillis(), room.leaderboardSeq, false);
+            commitLeaderboardEvent(event, room, list.size(), true);
+        } else {
+            push = leaderboard(room);
+        }
+        room.changedSlots.clear();
+        room.announcedSlots = room.playersBySlot.size();
+        return push;
+    }
+
+    /**
+     * Mark the player in {@code slot} as having answered the current question.
+     * Owner thread only.
+     *
+     * @param option index of the chosen option, or -1 if the answer matches none
+     * @return false if they already had, in which case the answer must be ignored
+     */
+    public boolean recordAnswer(Room room, int slot, long latencyMs, int option) {
+        if (room.answeredSlots.get(slot)) return false;
+        room.answeredSlots.set(slot);
+        room.answerLatencyMs[slot] = latencyMs;
+        room.chosenOption[slot] = option;
+        journal.answerRecorded(room, slot);
+        return true;
+    }
+
+    /**
+     * Credit the result of a deferred scoring pass, {@code points[i]} to {@code slots[i]}, and mark
+     * the current question scored. Journaled as one record so it can't be half replayed.
+     * Owner thread only.
+     */
+    public void applyDeferredScores(Room room, int[] slots, int[] points, int count) {
+        for (int i = 0; i < count; i++) credit(room, slots[i], points[i]);
+        room.answersScored = true;
+        journal.answersScored(room, slots, points, count);
+    }
+
+    /** Credit points to a player and keep the room ranking in step. Owner thread only. */
+    public void addScore(Room room, int slot, int points) {
+        if (points == 0) return;
+        credit(room, slot, points);
+        journal.scoreAdded(room, slot, points);
+    }
+
+    private void credit(Room room, int slot, int points) {
+        if (points == 0) return;
+        room.scores[slot] += points;
+        room.ranking.setScore(slot, room.scores[slot]);
+        room.changedSlots.set(slot);
+    }
+
+    public int scoreOf(Room room, int slot) {
+        return room.scores[slot];
+    }
+
+    /** 1-based rank of the player in the room. Owner thread only. */
+    public int rankOf(Room room, Player p) {
+        return room.ranking.rankOf(p.slot);
     }
 
     public Player getPlayer(Room room, String playerId) {
@@ -198,10 +511,35 @@ public class RoomService {
         return p;
     }
 
+    /** Validate a slot sent by a client (compact frames) or resolved at subscribe time. */
+    public int requireSlot(Room room, int slot) {
+        if (slot < 0 || slot >= room.players.size()) throw new NoSuchElementException("Player not found");
+        return slot;
+    }
+
+    /** Index of the given answer text among the current question's options, or -1. */
+    public int optionIndexOf(Room room, String answer) {
+        QuestionPush push = room.currentQuestionPush;
+        return push == null ? -1 : push.options.indexOf(answer);
+    }
+
+    /** Text of option {@code index} of the current question, for clients that answer by index. */
+    public String optionAt(Room room, int index) {
+        QuestionPush push = room.currentQuestionPush;
+        if (push == null || index < 0 || index >= push.options.size()) {
+            throw new IllegalArgumentException("Invalid option index: " + index);
+        }
+        return push.options.get(index);
+    }
+
     public QuestionPush nextQuestion(String code, String hostToken) {
         Room room = getRoomOrThrow(code);
         requireHost(room, hostToken);
+        return advanceQuestion(room);
+    }
 
+    /** Open the next question without a host check (server-driven advance). Owner thread only. */
+    public QuestionPush advanceQuestion(Room room) {
         if (room.currentQuestionIndex < 0 || room.questionList.isEmpty()) {
             throw new IllegalStateException("Game not started yet");
         }
@@ -210,14 +548,67 @@ public class RoomService {
             throw new IllegalStateException("No more questions");
         }
 
-        room.currentQuestionIndex++;
-        Question q = room.questionList.get(room.currentQuestionIndex);
-        room.currentQuestion = q;
-        room.openedAtMs = System.currentTimeMillis();
-        room.closedAtMs = room.openedAtMs + (q.getTimeLimitSec() * 1000L);
-        QuestionPush push = toQuestionPush(q, room.openedAtMs, room.closedAtMs, room);
-        room.currentQuestionPush = push;
-        return push;
+        return openQuestion(room, room.currentQuestionIndex + 1, System.currentTimeMillis());
+    }
+
+    /**
+     * The current question's window has ended: build the reveal frame and, after the last question,
+     * finish the game. Owner thread only.
+     */
+    public QuestionRevealPush closeQuestion(Room room) {
+        QuestionRevealPush reveal = new QuestionRevealPush();
+        QuestionSnapshot q = room.currentQuestion;
+        reveal.questionId = q != null ? q.getId() : null;
+        reveal.correctAnswer = q != null ? q.getCorrectAnswer() : null;
+        reveal.correctOptionIndex = q != null ? q.getCorrectIndex() : -1;
+        reveal.currentIndex = room.currentQuestionIndex + 1;
+        reveal.totalCount = room.questionList.size();
+        reveal.finished = room.currentQuestionIndex >= room.questionList.size() - 1;
+        room.lastActivityMs = System.currentTimeMillis();
+        if (reveal.finished) {
+            finish(room, "completed");
+            System.out.println("[RoomService.closeQuestion] 最后一题结束，游戏结束: code=" + room.code);
+        }
+        return reveal;
+    }
+
+    /** End the game (last question closed, or abandoned). Owner thread only. */
+    public void finish(Room room, String reason) {
+        finish(room, reason, System.currentTimeMillis());
+    }
+
+    public void finish(Room room, String reason, long atMs) {
+        if (room.status == RoomStatus.FINISHED) return;
+        room.status = RoomStatus.FINISHED;
+        room.finishedAtMs = atMs;
+        room.finishReason = reason;
+        journal.roomFinished(room);
+    }
+
+    // ---- journal recovery: startup thread, before the room is reachable by any request ----
+
+    /** Re-register a room from the journal; an already restored room is returned as is. */
+    public Room restoreRoom(String code, String hostToken) {
+        Room existing = rooms.get(code);
+        if (existing != null) return existing;
+        Room room = new Room(code, hostToken);
+        rooms.put(code, room);
+        liveRooms.incrementAndGet(); // recovered rooms count against the bound but are never refused
+        return room;
+    }
+
+    /** Re-add a player; slots are assigned in the same join order as before. */
+    public Player restorePlayer(Room room, String playerId, String nickname) {
+        Player existing = room.players.get(playerId);
+        if (existing != null) return existing;
+        livePlayers.incrementAndGet();
+        return addPlayer(room, playerId, nickname);
+    }
+
+    /** Put the room back in game with its original question list (the question opens separately). */
+    public void restoreGame(Room room, List<QuestionSnapshot> questions) {
+        room.status = RoomStatus.IN_GAME;
+        room.questionList = questions;
     }
 
     public List<QuestionWithAnswerResponse> getQuestionsWithAnswers(String code) {
@@ -231,26 +622,18 @@ public class RoomService {
                 .collect(Collectors.toList());
     }
 
-    private void requireHost(Room room, String token) {
+    public void requireHost(Room room, String token) {
         if (token == null || !room.hostToken.equals(token)) {
             System.err.println("[RoomService.requireHost] 主机令牌验证失败: roomCode=" + room.code);
             throw new SecurityException("无效的主机令牌");
         }
     }
 
-    private static String randomCode(int len) {
-        String alphabet = "ABCDEFGHJKLMNPQRSTUVWXYZ23456789";
-        Random r = new Random();
-        StringBuilder sb = new StringBuilder(len);
-        for (int i=0;i<len;i++) sb.append(alphabet.charAt(r.nextInt(alphabet.length())));
-        return sb.toString();
-    }
-
-    private QuestionPush toQuestionPush(Question q, long openedAt, long closedAt, Room room) {
+    private QuestionPush toQuestionPush(QuestionSnapshot q, long openedAt, long closedAt, Room room) {
         QuestionPush push = new QuestionPush();
         push.questionId = q.getId();
         push.stem = q.getStem();
-        push.options = parseOptions(q.getOptionsJson());
+        push.options = q.getOptions(); // shared, already parsed
         push.openedAtEpochMs = openedAt;
         push.closedAtEpochMs = closedAt;
         push.currentIndex = room.currentQuestionIndex + 1;
@@ -258,12 +641,11 @@ public class RoomService {
         return push;
     }
 
-    private QuestionWithAnswerResponse toQuestionWithAnswerResponse(Question q) {
-        List<String> options = parseOptions(q.getOptionsJson());
+    private QuestionWithAnswerResponse toQuestionWithAnswerResponse(QuestionSnapshot q) {
         return new QuestionWithAnswerResponse(
                 q.getId(),
                 q.getStem(),
-                options,
+                q.getOptions(),
                 q.getCorrectAnswer(),
                 q.getExplanation(),
                 q.getCategory(),
@@ -272,18 +654,6 @@ public class RoomService {
         );
     }
 
-    private List<String> parseOptions(String jsonArrayLike) {
-        // Demo parser: very naive, expects ["A","B",...]
-        String s = jsonArrayLike.trim();
-        if (s.startsWith("[")) s = s.substring(1);
-        if (s.endsWith("]")) s = s.substring(0, s.length()-1);
-        if (s.isBlank()) return List.of();
-        return Arrays.stream(s.split(","))
-                .map(String::trim)
-                .map(x -> x.replaceAll("^\"|\"$", ""))
-                .collect(Collectors.toList());
-    }
-
     private QuestionPush openSyntheticQuestion(Room room) {
         room.currentQuestion = null; // indicates synthetic
         room.openedAtMs = System.currentTimeMillis();
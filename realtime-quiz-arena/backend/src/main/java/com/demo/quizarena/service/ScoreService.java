@@ -17,4 +17,17 @@ public class ScoreService {
         factor = Math.max(0.3, factor);
         return (int) Math.round(basePoints * factor);
     }
+
+    /**
+     * Points for a correct answer under the same rule, in integer arithmetic only. Exact halves round
+     * up, so it can differ from {@link #computeScore} by one point where the double lands just below.
+     * Used when a whole room is scored in one pass at question close.
+     */
+    public int computeScoreFixed(int basePoints, long limitMs, long latencyMs) {
+        long limit = Math.max(1, limitMs);
+        long remaining = Math.max(0, limit - latencyMs);
+        long points = (basePoints * remaining + limit / 2) / limit; // basePoints * (1 - latency / limit)
+        long floor = (basePoints * 3L + 5) / 10;                     // basePoints * 0.3
+        return (int) Math.max(points, floor);
+    }
 }
@@ -0,0 +1,11 @@
+package com.demo.quizarena.service;
+
+/**
+ * When answers are scored ({@code quiz.answers.scoring}).
+ */
+public enum ScoringMode {
+    /** Each answer is scored as its batch is applied; the leaderboard moves during the question. */
+    IMMEDIATE,
+    /** Answers are only recorded; the whole room is scored in one pass when the question closes. */
+    DEFERRED
+}
@@ -1,8 +1,7 @@
 package com.demo.quizarena.service;
 
 import com.demo.quizarena.api.dto.*;
-import com.demo.quizarena.domain.Question;
-import com.demo.quizarena.repo.QuestionRepository;
+import com.demo.quizarena.domain.QuestionSnapshot;
 import org.springframework.stereotype.Service;
 
 import java.util.*;
@@ -14,17 +13,17 @@ public class SpeedGameService {
 
     // 内存中存储游戏会话 (Session)
     private final Map<String, GameSession> sessions = new ConcurrentHashMap<>();
-    private final QuestionRepository questionRepository;
+    private final QuestionBank questionBank;
     private final ScoreService scoreService;
 
-    public SpeedGameService(QuestionRepository questionRepository, ScoreService scoreService) {
-        this.questionRepository = questionRepository;
+    public SpeedGameService(QuestionBank questionBank, ScoreService scoreService) {
+        this.questionBank = questionBank;
         this.scoreService = scoreService;
     }
 
     public SpeedGameStartResponse start(String nickname) {
         // 1. 随机抽取10道题
-        List<Question> questions = questionRepository.findRandomQuestions(10);
+        List<QuestionSnapshot> questions = questionBank.sample(10);
         if (questions.isEmpty()) {
             throw new IllegalStateException("题库为空，无法开始游戏");
         }
@@ -47,17 +46,18 @@ public class SpeedGameService {
         if (session == null) throw new NoSuchElementException("Session not found");
 
         if (session.isFinished()) throw new IllegalStateException("Game already finished");
+        session.lastActivityMs = System.currentTimeMillis();
 
-        Question currentQ = session.questions.get(session.currentIndex);
+        QuestionSnapshot currentQ = session.questions.get(session.currentIndex);
 
         // 校验题目ID是否匹配（防止乱序提交）
-        if (!currentQ.getId().equals(req.questionId)) {
+        if (!Objects.equals(currentQ.getId(), req.questionId)) {
             // 简单处理：如果ID对不上，可能客户端状态错乱，直接跳到下一题或报错
             // 这里我们为了鲁MJ性，直接视为该题没答对，继续下一题
         }
 
         // 判题
-        boolean isCorrect = Objects.equals(currentQ.getCorrectAnswer(), req.answer);
+        boolean isCorrect = currentQ.isCorrect(req.answer);
 
         // 计分 (假设固定15秒限制)
         long latency = 0; // 这里简化处理，如果需要精确防作弊，可以对比 serverTime
@@ -92,7 +92,7 @@ public class SpeedGameService {
         // 构建详细报告
         res.details = session.questions.stream().map(q -> {
             QuestionWithAnswerResponse dto = new QuestionWithAnswerResponse(
-                    q.getId(), q.getStem(), parseOptions(q.getOptionsJson()),
+                    q.getId(), q.getStem(), q.getOptions(),
                     q.getCorrectAnswer(), q.getExplanation(), q.getCategory(),
                     q.getCreatedAt(), q.getUpdatedAt()
             );
@@ -105,18 +105,40 @@ public class SpeedGameService {
         return res;
     }
 
+    public int sessionCount() {
+        return sessions.size();
+    }
+
+    /**
+     * 清理超过 {@code idleMs} 没有任何提交的会话（已结束的会话同样适用），防止会话表无限增长。
+     *
+     * @return 清理的会话数
+     */
+    public int evictIdleSessions(long idleMs) {
+        long cutoff = System.currentTimeMillis() - idleMs;
+        int evicted = 0;
+        for (Iterator<GameSession> it = sessions.values().iterator(); it.hasNext(); ) {
+            if (it.next().lastActivityMs < cutoff) {
+                it.remove();
+                evicted++;
+            }
+        }
+        return evicted;
+    }
+
     // 内部类：游戏会话状态
     private static class GameSession {
         String id;
         String nickname;
-        List<Question> questions;
+        List<QuestionSnapshot> questions;
         int currentIndex = 0;
         int totalScore = 0;
         int correctCount = 0;
         boolean finished = false;
         Map<Long, String> userAnswers = new HashMap<>();
+        volatile long lastActivityMs = System.currentTimeMillis();
 
-        public GameSession(String id, String nickname, List<Question> questions) {
+        public GameSession(String id, String nickname, List<QuestionSnapshot> questions) {
             this.id = id;
             this.nickname = nickname;
             this.questions = questions;
@@ -128,18 +150,10 @@ public class SpeedGameService {
     }
 
     // Helper: 转换 DTO
-    private QuestionResponse toQuestionResponse(Question q) {
+    private QuestionResponse toQuestionResponse(QuestionSnapshot q) {
         return new QuestionResponse(
-                q.getId(), q.getStem(), parseOptions(q.getOptionsJson()),
+                q.getId(), q.getStem(), q.getOptions(),
                 q.getExplanation(), q.getCategory(), q.getCreatedAt(), q.getUpdatedAt()
         );
     }
-
-    private List<String> parseOptions(String json) {
-        // 简单的解析逻辑，生产环境应用 Jackson
-        if (json == null) return List.of();
-        String s = json.replace("[", "").replace("]", "").replace("\"", "");
-        if (s.isBlank()) return List.of();
-        return Arrays.stream(s.split(",")).map(String::trim).collect(Collectors.toList());
-    }
 }
\ No newline at end of file
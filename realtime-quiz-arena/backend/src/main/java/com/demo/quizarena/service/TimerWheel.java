@@ -0,0 +1,116 @@
+package com.demo.quizarena.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Hashed timing wheel: one thread drives any number of timeouts at a fixed tick resolution.
+ *
+ * The wheel is a ring of {@code wheelSize} buckets, one per tick. A timeout lands in the bucket of
+ * its deadline tick and carries how many full turns it still has to wait, so scheduling and
+ * cancelling are O(1) and each tick only looks at one bucket, however many rooms are waiting.
+ * Timeouts fire at most one tick late. Tasks run on the wheel thread and must be short: hand real
+ * work to the room's event loop.
+ */
+public final class TimerWheel {
+
+    public static final class Timeout {
+        private final long deadlineTick;
+        private final Runnable task;
+        private long remainingRounds;
+        private volatile boolean cancelled;
+
+        private Timeout(long deadlineTick, Runnable task) {
+            this.deadlineTick = deadlineTick;
+            this.task = task;
+        }
+
+        /** The task won't run if it hasn't already. */
+        public void cancel() {
+            cancelled = true;
+        }
+    }
+
+    private final long tickNanos;
+    private final int mask;
+    private final List<Timeout>[] buckets;
+    // new timeouts from any thread; moved into buckets by the wheel thread before each tick
+    private final ConcurrentLinkedQueue<Timeout> pending = new ConcurrentLinkedQueue<>();
+    private final long startNanos = System.nanoTime();
+    private final Thread worker;
+    private volatile boolean running = true;
+    private long tick;
+
+    @SuppressWarnings("unchecked")
+    public TimerWheel(String name, long tickMs, int wheelSize) {
+        this.tickNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, tickMs));
+        int size = Integer.highestOneBit(Math.max(2, wheelSize) - 1) << 1; // round up to a power of two
+        this.mask = size - 1;
+        this.buckets = new List[size];
+        for (int i = 0; i < size; i++) buckets[i] = new ArrayList<>();
+        this.worker = new Thread(this::run, name);
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    /** Run {@code task} at wall-clock time {@code epochMs} (immediately on the next tick if already past). */
+    public Timeout scheduleAt(long epochMs, Runnable task) {
+        return schedule(epochMs - System.currentTimeMillis(), task);
+    }
+
+    public Timeout schedule(long delayMs, Runnable task) {
+        long deadlineNanos = System.nanoTime() - startNanos + TimeUnit.MILLISECONDS.toNanos(Math.max(0, delayMs));
+        Timeout timeout = new Timeout((deadlineNanos + tickNanos - 1) / tickNanos, task);
+        pending.add(timeout);
+        return timeout;
+    }
+
+    public void stop() {
+        running = false;
+        worker.interrupt();
+    }
+
+    private void run() {
+        while (running) {
+            long wakeAt = startNanos + (tick + 1) * tickNanos;
+            for (long wait; (wait = wakeAt - System.nanoTime()) > 0; ) {
+                LockSupport.parkNanos(this, wait);
+                if (!running) return;
+            }
+            tick++;
+            transferPending();
+            expire(buckets[(int) (tick & mask)]);
+        }
+    }
+
+    private void transferPending() {
+        for (Timeout t; (t = pending.poll()) != null; ) {
+            if (t.cancelled) continue;
+            long due = Math.max(t.deadlineTick, tick); // already late: fire on this tick
+            t.remainingRounds = (due - tick) / buckets.length;
+            buckets[(int) (due & mask)].add(t);
+        }
+    }
+
+    private void expire(List<Timeout> bucket) {
+        int kept = 0;
+        for (int i = 0; i < bucket.size(); i++) {
+            Timeout t = bucket.get(i);
+            if (t.cancelled) continue;
+            if (t.remainingRounds > 0) {
+                t.remainingRounds--;
+                bucket.set(kept++, t);
+                continue;
+            }
+            try {
+                t.task.run();
+            } catch (Exception e) {
+                System.err.println("[TimerWheel.expire] 定时任务执行失败: " + e);
+            }
+        }
+        bucket.subList(kept, bucket.size()).clear();
+    }
+}
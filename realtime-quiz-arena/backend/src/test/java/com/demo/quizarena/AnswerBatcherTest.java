@@ -0,0 +1,103 @@
+package com.demo.quizarena;
+
+import com.demo.quizarena.metrics.QuizMetrics;
+import com.demo.quizarena.mq.AnswerBatcher;
+import com.demo.quizarena.mq.SubmittedAnswer;
+import com.demo.quizarena.realtime.AnswerProcessor;
+import com.demo.quizarena.service.RoomEventLoop;
+import com.demo.quizarena.service.ScoringMode;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AnswerBatcherTest {
+
+    @Test
+    void answersAreScoredPerRoomInBatchesBySizeOrLinger() throws Exception {
+        Map<String, List<List<Long>>> batches = new ConcurrentHashMap<>();
+        AnswerProcessor processor = new AnswerProcessor(null, null, null, null, ScoringMode.IMMEDIATE, null) {
+            @Override
+            public void applyBatch(String code, List<SubmittedAnswer> answers) {
+                batches.computeIfAbsent(code, k -> new CopyOnWriteArrayList<>())
+                        .add(answers.stream().map(a -> a.receivedAtMs).toList());
+            }
+        };
+        RoomEventLoop loop = new RoomEventLoop(2);
+        AnswerBatcher batcher = new AnswerBatcher(loop, processor, new QuizMetrics(new SimpleMeterRegistry()), 3, 50);
+        batcher.start();
+
+        for (long i = 1; i <= 7; i++) batcher.offer(new SubmittedAnswer("AAAAAA", null, i));
+        batcher.offer(new SubmittedAnswer("BBBBBB", null, 100));
+
+        long deadline = System.currentTimeMillis() + 5_000;
+        while ((batches.getOrDefault("AAAAAA", List.of()).size() < 3 || !batches.containsKey("BBBBBB"))
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        batcher.stop();
+        loop.shutdown();
+
+        // two full batches right away, the remainder once it has lingered; nothing lost or reordered
+        assertEquals(List.of(List.of(1L, 2L, 3L), List.of(4L, 5L, 6L), List.of(7L)), batches.get("AAAAAA"));
+        assertEquals(List.of(List.of(100L)), batches.get("BBBBBB"));
+    }
+
+    @Test
+    void answersAreConfirmedOnlyAfterTheirBatchWasScored() throws Exception {
+        List<String> events = new CopyOnWriteArrayList<>();
+        AnswerProcessor processor = new AnswerProcessor(null, null, null, null, ScoringMode.IMMEDIATE, null) {
+            @Override
+            public void applyBatch(String code, List<SubmittedAnswer> answers) {
+                events.add("scored " + answers.size());
+                throw new IllegalStateException("scoring failed"); // confirmed anyway: a redelivery would fail the same way
+            }
+        };
+        RoomEventLoop loop = new RoomEventLoop(1);
+        AnswerBatcher batcher = new AnswerBatcher(loop, processor, new QuizMetrics(new SimpleMeterRegistry()), 2, 50);
+        batcher.start();
+
+        for (long i = 1; i <= 2; i++) {
+            SubmittedAnswer a = new SubmittedAnswer("AAAAAA", null, i);
+            a.onScored = () -> events.add("ack " + a.receivedAtMs);
+            batcher.offer(a);
+        }
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (events.size() < 3 && System.currentTimeMillis() < deadline) Thread.sleep(10);
+        batcher.stop();
+        loop.shutdown();
+
+        assertEquals(List.of("scored 2", "ack 1", "ack 2"), events);
+    }
+
+    @Test
+    void drainAppliesTheRoomsLingeringAnswersBeforeReturning() {
+        List<String> events = new CopyOnWriteArrayList<>();
+        AnswerProcessor processor = new AnswerProcessor(null, null, null, null, ScoringMode.IMMEDIATE, null) {
+            @Override
+            public void applyBatch(String code, List<SubmittedAnswer> answers) {
+                events.add(code + " " + answers.size());
+            }
+        };
+        RoomEventLoop loop = new RoomEventLoop(2);
+        // a linger far beyond the test: only the drain can flush these
+        AnswerBatcher batcher = new AnswerBatcher(loop, processor, new QuizMetrics(new SimpleMeterRegistry()), 100, 60_000);
+        batcher.start();
+
+        for (long i = 1; i <= 3; i++) batcher.offer(new SubmittedAnswer("AAAAAA", null, i));
+        batcher.offer(new SubmittedAnswer("BBBBBB", null, 4));
+        assertTrue(batcher.drain("AAAAAA", 5_000));
+        // what the host's next question sees: the room's answers applied, other rooms untouched
+        assertEquals(List.of("AAAAAA 3"), events);
+        assertTrue(batcher.drain("AAAAAA", 5_000), "nothing pending is fine too");
+        assertEquals(List.of("AAAAAA 3"), events);
+
+        batcher.stop();
+        loop.shutdown();
+    }
+}
@@ -0,0 +1,47 @@
+package com.demo.quizarena;
+
+import com.demo.quizarena.service.AnswerDistribution;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AnswerDistributionTest {
+
+    @Test
+    void concurrentAnswersAreCountedOncePerPlayer() throws Exception {
+        // half of the players joined after the question opened
+        AnswerDistribution d = new AnswerDistribution(7L, List.of("A", "B", "C", "D"), 1_000, 2_000, 4_000);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        for (int t = 0; t < 8; t++) {
+            final int thread = t;
+            pool.execute(() -> {
+                for (int i = 0; i < 1_000; i++) {
+                    int player = thread * 1_000 + i;
+                    d.record(player, 7L, i % 4, null, 1_500);
+                    d.record(player, 7L, null, "A", 1_600); // second answer: ignored
+                }
+            });
+        }
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertArrayEquals(new long[]{2_000, 2_000, 2_000, 2_000, 8_000}, d.counts());
+    }
+
+    @Test
+    void answersOutsideTheWindowOrAfterFreezeAreNotCounted() {
+        AnswerDistribution d = new AnswerDistribution(7L, List.of("A", "B"), 1_000, 2_000, 8);
+        assertTrue(d.record(1, 7L, null, "B", 1_000));
+        assertFalse(d.record(2, 8L, 0, null, 1_500));     // other question
+        assertFalse(d.record(3, 7L, 0, null, 2_001));     // too late
+        assertFalse(d.record(4, 7L, null, "Z", 1_500));   // not an option
+        d.freeze();
+        assertFalse(d.record(5, 7L, 0, null, 1_500));
+        assertArrayEquals(new long[]{0, 1, 1}, d.counts());
+    }
+}
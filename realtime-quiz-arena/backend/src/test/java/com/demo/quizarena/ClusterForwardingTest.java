@@ -0,0 +1,128 @@
+package com.demo.quizarena;
+
+import com.demo.quizarena.cluster.ClusterMembership;
+import com.demo.quizarena.service.RoomService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.simp.stomp.StompFrameHandler;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.socket.WebSocketHttpHeaders;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+
+import java.lang.reflect.Type;
+import java.net.ServerSocket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** Two nodes over the HTTP relay: requests sent to the node that does not own the room reach the owner. */
+public class ClusterForwardingTest {
+
+    private final List<ConfigurableApplicationContext> nodes = new ArrayList<>();
+
+    @AfterEach
+    void shutdown() {
+        nodes.forEach(ConfigurableApplicationContext::close);
+    }
+
+    private static int freePort() throws Exception {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private ConfigurableApplicationContext start(String id, int port, String members) {
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(QuizArenaApplication.class)
+                .run("--server.port=" + port, // arguments, so they win over application.yml
+                        "--spring.datasource.url=jdbc:h2:mem:quiz-" + id + ";DB_CLOSE_DELAY=-1;MODE=PostgreSQL",
+                        "--quiz.cluster.enabled=true",
+                        "--quiz.cluster.node-id=" + id,
+                        "--quiz.cluster.nodes=" + members,
+                        "--quiz.cluster.relay=http",
+                        "--quiz.cluster.secret=test-secret",
+                        "--quiz.rooms.player-token-secret=test-token-secret");
+        nodes.add(context);
+        return context;
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) Thread.sleep(20);
+        assertTrue(condition.getAsBoolean());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void joinAndAnswerSentToTheOtherNodeAreAppliedOnTheOwner() throws Exception {
+        int portA = freePort();
+        int portB = freePort();
+        String members = "a=http://localhost:" + portA + ",b=http://localhost:" + portB;
+        start("a", portA, members);
+        ConfigurableApplicationContext b = start("b", portB, members);
+        RoomService ownerRooms = b.getBean(RoomService.class);
+
+        RestTemplate rest = new RestTemplate();
+        String viaA = "http://localhost:" + portA + "/api/rooms";
+        Map<String, String> created = rest.postForObject("http://localhost:" + portB + "/api/rooms", null, Map.class);
+        String code = created.get("roomCode");
+        assertEquals("b", b.getBean(ClusterMembership.class).ownerOf(code));
+
+        // REST join on the non-owner is forwarded: the player exists on b only
+        Map<String, String> joined = rest.postForObject(viaA + "/" + code + "/join", Map.of("nickname", "Alice"), Map.class);
+        String playerId = joined.get("playerId");
+        RoomService.Room room = ownerRooms.findRoom(code);
+        assertNotNull(room.players.get(playerId));
+
+        // the player is connected to a; the owner's question broadcast is relayed to it
+        WebSocketStompClient stomp = new WebSocketStompClient(new StandardWebSocketClient());
+        stomp.setMessageConverter(new MappingJackson2MessageConverter());
+        StompHeaders connect = new StompHeaders();
+        connect.add("playerId", playerId);
+        connect.add("playerToken", joined.get("token")); // issued by b, checked by a
+        StompSession session = stomp.connectAsync("ws://localhost:" + portA + "/ws", new WebSocketHttpHeaders(), connect,
+                new StompSessionHandlerAdapter() {}).get(5, TimeUnit.SECONDS);
+        BlockingQueue<Map<String, Object>> questions = new LinkedBlockingQueue<>();
+        session.subscribe("/topic/room/" + code + "/question", new StompFrameHandler() {
+            @Override
+            public Type getPayloadType(StompHeaders headers) {
+                return Map.class;
+            }
+
+            @Override
+            public void handleFrame(StompHeaders headers, Object payload) {
+                questions.add((Map<String, Object>) payload);
+            }
+        });
+        Thread.sleep(300); // let the SUBSCRIBE reach a's broker
+
+        HttpHeaders host = new HttpHeaders();
+        host.add("X-Host-Token", created.get("hostToken"));
+        rest.exchange(viaA + "/" + code + "/start", HttpMethod.POST, new HttpEntity<>(null, host), Map.class);
+        Map<String, Object> question = questions.poll(10, TimeUnit.SECONDS);
+        assertNotNull(question);
+
+        // STOMP answer on the non-owner is relayed and scored on b
+        String correct = room.currentQuestion.getCorrectAnswer();
+        session.send("/app/room/" + code + "/answer", Map.of("playerId", playerId, "answer", correct,
+                "questionId", question.get("questionId")));
+        int slot = room.players.get(playerId).slot;
+        await(() -> room.scores[slot] > 0);
+        session.disconnect();
+    }
+}
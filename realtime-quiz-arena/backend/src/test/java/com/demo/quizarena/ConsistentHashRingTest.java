@@ -0,0 +1,49 @@
+package com.demo.quizarena;
+
+import com.demo.quizarena.cluster.ConsistentHashRing;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ConsistentHashRingTest {
+
+    private static String code(int i) {
+        return String.format("R%05d", i);
+    }
+
+    @Test
+    void roomsSpreadEvenlyOverNodes() {
+        ConsistentHashRing ring = new ConsistentHashRing(List.of("a", "b", "c"), 160);
+        Map<String, Integer> counts = new HashMap<>();
+        for (int i = 0; i < 30_000; i++) counts.merge(ring.ownerOf(code(i)), 1, Integer::sum);
+
+        assertEquals(3, counts.size());
+        for (int n : counts.values()) assertTrue(n > 8_000 && n < 12_000, "unbalanced: " + counts);
+    }
+
+    @Test
+    void addingANodeOnlyMovesRoomsToThatNode() {
+        ConsistentHashRing before = new ConsistentHashRing(List.of("a", "b", "c"), 160);
+        ConsistentHashRing after = new ConsistentHashRing(List.of("a", "b", "c", "d"), 160);
+        int moved = 0;
+        for (int i = 0; i < 30_000; i++) {
+            String owner = after.ownerOf(code(i));
+            if (!owner.equals(before.ownerOf(code(i)))) {
+                assertEquals("d", owner);
+                moved++;
+            }
+        }
+        assertTrue(moved > 5_000 && moved < 10_000, "moved " + moved); // about a quarter
+    }
+
+    @Test
+    void ownershipDoesNotDependOnMemberOrder() {
+        ConsistentHashRing x = new ConsistentHashRing(List.of("a", "b", "c"), 64);
+        ConsistentHashRing y = new ConsistentHashRing(List.of("c", "a", "b"), 64);
+        for (int i = 0; i < 1_000; i++) assertEquals(x.ownerOf(code(i)), y.ownerOf(code(i)));
+    }
+}
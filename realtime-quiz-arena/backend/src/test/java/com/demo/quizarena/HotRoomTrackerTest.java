@@ -0,0 +1,43 @@
+package com.demo.quizarena;
+
+import com.demo.quizarena.metrics.HotRoomTracker;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Method;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HotRoomTrackerTest {
+
+    private static void rotate(HotRoomTracker tracker) throws Exception {
+        Method rotate = HotRoomTracker.class.getDeclaredMethod("rotate");
+        rotate.setAccessible(true);
+        rotate.invoke(tracker);
+    }
+
+    @Test
+    void hottestRoomsSurfaceAmongManyQuietOnesInBoundedMemory() throws Exception {
+        HotRoomTracker tracker = new HotRoomTracker(4096, 1000, 3, 64);
+        // quiet rooms first, so they take every regular candidate slot before the hot rooms show up
+        for (int window = 0; window < 2; window++) {
+            for (int i = 0; i < 20_000; i++) tracker.record(String.format("Q%05d", i));
+            for (int i = 0; i < 3_000; i++) tracker.record("VIRAL1");
+            for (int i = 0; i < 2_000; i++) tracker.record("VIRAL2");
+            for (int i = 0; i < 1_000; i++) tracker.record("VIRAL3");
+            for (int i = 0; i < 50; i++) tracker.record("WARM01");
+            rotate(tracker);
+        }
+
+        List<HotRoomTracker.HotRoom> hottest = tracker.hottest();
+        assertEquals(List.of("VIRAL1", "VIRAL2", "VIRAL3"), hottest.stream().map(HotRoomTracker.HotRoom::code).toList());
+        // count-min never undercounts, and 4 rows keep the collision noise far below the hot rates
+        assertTrue(hottest.get(0).messagesPerSecond() >= 3_000 && hottest.get(0).messagesPerSecond() < 3_100);
+        assertTrue(tracker.messagesPerSecond("WARM01") >= 50);
+        assertTrue(tracker.messagesPerSecond("Q00042") < 50);
+
+        rotate(tracker); // a window without traffic
+        assertTrue(tracker.hottest().isEmpty());
+        assertEquals(0, tracker.messagesPerSecond("VIRAL1"));
+    }
+}
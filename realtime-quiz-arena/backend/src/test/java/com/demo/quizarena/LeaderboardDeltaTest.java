@@ -0,0 +1,136 @@
+package com.demo.quizarena;
+
+import com.demo.quizarena.realtime.LeaderboardEntry;
+import com.demo.quizarena.realtime.LeaderboardPush;
+import com.demo.quizarena.service.RoomService;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** The delta leaderboard protocol as a client sees it: snapshot, then deltas replayed on top of it. */
+public class LeaderboardDeltaTest {
+
+    /** Minimal client: rows keyed by slot, ranks re-derived from (score desc, slot asc). */
+    private static final class Client {
+        long seq = -1;
+        final Map<Integer, LeaderboardEntry> rows = new HashMap<>();
+
+        /** @return false if the frame can't be applied and the client must resync */
+        boolean apply(LeaderboardPush push) {
+            if (push.full) {
+                rows.clear();
+                for (LeaderboardEntry e : push.entries) rows.put(e.slot, e);
+                seq = push.seq;
+                return true;
+            }
+            if (seq < 0 || push.seq != seq + 1) return false;
+            for (LeaderboardEntry e : push.entries) {
+                LeaderboardEntry known = rows.get(e.slot);
+                if (known == null) {
+                    assertNotNull(e.nickname, "first appearance of slot " + e.slot + " must carry its nickname");
+                    rows.put(e.slot, e);
+                } else {
+                    rows.put(e.slot, new LeaderboardEntry(known.nickname, e.totalScore, e.slot, e.rank));
+                }
+            }
+            seq = push.seq;
+            return true;
+        }
+
+        List<String> board() {
+            List<LeaderboardEntry> sorted = new ArrayList<>(rows.values());
+            sorted.sort(Comparator.<LeaderboardEntry>comparingInt(e -> -e.totalScore).thenComparingInt(e -> e.slot));
+            List<String> out = new ArrayList<>();
+            for (int i = 0; i < sorted.size(); i++) out.add(row(sorted.get(i), i + 1));
+            return out;
+        }
+    }
+
+    private static String row(LeaderboardEntry e, int rank) {
+        return rank + ":" + e.slot + ":" + e.nickname + ":" + e.totalScore;
+    }
+
+    private static List<String> fullBoard(RoomService rooms, RoomService.Room room) {
+        List<String> out = new ArrayList<>();
+        for (LeaderboardEntry e : rooms.leaderboard(room).entries) out.add(row(e, e.rank));
+        return out;
+    }
+
+    /** A few score changes and, now and then, a join; returns the slots touched. */
+    private static Set<Integer> play(RoomService rooms, RoomService.Room room, Random r, int round) {
+        Set<Integer> touched = new HashSet<>();
+        if (round % 5 == 0) touched.add(rooms.joinRoom(room.code, "Late" + round).slot);
+        for (int i = 0; i < 3; i++) {
+            int slot = r.nextInt(room.playersBySlot.size());
+            rooms.addScore(room, slot, 100 * (1 + r.nextInt(5)));
+            touched.add(slot);
+        }
+        return touched;
+    }
+
+    @Test
+    void deltasReplayedOnTheFirstSnapshotMatchTheFullBoard() {
+        RoomService rooms = new RoomService(null);
+        RoomService.Room room = rooms.createRoom();
+        for (int i = 0; i < 30; i++) rooms.joinRoom(room.code, "P" + i);
+
+        LeaderboardPush first = rooms.nextLeaderboardFrame(room, false); // game start
+        assertTrue(first.full);
+        assertEquals(1, first.seq);
+        assertEquals(30, first.entries.size());
+
+        Client client = new Client();
+        assertTrue(client.apply(first));
+        Random r = new Random(11);
+        for (int round = 1; round <= 100; round++) {
+            Set<Integer> touched = play(rooms, room, r, round);
+            LeaderboardPush delta = rooms.nextLeaderboardFrame(room, true);
+            assertFalse(delta.full);
+            assertEquals(round + 1, delta.seq); // no gaps, no repeats
+            Set<Integer> carried = new HashSet<>();
+            for (LeaderboardEntry e : delta.entries) carried.add(e.slot);
+            assertEquals(touched, carried); // only what changed
+
+            assertTrue(client.apply(delta));
+            assertEquals(fullBoard(rooms, room), client.board(), "after frame " + delta.seq);
+        }
+    }
+
+    @Test
+    void clientResyncsFromASnapshotAfterAGap() {
+        RoomService rooms = new RoomService(null);
+        RoomService.Room room = rooms.createRoom();
+        for (int i = 0; i < 20; i++) rooms.joinRoom(room.code, "P" + i);
+        Client client = new Client();
+        assertFalse(client.apply(rooms.nextLeaderboardFrame(room, true))); // a delta before any snapshot is useless
+        assertTrue(client.apply(rooms.leaderboard(room)));
+
+        Random r = new Random(3);
+        int resyncs = 0;
+        for (int round = 1; round <= 60; round++) {
+            play(rooms, room, r, round);
+            LeaderboardPush delta = rooms.nextLeaderboardFrame(room, true);
+            if (round % 7 == 0) continue; // lost, e.g. over a reconnect; newcomers' nicknames go with it
+
+            if (!client.apply(delta)) {
+                resyncs++;
+                play(rooms, room, r, round); // changes after the gap, not yet in any frame
+                LeaderboardPush snapshot = rooms.leaderboard(room);
+                assertEquals(delta.seq, snapshot.seq);
+                assertTrue(client.apply(snapshot));
+                assertTrue(client.apply(rooms.nextLeaderboardFrame(room, true))); // the stream continues from it
+            }
+            assertEquals(fullBoard(rooms, room), client.board(), "after frame " + client.seq);
+        }
+        assertEquals(8, resyncs);
+    }
+}
@@ -0,0 +1,95 @@
+package com.demo.quizarena;
+
+import com.demo.quizarena.metrics.QuizMetrics;
+import com.demo.quizarena.realtime.LeaderboardProtocol;
+import com.demo.quizarena.realtime.LeaderboardPublisher;
+import com.demo.quizarena.realtime.RoomBroadcaster;
+import com.demo.quizarena.service.RoomEventLoop;
+import com.demo.quizarena.service.RoomService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+
+public class LeaderboardPublisherTest {
+
+    private static final long INTERVAL_MS = 150;
+
+    private final RoomService rooms = new RoomService(null);
+    private final RoomEventLoop loop = new RoomEventLoop(2);
+    private final RoomBroadcaster broadcaster = Mockito.mock(RoomBroadcaster.class);
+    private LeaderboardPublisher publisher;
+
+    @AfterEach
+    void stop() {
+        if (publisher != null) publisher.stop();
+        loop.shutdown();
+    }
+
+    private void start(LeaderboardProtocol protocol) {
+        publisher = new LeaderboardPublisher(broadcaster, rooms, loop, new QuizMetrics(new SimpleMeterRegistry()),
+                INTERVAL_MS, INTERVAL_MS, 1000, protocol, 10);
+        publisher.start();
+    }
+
+    /** A room with an open question that was last flushed just now, so the next frame waits a full interval. */
+    private RoomService.Room openRoom(int players) {
+        RoomService.Room room = rooms.createRoom();
+        for (int i = 0; i < players; i++) rooms.joinRoom(room.code, "P" + i);
+        loop.call(room.code, () -> {
+            room.closedAtMs = Long.MAX_VALUE;
+            room.leaderboardFlushedAtMs = System.currentTimeMillis();
+            return null;
+        });
+        return room;
+    }
+
+    private int frames(RoomService.Room room) {
+        return Mockito.mockingDetails(broadcaster).getInvocations().stream()
+                .filter(i -> i.getMethod().getName().equals("broadcast")
+                        && room.code.equals(i.getArgument(0)) && "leaderboard".equals(i.getArgument(1)))
+                .mapToInt(i -> 1).sum();
+    }
+
+    @Test
+    void scoreChangesWithinOneIntervalProduceOneFrame() throws Exception {
+        start(LeaderboardProtocol.FULL);
+        RoomService.Room busy = openRoom(50);
+        RoomService.Room quiet = openRoom(50);
+        long burstStartMs = busy.leaderboardFlushedAtMs;
+
+        for (int i = 0; i < 500; i++) {
+            int slot = i % 50;
+            loop.execute(busy.code, () -> {
+                rooms.addScore(busy, slot, 10);
+                publisher.markDirty(busy);
+            });
+        }
+
+        Mockito.verify(broadcaster, Mockito.timeout(5_000)).broadcast(eq(busy.code), eq("leaderboard"), any());
+        long sentAtMs = loop.call(busy.code, () -> busy.leaderboardFlushedAtMs);
+        Thread.sleep(4 * INTERVAL_MS); // several more ticks: nothing is left to send
+        assertEquals(1, frames(busy));
+        assertTrue(sentAtMs - burstStartMs >= INTERVAL_MS, "flushed " + (sentAtMs - burstStartMs) + " ms after the last frame");
+        assertEquals(0, frames(quiet));
+    }
+
+    @Test
+    void dirtyMarkWithoutChangedSlotsSendsNoDelta() throws Exception {
+        start(LeaderboardProtocol.DELTA);
+        RoomService.Room room = openRoom(10);
+        loop.call(room.code, () -> {
+            rooms.nextLeaderboardFrame(room, false); // clients already hold every join
+            publisher.markDirty(room);
+            return null;
+        });
+
+        Thread.sleep(4 * INTERVAL_MS);
+        assertEquals(0, frames(room));
+        assertFalse(loop.call(room.code, () -> room.leaderboardDirty));
+    }
+}
@@ -0,0 +1,67 @@
+package com.demo.quizarena;
+
+import com.demo.quizarena.domain.Question;
+import com.demo.quizarena.domain.QuestionSnapshot;
+import com.demo.quizarena.repo.QuestionRepository;
+import com.demo.quizarena.service.QuestionBank;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class QuestionBankTest {
+
+    private static Question question(long id, String category) {
+        Question q = new Question(null, "Q" + id, "[\"A\",\"B\"]", "A");
+        ReflectionTestUtils.setField(q, "id", id);
+        q.setCategory(category);
+        return q;
+    }
+
+    @Test
+    void samplesAreDistinctAndEditsPublishNewSnapshots() {
+        List<Question> rows = new ArrayList<>();
+        for (long id = 1; id <= 1_000; id++) rows.add(question(id, id % 10 == 0 ? "JAVA知识" : "趣味知识"));
+        QuestionRepository repo = Mockito.mock(QuestionRepository.class);
+        Mockito.when(repo.findAll()).thenReturn(rows);
+        QuestionBank bank = new QuestionBank(repo);
+
+        for (int round = 0; round < 200; round++) {
+            List<QuestionSnapshot> drawn = bank.sample(20);
+            assertEquals(20, drawn.size());
+            assertEquals(20, drawn.stream().map(QuestionSnapshot::getId).distinct().count());
+        }
+        Set<Long> seen = new HashSet<>();
+        for (int round = 0; round < 50; round++) {
+            for (QuestionSnapshot q : bank.sample("JAVA知识", 20)) {
+                assertEquals(0, q.getId() % 10);
+                seen.add(q.getId());
+            }
+        }
+        assertEquals(100, seen.size()); // 50 draws of 20 out of 100 reach every question of the category
+        assertEquals(100, bank.sample("JAVA知识", 500).size());
+        assertTrue(bank.sample("无此分类", 5).isEmpty());
+        Mockito.verify(repo, Mockito.times(1)).findAll(); // loaded once, never queried per draw
+
+        QuestionSnapshot first = bank.find(1L);
+        assertSame(first, bank.sample("趣味知识", 900).stream().filter(q -> q.getId() == 1L).findFirst().orElseThrow()); // one shared instance
+        assertEquals(List.of("A", "B"), first.getOptions());
+        assertEquals("A", first.getCorrectAnswer());
+        Question edited = question(1, "JAVA知识");
+        edited.setStem("edited");
+        bank.put(edited);
+        bank.put(question(5_000, "JAVA知识"));
+        bank.remove(2L);
+        assertEquals("Q1", first.getStem()); // earlier snapshots are never modified
+        assertEquals("edited", bank.find(1L).getStem());
+        assertNull(bank.find(2L));
+        assertEquals(1_000, bank.size());
+        assertEquals(102, bank.sample("JAVA知识", 500).size());
+    }
+}
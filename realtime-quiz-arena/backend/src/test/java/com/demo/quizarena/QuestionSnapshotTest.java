@@ -0,0 +1,61 @@
+package com.demo.quizarena;
+
+import com.demo.quizarena.api.QuestionController;
+import com.demo.quizarena.api.dto.CreateQuestionRequest;
+import com.demo.quizarena.domain.Question;
+import com.demo.quizarena.domain.QuestionOptions;
+import com.demo.quizarena.domain.QuestionSnapshot;
+import com.demo.quizarena.repo.QuestionRepository;
+import com.demo.quizarena.service.QuestionBank;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class QuestionSnapshotTest {
+
+    @Test
+    void optionsSurviveCommasQuotesAndBackslashes() {
+        List<String> options = List.of("1,000", "say \"hi\"", "C:\\temp", "  padded  ", "");
+        assertEquals(options, QuestionOptions.parse(QuestionOptions.toJson(options)));
+        assertEquals(List.of("A", "B", "C"), QuestionOptions.parse(" [ \"A\" , \"B\",\"C\" ] "));
+        assertEquals(List.of("A", "B"), QuestionOptions.parse("[A, B]")); // hand-written rows without quotes
+        assertEquals(List.of("é"), QuestionOptions.parse("[\"\\u00e9\"]"));
+        assertTrue(QuestionOptions.parse("[]").isEmpty());
+        assertTrue(QuestionOptions.parse(null).isEmpty());
+    }
+
+    @Test
+    void snapshotKeepsTheCorrectAnswerAsAnIndex() {
+        Question q = new Question(null, "Q", "[\"Earth\",\"Mars, the red one\",\"Venus\"]", "Mars, the red one");
+        ReflectionTestUtils.setField(q, "id", 3L);
+        QuestionSnapshot s = QuestionSnapshot.of(q);
+        assertEquals(1, s.getCorrectIndex());
+        assertEquals("Mars, the red one", s.getCorrectAnswer());
+        assertTrue(s.isCorrect("Mars, the red one"));
+        assertFalse(s.isCorrect("Mars"));
+        assertThrows(UnsupportedOperationException.class, () -> s.getOptions().add("Pluto"));
+
+        q.setCorrectAnswer("Pluto"); // not among the options: nothing is correct
+        QuestionSnapshot orphan = QuestionSnapshot.of(q);
+        assertEquals(-1, orphan.getCorrectIndex());
+        assertNull(orphan.getCorrectAnswer());
+        assertFalse(orphan.isCorrect(null));
+    }
+
+    @Test
+    void questionWhoseAnswerIsNotAnOptionIsRejected() {
+        QuestionRepository repo = Mockito.mock(QuestionRepository.class);
+        QuestionController controller = new QuestionController(repo, new QuestionBank(repo));
+        CreateQuestionRequest req = new CreateQuestionRequest();
+        req.stem = "Q";
+        req.options = List.of("Earth", "Mars");
+        req.correctAnswer = "Mars "; // trailing space: would match no option and score nobody
+
+        assertThrows(IllegalArgumentException.class, () -> controller.createQuestion(req));
+        Mockito.verifyNoInteractions(repo);
+    }
+}
@@ -0,0 +1,58 @@
+package com.demo.quizarena;
+
+import com.demo.quizarena.domain.Question;
+import com.demo.quizarena.domain.QuestionSnapshot;
+import com.demo.quizarena.service.RoomService;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class QuizEventsTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void roomPhasesAreRecordedWithRoomCodeAndSizes() throws Exception {
+        RoomService rooms = new RoomService(null);
+        RoomService.Room room = rooms.createRoom();
+        rooms.joinRoom(room.code, "Alice");
+        rooms.joinRoom(room.code, "Bob");
+        Question q = new Question(null, "Q", "[\"A\",\"B\",\"C\"]", "B");
+        ReflectionTestUtils.setField(q, "id", 7L);
+
+        Path file = dir.resolve("quiz.jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("com.demo.quizarena.QuestionOpened");
+            recording.enable("com.demo.quizarena.LeaderboardComputed");
+            recording.start();
+            rooms.startGameAndOpenFirstQuestion(room.code, room.hostToken, List.of(QuestionSnapshot.of(q)));
+            rooms.addScore(room, 1, 500);
+            rooms.nextLeaderboardFrame(room, true);
+            recording.stop();
+            recording.dump(file);
+        }
+
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+        RecordedEvent opened = events.stream()
+                .filter(e -> e.getEventType().getName().equals("com.demo.quizarena.QuestionOpened")).findFirst().orElseThrow();
+        assertEquals(room.code, opened.getString("roomCode"));
+        assertEquals(2, opened.getInt("players"));
+        assertEquals(3, opened.getInt("options"));
+        assertFalse(opened.getDuration().isNegative());
+
+        RecordedEvent delta = events.stream()
+                .filter(e -> e.getEventType().getName().equals("com.demo.quizarena.LeaderboardComputed")).findFirst().orElseThrow();
+        assertEquals(room.code, delta.getString("roomCode"));
+        assertTrue(delta.getBoolean("delta"));
+        assertEquals(2, delta.getInt("entries")); // both joins are still unannounced
+    }
+}
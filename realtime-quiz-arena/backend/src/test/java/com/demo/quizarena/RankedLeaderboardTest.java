@@ -0,0 +1,83 @@
+package com.demo.quizarena;
+
+import com.demo.quizarena.service.RankedLeaderboard;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RankedLeaderboardTest {
+
+    @Test
+    void tiesRankInJoinOrder() {
+        RankedLeaderboard lb = new RankedLeaderboard();
+        lb.add(0, 0);
+        lb.add(1, 0);
+        lb.add(2, 0);
+        lb.setScore(2, 500);
+
+        assertEquals(1, lb.rankOf(2));
+        assertEquals(2, lb.rankOf(0));
+        assertEquals(3, lb.rankOf(1));
+        assertEquals(-1, lb.slotAbove(2));
+        assertEquals(0, lb.slotBelow(2));
+        assertEquals(0, lb.slotAbove(1));
+    }
+
+    @Test
+    void matchesFullSortUnderRandomUpdates() {
+        Random r = new Random(42);
+        RankedLeaderboard lb = new RankedLeaderboard();
+        int n = 2000;
+        int[] scores = new int[n];
+        for (int slot = 0; slot < n; slot++) lb.add(slot, 0);
+
+        for (int step = 0; step < 20_000; step++) {
+            int slot = r.nextInt(n);
+            scores[slot] += r.nextInt(4) == 0 ? 0 : 300 + r.nextInt(700);
+            lb.setScore(slot, scores[slot]);
+        }
+
+        List<Integer> expected = new ArrayList<>();
+        for (int slot = 0; slot < n; slot++) expected.add(slot);
+        expected.sort(Comparator.<Integer>comparingInt(s -> scores[s]).reversed().thenComparingInt(s -> s));
+
+        List<Integer> actual = new ArrayList<>();
+        lb.forEach((rank, slot, score) -> {
+            assertEquals(scores[slot], score);
+            actual.add(slot);
+        });
+        assertEquals(expected, actual);
+        for (int i = 0; i < n; i += 97) assertEquals(i + 1, lb.rankOf(expected.get(i)));
+
+        List<Integer> top = new ArrayList<>();
+        lb.forEachTop(10, (rank, slot, score) -> top.add(slot));
+        assertEquals(expected.subList(0, 10), top);
+
+        List<Integer> middle = new ArrayList<>();
+        lb.forEachInRanks(500, 620, (rank, slot, score) -> {
+            assertEquals(middle.size() + 500, rank);
+            middle.add(slot);
+        });
+        assertEquals(expected.subList(499, 620), middle);
+        List<Integer> tail = new ArrayList<>();
+        lb.forEachInRanks(n - 1, n + 5, (rank, slot, score) -> tail.add(slot));
+        assertEquals(expected.subList(n - 2, n), tail);
+    }
+
+    @Test
+    void removeKeepsRanksConsistent() {
+        RankedLeaderboard lb = new RankedLeaderboard();
+        for (int slot = 0; slot < 100; slot++) lb.add(slot, slot * 10);
+        for (int slot = 0; slot < 100; slot += 2) lb.remove(slot);
+
+        assertEquals(50, lb.size());
+        assertEquals(1, lb.rankOf(99));
+        assertEquals(50, lb.rankOf(1));
+        assertFalse(lb.contains(98));
+    }
+}
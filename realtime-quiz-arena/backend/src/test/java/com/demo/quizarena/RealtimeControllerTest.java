@@ -0,0 +1,130 @@
+package com.demo.quizarena;
+
+import com.demo.quizarena.cluster.ClusterMembership;
+import com.demo.quizarena.metrics.HotRoomTracker;
+import com.demo.quizarena.metrics.QuizMetrics;
+import com.demo.quizarena.mq.SubmittedAnswer;
+import com.demo.quizarena.realtime.AnswerDistributionPublisher;
+import com.demo.quizarena.realtime.AnswerSubmitMessage;
+import com.demo.quizarena.realtime.PlayerPrincipalInterceptor;
+import com.demo.quizarena.realtime.PlayerTokens;
+import com.demo.quizarena.realtime.RealtimeController;
+import com.demo.quizarena.service.RoomService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+
+import java.security.Principal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RealtimeControllerTest {
+
+    private final RoomService rooms = new RoomService(null);
+    private final List<SubmittedAnswer> queued = new ArrayList<>();
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final RealtimeController controller = new RealtimeController(rooms, null, null,
+            new ClusterMembership(false, "local", "", 160), null, null, queued::add,
+            Mockito.mock(AnswerDistributionPublisher.class), new HotRoomTracker(1024, 1000, 10, 100),
+            new QuizMetrics(registry));
+    private final PlayerTokens tokens = new PlayerTokens("test-secret");
+    private final PlayerPrincipalInterceptor interceptor = new PlayerPrincipalInterceptor(rooms, tokens);
+
+    /** Session headers of a player that connected with its playerId and subscribed to the room. */
+    private SimpMessageHeaderAccessor session(String code, String playerId) {
+        Map<String, Object> attributes = new HashMap<>();
+        StompHeaderAccessor subscribe = StompHeaderAccessor.create(StompCommand.SUBSCRIBE);
+        subscribe.setDestination("/topic/room/" + code + "/question");
+        subscribe.setUser(new PlayerPrincipalInterceptor.PlayerPrincipal(playerId));
+        subscribe.setSessionAttributes(attributes);
+        interceptor.preSend(MessageBuilder.createMessage(new byte[0], subscribe.getMessageHeaders()), null);
+
+        SimpMessageHeaderAccessor headers = SimpMessageHeaderAccessor.create();
+        headers.setUser(new PlayerPrincipalInterceptor.PlayerPrincipal(playerId));
+        headers.setSessionAttributes(attributes);
+        return headers;
+    }
+
+    private static AnswerSubmitMessage answer(String playerId, Integer slot) {
+        AnswerSubmitMessage msg = new AnswerSubmitMessage();
+        msg.playerId = playerId;
+        msg.slot = slot;
+        msg.optionIndex = 0;
+        msg.questionId = 1L;
+        return msg;
+    }
+
+    private double rejected() {
+        return registry.counter("quiz.answers", "outcome", "rejected", "reason", "invalid").count();
+    }
+
+    @Test
+    void answersAreBoundToTheSessionsPlayer() {
+        RoomService.Room room = rooms.createRoom();
+        RoomService.Player alice = rooms.joinRoom(room.code, "Alice");
+        RoomService.Player bob = rooms.joinRoom(room.code, "Bob");
+        SimpMessageHeaderAccessor aliceSession = session(room.code, alice.playerId);
+
+        // Bob's slot is on every leaderboard frame; Alice's session may not answer with it
+        controller.submitAnswer(room.code, answer(null, bob.slot), aliceSession);
+        controller.submitAnswer(room.code, answer(bob.playerId, null), aliceSession);
+        controller.submitAnswer(room.code, answer(bob.playerId, bob.slot), SimpMessageHeaderAccessor.create()); // no principal
+        assertTrue(queued.isEmpty());
+        assertEquals(3, rejected());
+
+        controller.submitAnswer(room.code, answer(null, null), aliceSession);
+        controller.submitAnswer(room.code, answer(alice.playerId, alice.slot), aliceSession);
+        assertEquals(2, queued.size());
+        for (SubmittedAnswer a : queued) {
+            assertEquals(alice.playerId, a.answer.playerId);
+            assertEquals(alice.slot, a.answer.slot);
+        }
+
+        // a session that hasn't subscribed yet is resolved by its principal, and checked the same way
+        SimpMessageHeaderAccessor bobSession = SimpMessageHeaderAccessor.create();
+        bobSession.setUser(new PlayerPrincipalInterceptor.PlayerPrincipal(bob.playerId));
+        controller.submitAnswer(room.code, answer(null, alice.slot), bobSession);
+        assertEquals(4, rejected());
+        controller.submitAnswer(room.code, answer(null, null), bobSession);
+        assertEquals(bob.slot, queued.get(2).answer.slot);
+    }
+
+    /** The principal a CONNECT with these headers ends up with, or null. */
+    private Principal connect(String playerId, String token) {
+        StompHeaderAccessor connect = StompHeaderAccessor.create(StompCommand.CONNECT);
+        connect.setNativeHeader(PlayerPrincipalInterceptor.PLAYER_ID_HEADER, playerId);
+        if (token != null) connect.setNativeHeader(PlayerPrincipalInterceptor.PLAYER_TOKEN_HEADER, token);
+        connect.setLeaveMutable(true);
+        interceptor.preSend(MessageBuilder.createMessage(new byte[0], connect.getMessageHeaders()), null);
+        return connect.getUser();
+    }
+
+    @Test
+    void connectingAsAPlayerNeedsTheirToken() throws Exception {
+        RoomService.Room room = rooms.createRoom();
+        RoomService.Player alice = rooms.joinRoom(room.code, "Alice");
+        RoomService.Player bob = rooms.joinRoom(room.code, "Bob");
+
+        assertEquals(alice.playerId, connect(alice.playerId, tokens.issue(alice.playerId)).getName());
+        assertNull(connect(alice.playerId, null)); // a playerId alone proves nothing
+        assertNull(connect(alice.playerId, tokens.issue(bob.playerId)));
+        assertNull(connect(alice.playerId, new PlayerTokens("other-secret").issue(alice.playerId)));
+
+        // nothing broadcast gives the id away
+        rooms.addScore(room, bob.slot, 100);
+        ObjectMapper json = new ObjectMapper();
+        String frames = json.writeValueAsString(rooms.leaderboard(room)) + json.writeValueAsString(rooms.nextLeaderboardFrame(room, true))
+                + json.writeValueAsString(rooms.rankPush(room, alice));
+        assertTrue(frames.contains("Alice"));
+        assertFalse(frames.contains(alice.playerId) || frames.contains(bob.playerId));
+    }
+}
@@ -0,0 +1,113 @@
+package com.demo.quizarena;
+
+import com.demo.quizarena.metrics.QuizMetrics;
+import com.demo.quizarena.realtime.RoomBroker;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ExecutorSubscribableChannel;
+import org.springframework.messaging.support.MessageBuilder;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RoomBrokerTest {
+
+    private static final String QUESTION = "/topic/room/ABC123/question";
+    private static final String LEADERBOARD = "/topic/room/ABC123/leaderboard";
+
+    // outbound work only runs when the test says so: a client that reads nothing until then
+    private final Deque<Runnable> pendingWrites = new ArrayDeque<>();
+    private final ExecutorSubscribableChannel outbound = new ExecutorSubscribableChannel(pendingWrites::add);
+    private final List<Message<?>> written = new ArrayList<>();
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private RoomBroker startBroker(int queueCapacity) {
+        outbound.subscribe(written::add);
+        RoomBroker broker = new RoomBroker(new ExecutorSubscribableChannel(), outbound, new ExecutorSubscribableChannel(),
+                new QuizMetrics(registry), 1, queueCapacity, 100);
+        broker.start();
+        broker.handleMessage(subscribe("s1", "q", QUESTION));
+        broker.handleMessage(subscribe("s1", "l", LEADERBOARD));
+        return broker;
+    }
+
+    @Test
+    void slowConsumerLosesLeaderboardFramesFirstAndIsDisconnectedWhenOnlyQuestionsAreLeft() {
+        RoomBroker broker = startBroker(2);
+        assertEquals(1, broker.subscriberCount(QUESTION));
+
+        broker.handleMessage(publish(QUESTION, "q1"));    // in flight
+        broker.handleMessage(publish(LEADERBOARD, "l1")); // queued
+        broker.handleMessage(publish(LEADERBOARD, "l2")); // queued, outbox now full
+        broker.handleMessage(publish(QUESTION, "q2"));    // evicts l1
+        broker.handleMessage(publish(QUESTION, "q3"));    // evicts l2
+        broker.handleMessage(publish(QUESTION, "q4"));    // only questions left: disconnect
+        await(() -> registry.counter("quiz.broker.disconnects").count() == 1);
+
+        assertEquals(2, registry.counter("quiz.broker.dropped", "kind", "leaderboard").count());
+        assertEquals(0, broker.subscriberCount(QUESTION));
+
+        drainWrites();
+        assertEquals("q1", payload(written.get(0)));
+        assertEquals(StompCommand.ERROR, StompHeaderAccessor.wrap(written.get(1)).getCommand());
+        assertEquals(2, written.size()); // queued frames of a disconnected session are discarded
+        broker.stop();
+    }
+
+    @Test
+    void framesAreWrittenOneAtATimeInOrder() {
+        RoomBroker broker = startBroker(8);
+
+        broker.handleMessage(publish(QUESTION, "q1"));
+        broker.handleMessage(publish(LEADERBOARD, "l1"));
+        broker.handleMessage(publish(QUESTION, "q2"));
+        await(() -> pendingWrites.size() == 1 && registry.get("quiz.broker.queue.depth").gauge().value() == 2);
+
+        drainWrites();
+        assertEquals(List.of("q1", "l1", "q2"), written.stream().map(RoomBrokerTest::payload).toList());
+        assertEquals("s1", SimpMessageHeaderAccessor.getSessionId(written.get(1).getHeaders()));
+        assertEquals("l", SimpMessageHeaderAccessor.getSubscriptionId(written.get(1).getHeaders()));
+        assertEquals(0, registry.get("quiz.broker.queue.depth").gauge().value());
+        broker.stop();
+    }
+
+    private void drainWrites() {
+        for (Runnable write; (write = pendingWrites.pollFirst()) != null; ) write.run();
+    }
+
+    private static void await(BooleanSupplier condition) {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, "condition not reached in time");
+            Thread.onSpinWait();
+        }
+    }
+
+    private static Message<byte[]> subscribe(String sessionId, String subscriptionId, String destination) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.SUBSCRIBE);
+        accessor.setSessionId(sessionId);
+        accessor.setSubscriptionId(subscriptionId);
+        accessor.setDestination(destination);
+        return MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+    }
+
+    private static Message<byte[]> publish(String destination, String body) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        accessor.setDestination(destination);
+        return MessageBuilder.createMessage(body.getBytes(), accessor.getMessageHeaders());
+    }
+
+    private static String payload(Message<?> message) {
+        return new String((byte[]) message.getPayload());
+    }
+}
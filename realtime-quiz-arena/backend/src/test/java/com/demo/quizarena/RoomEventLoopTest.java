@@ -0,0 +1,57 @@
+package com.demo.quizarena;
+
+import com.demo.quizarena.service.RoomEventLoop;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RoomEventLoopTest {
+
+    @Test
+    void concurrentUpdatesToOneRoomAreNotLost() throws Exception {
+        RoomEventLoop loop = new RoomEventLoop(4);
+        int[] score = new int[1]; // deliberately unsynchronized: only the owner thread touches it
+
+        ExecutorService senders = Executors.newFixedThreadPool(8);
+        for (int t = 0; t < 8; t++) {
+            senders.execute(() -> {
+                for (int i = 0; i < 10_000; i++) loop.execute("ROOM01", () -> score[0]++);
+            });
+        }
+        senders.shutdown();
+        assertTrue(senders.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertEquals(80_000, loop.call("ROOM01", () -> score[0]));
+        loop.shutdown();
+    }
+
+    @Test
+    void tasksForOneRoomRunInSubmissionOrder() {
+        RoomEventLoop loop = new RoomEventLoop(2);
+        List<Integer> seen = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            final int n = i;
+            loop.execute("ABCDEF", () -> seen.add(n));
+        }
+        List<Integer> result = loop.call("ABCDEF", () -> new ArrayList<>(seen));
+        for (int i = 0; i < 1000; i++) assertEquals(i, result.get(i));
+        loop.shutdown();
+    }
+
+    @Test
+    void callRethrowsTaskException() {
+        RoomEventLoop loop = new RoomEventLoop(1);
+        assertThrows(IllegalStateException.class, () -> loop.call("X", () -> {
+            throw new IllegalStateException("boom");
+        }));
+        // nested call from the owner thread runs inline instead of deadlocking
+        assertEquals(42, loop.call("X", () -> loop.call("X", () -> 42)));
+        loop.shutdown();
+    }
+}
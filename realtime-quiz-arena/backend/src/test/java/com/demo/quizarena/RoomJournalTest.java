@@ -0,0 +1,130 @@
+package com.demo.quizarena;
+
+import com.demo.quizarena.domain.Question;
+import com.demo.quizarena.domain.QuestionSnapshot;
+import com.demo.quizarena.journal.MappedRoomJournal;
+import com.demo.quizarena.repo.QuestionRepository;
+import com.demo.quizarena.service.QuestionBank;
+import com.demo.quizarena.service.RoomEventLoop;
+import com.demo.quizarena.service.RoomService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RoomJournalTest {
+
+    @TempDir
+    Path dir;
+
+    private final RoomEventLoop loop = new RoomEventLoop(2);
+
+    @AfterEach
+    void shutdown() {
+        loop.shutdown();
+    }
+
+    private MappedRoomJournal openJournal(RoomService service) throws Exception {
+        MappedRoomJournal journal = new MappedRoomJournal(service, loop, null, null, dir.toString(), 64 * 1024, 1, 60_000);
+        journal.open();
+        return journal;
+    }
+
+    private static QuestionBank questions(int n) {
+        List<QuestionSnapshot> list = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            Question q = new Question(null, "Q" + i, "[\"A\",\"B\",\"C\"]", "B");
+            ReflectionTestUtils.setField(q, "id", 100L + i);
+            list.add(QuestionSnapshot.of(q));
+        }
+        return new QuestionBank(Mockito.mock(QuestionRepository.class)) {
+            @Override
+            public List<QuestionSnapshot> sample(int count) {
+                return list; // in order, so the test knows which question is current
+            }
+        };
+    }
+
+    @Test
+    void restartRestoresRoomsFromSnapshotPlusReplayedRecords() throws Exception {
+        RoomService before = new RoomService(questions(3));
+        MappedRoomJournal journal = openJournal(before);
+
+        RoomService.Room room = before.createRoom();
+        RoomService.Player alice = before.joinRoom(room.code, "Alice");
+        before.joinRoom(room.code, "Bob");
+        before.startGameAndOpenFirstQuestion(room.code, room.hostToken);
+        before.recordAnswer(room, 0, 1_200, 1);
+        before.addScore(room, 0, 800);
+        journal.snapshot(); // everything above comes back from the snapshot, the rest from the segment
+
+        before.advanceQuestion(room);
+        before.recordAnswer(room, 1, 500, 2);
+        before.applyDeferredScores(room, new int[]{1}, new int[]{900}, 1);
+        RoomService.Room gone = before.createRoom();
+        before.joinRoom(gone.code, "Carol");
+        before.removeRoom(gone);
+        journal.stop();
+
+        RoomService after = new RoomService(questions(3));
+        journal = openJournal(after);
+        RoomService.Room restored = after.findRoom(room.code);
+        assertNotNull(restored);
+        assertNull(after.findRoom(gone.code));
+        assertEquals(1, after.roomCount());
+        assertEquals(2, after.playerCount());
+        assertEquals(room.hostToken, restored.hostToken);
+        assertEquals(RoomService.RoomStatus.IN_GAME, restored.status);
+        assertEquals(1, restored.currentQuestionIndex);
+        assertEquals(room.openedAtMs, restored.openedAtMs);
+        assertEquals(101L, restored.currentQuestionPush.questionId);
+        assertEquals(alice.playerId, restored.playersBySlot.get(0).playerId);
+        assertEquals(800, after.scoreOf(restored, 0));
+        assertEquals(900, after.scoreOf(restored, 1));
+        assertEquals(1, after.rankOf(restored, restored.playersBySlot.get(1)));
+        assertTrue(restored.answeredSlots.get(1));
+        assertFalse(restored.answeredSlots.get(0));
+        assertEquals(2, restored.chosenOption[1]);
+        assertTrue(restored.answersScored);
+
+        // recovery starts a fresh segment; what's written after it survives the next restart too
+        after.joinRoom(room.code, "Dave");
+        journal.stop();
+        RoomService again = new RoomService(questions(3));
+        openJournal(again).stop();
+        assertEquals(3, again.findRoom(room.code).playersBySlot.size());
+    }
+
+    private long segmentFiles() throws Exception {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(p -> p.getFileName().toString().startsWith("segment-")).count();
+        }
+    }
+
+    @Test
+    void rolledSegmentsAreDeletedOnceASnapshotCoversThem() throws Exception {
+        RoomService before = new RoomService(questions(1));
+        MappedRoomJournal journal = openJournal(before);
+        RoomService.Room room = before.createRoom();
+        for (int i = 0; i < 3000; i++) before.joinRoom(room.code, "Player-" + i); // several 64 KiB segments
+
+        journal.stop(); // everything written, so the snapshot below covers every record
+        assertTrue(segmentFiles() >= 3, "the writer rolled over");
+
+        journal.snapshot();
+        assertEquals(1, segmentFiles(), "only the last segment written is kept");
+
+        RoomService after = new RoomService(questions(1));
+        openJournal(after).stop();
+        assertEquals(3000, after.findRoom(room.code).playersBySlot.size());
+    }
+}
@@ -1,10 +1,24 @@
 package com.demo.quizarena;
 
+import com.demo.quizarena.realtime.RankPush;
 import com.demo.quizarena.repo.QuestionRepository;
+import com.demo.quizarena.service.CapacityExceededException;
+import com.demo.quizarena.service.QuestionBank;
 import com.demo.quizarena.service.RoomService;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 public class RoomServiceTest {
@@ -12,7 +26,7 @@ public class RoomServiceTest {
     @Test
     void createAndJoinRoom() {
         QuestionRepository repo = Mockito.mock(QuestionRepository.class);
-        RoomService service = new RoomService(repo);
+        RoomService service = new RoomService(new QuestionBank(repo));
 
         RoomService.Room room = service.createRoom();
         assertNotNull(room.code);
@@ -23,4 +37,145 @@ public class RoomServiceTest {
         assertEquals("Alice", p.nickname);
         assertEquals(1, room.players.size());
     }
+
+    @Test
+    void scoresLiveInSlotArraysAndOnlyTheFirstAnswerCounts() {
+        RoomService service = new RoomService(new QuestionBank(Mockito.mock(QuestionRepository.class)));
+        RoomService.Room room = service.createRoom();
+        for (int i = 0; i < 40; i++) service.joinRoom(room.code, "P" + i); // grows the arrays past their initial size
+
+        assertTrue(service.recordAnswer(room, 33, 1_200, 2));
+        assertFalse(service.recordAnswer(room, 33, 1_900, 1));
+        assertEquals(1_200, room.answerLatencyMs[33]);
+        assertEquals(2, room.chosenOption[33]);
+
+        service.addScore(room, 33, 700);
+        assertEquals(700, service.scoreOf(room, 33));
+        assertEquals(1, service.rankOf(room, room.playersBySlot.get(33)));
+    }
+
+    @Test
+    void registryIsBoundedAndEvictionReleasesCapacity() {
+        RoomService service = new RoomService(new QuestionBank(Mockito.mock(QuestionRepository.class)), 2, 3);
+        RoomService.Room a = service.createRoom();
+        RoomService.Room b = service.createRoom();
+        assertThrows(CapacityExceededException.class, service::createRoom);
+
+        service.joinRoom(a.code, "P1");
+        service.joinRoom(a.code, "P2");
+        service.joinRoom(b.code, "P3");
+        assertThrows(CapacityExceededException.class, () -> service.joinRoom(b.code, "P4"));
+        assertEquals(3, service.playerCount());
+
+        service.removeRoom(a);
+        assertNull(service.findRoom(a.code));
+        assertEquals(1, service.roomCount());
+        assertEquals(1, service.playerCount());
+        assertNotNull(service.joinRoom(b.code, "P4"));
+        assertNotNull(service.createRoom());
+    }
+
+    @Test
+    void concurrentCreatesNeverOvershootTheRoomBound() throws Exception {
+        RoomService service = new RoomService(new QuestionBank(Mockito.mock(QuestionRepository.class)), 50, 1000);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            CountDownLatch go = new CountDownLatch(1);
+            List<Future<Boolean>> attempts = new ArrayList<>();
+            for (int i = 0; i < 400; i++) {
+                attempts.add(pool.submit(() -> {
+                    go.await();
+                    try {
+                        service.createRoom();
+                        return true;
+                    } catch (CapacityExceededException e) {
+                        return false;
+                    }
+                }));
+            }
+            go.countDown();
+            int created = 0;
+            for (Future<Boolean> attempt : attempts) if (attempt.get()) created++;
+            assertEquals(50, created);
+            assertEquals(50, service.roomCount());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /** One top-K flush: the personal rank pushes by slot, then the frame that resets change tracking. */
+    private static Map<Integer, RankPush> flushRanks(RoomService service, RoomService.Room room) {
+        Map<Integer, RankPush> pushes = new HashMap<>();
+        service.forEachRankChange(room, (player, push) -> assertNull(pushes.put(player.slot, push)));
+        service.nextTopLeaderboardFrame(room, 3);
+        return pushes;
+    }
+
+    @Test
+    void rankPushesFollowOvertakesAndTies() {
+        RoomService service = new RoomService(new QuestionBank(Mockito.mock(QuestionRepository.class)));
+        RoomService.Room room = service.createRoom();
+        for (int i = 0; i < 8; i++) service.joinRoom(room.code, "P" + i);
+        assertEquals(8, flushRanks(service, room).size()); // everybody learns their starting rank
+        assertTrue(flushRanks(service, room).isEmpty());
+
+        // slot 3 overtakes 0..2, who drop one place each; 4 gets a new neighbour above; 5..7 are untouched
+        service.addScore(room, 3, 100);
+        Map<Integer, RankPush> pushes = flushRanks(service, room);
+        assertEquals(Set.of(3, 0, 1, 2, 4), pushes.keySet());
+        assertEquals(1, pushes.get(3).rank);
+        assertEquals(0, pushes.get(3).below.slot.intValue());
+        assertEquals(4, pushes.get(2).rank);
+        assertEquals(2, pushes.get(4).above.slot.intValue());
+
+        // slot 5 ties slot 3 and ranks after it (join order); 6 loses 5 as its neighbour above, 7 is untouched
+        service.addScore(room, 5, 100);
+        pushes = flushRanks(service, room);
+        assertEquals(Set.of(3, 5, 0, 1, 2, 4, 6), pushes.keySet());
+        assertEquals(2, pushes.get(5).rank);
+        assertEquals(3, pushes.get(5).above.slot.intValue());
+        assertEquals(5, pushes.get(3).below.slot.intValue());
+        assertEquals(6, pushes.get(4).rank);
+        assertEquals(4, pushes.get(6).above.slot.intValue());
+
+        // slot 1 ties them too and, joining earliest, leads; slot 7 climbs over the players still at zero
+        service.addScore(room, 1, 100);
+        service.addScore(room, 7, 5);
+        pushes = flushRanks(service, room);
+        assertEquals(1, pushes.get(1).rank);
+        assertEquals(2, pushes.get(3).rank);
+        assertEquals(4, pushes.get(7).rank);
+        assertEquals(5, pushes.get(7).totalScore);
+        assertEquals(7, pushes.get(5).below.slot.intValue());
+        assertEquals(7, pushes.get(0).above.slot.intValue());
+        assertEquals(8, pushes.get(6).rank);
+    }
+
+    @Test
+    void rankPushesKeepEveryPlayersLastStandingCurrent() {
+        RoomService service = new RoomService(new QuestionBank(Mockito.mock(QuestionRepository.class)));
+        RoomService.Room room = service.createRoom();
+        Map<Integer, RankPush> last = new HashMap<>();
+        Random r = new Random(7);
+        for (int round = 0; round < 200; round++) {
+            if (round % 10 == 0) {
+                for (int i = 0; i < 5; i++) service.joinRoom(room.code, "P" + round + "-" + i);
+            }
+            for (int i = 0; i < 4; i++) {
+                service.addScore(room, r.nextInt(room.playersBySlot.size()), 50 * r.nextInt(4));
+            }
+            last.putAll(flushRanks(service, room));
+
+            for (RoomService.Player p : room.playersBySlot) {
+                RankPush told = last.get(p.slot);
+                RankPush actual = service.rankPush(room, p);
+                assertEquals(actual.rank, told.rank, "slot " + p.slot + " in round " + round);
+                assertEquals(actual.totalScore, told.totalScore);
+                assertEquals(actual.above == null ? null : actual.above.slot, told.above == null ? null : told.above.slot);
+                assertEquals(actual.above == null ? null : actual.above.totalScore, told.above == null ? null : told.above.totalScore);
+                assertEquals(actual.below == null ? null : actual.below.slot, told.below == null ? null : told.below.slot);
+                assertEquals(actual.below == null ? null : actual.below.totalScore, told.below == null ? null : told.below.totalScore);
+            }
+        }
+    }
 }
@@ -22,4 +22,19 @@ public class ScoreServiceTest {
         assertTrue(fast > slow);
         assertEquals(300, verySlow); // 0.3 floor
     }
+
+    @Test
+    void fixedPointScoreAgreesWithTheDoubleRule() {
+        ScoreService s = new ScoreService();
+        for (int base : new int[]{1, 7, 500, 1000, 1999}) {
+            for (int limitSec : new int[]{1, 10, 15, 30}) {
+                for (long latency = 0; latency <= limitSec * 1000L + 500; latency += 7) {
+                    // exact halves may round the other way in double (398.5 is 398.4999...)
+                    assertEquals(s.computeScore(true, base, limitSec, latency),
+                            s.computeScoreFixed(base, limitSec * 1000L, latency), 1,
+                            "base=" + base + " limit=" + limitSec + " latency=" + latency);
+                }
+            }
+        }
+    }
 }
@@ -4,7 +4,9 @@ import com.demo.quizarena.api.dto.SpeedGameStartResponse;
 import com.demo.quizarena.api.dto.SpeedGameSubmitRequest;
 import com.demo.quizarena.api.dto.SpeedGameSubmitResponse;
 import com.demo.quizarena.domain.Question;
+import com.demo.quizarena.domain.QuestionSnapshot;
 import com.demo.quizarena.repo.QuestionRepository;
+import com.demo.quizarena.service.QuestionBank;
 import com.demo.quizarena.service.ScoreService;
 import com.demo.quizarena.service.SpeedGameService;
 import org.junit.jupiter.api.Assertions;
@@ -14,9 +16,6 @@ import org.mockito.Mockito;
 import java.util.ArrayList;
 import java.util.List;
 
-import static org.mockito.ArgumentMatchers.anyInt;
-import static org.mockito.Mockito.when;
-
 public class SpeedGameServiceTest {
 
     @Test
@@ -26,7 +25,7 @@ public class SpeedGameServiceTest {
         ScoreService scoreService = new ScoreService();
 
         // 构造假数据
-        List<Question> mockQuestions = new ArrayList<>();
+        List<QuestionSnapshot> mockQuestions = new ArrayList<>();
         for (int i = 0; i < 2; i++) {
             Question q = new Question();
             q.setStem("Q" + i);
@@ -34,15 +33,18 @@ public class SpeedGameServiceTest {
             q.setOptionsJson("[\"A\",\"B\"]");
             q.setBasePoints(100);
             q.setTimeLimitSec(15);
-            // 这里需要通过反射或修改 Question 类使其 ID 可设，或者 mock getId()
-            // 为简化，这里假设 Question 存入 List 后我们能引用到它
-            mockQuestions.add(q);
+            mockQuestions.add(QuestionSnapshot.of(q));
         }
 
-        // Mock 仓库行为
-        when(repo.findRandomQuestions(anyInt())).thenReturn(mockQuestions);
+        // Mock 题库抽题行为（按给定顺序返回）
+        QuestionBank bank = new QuestionBank(repo) {
+            @Override
+            public List<QuestionSnapshot> sample(int count) {
+                return mockQuestions;
+            }
+        };
 
-        SpeedGameService service = new SpeedGameService(repo, scoreService);
+        SpeedGameService service = new SpeedGameService(bank, scoreService);
 
         // 2. Start Game
         SpeedGameStartResponse startRes = service.start("Player1");
@@ -0,0 +1,52 @@
+package com.demo.quizarena;
+
+import com.demo.quizarena.service.TimerWheel;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TimerWheelTest {
+
+    @Test
+    void timeoutsFireInDeadlineOrderIncludingAfterFullTurns() throws Exception {
+        // 8 buckets of 5 ms: 100 ms is several turns of the wheel
+        TimerWheel wheel = new TimerWheel("test-wheel", 5, 8);
+        List<Integer> fired = new CopyOnWriteArrayList<>();
+        CountDownLatch done = new CountDownLatch(4);
+        long start = System.nanoTime();
+        long[] firedAfterMs = new long[1];
+        for (int delay : new int[]{100, 10, 60, 0}) {
+            wheel.schedule(delay, () -> {
+                fired.add(delay);
+                if (delay == 100) firedAfterMs[0] = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                done.countDown();
+            });
+        }
+
+        assertTrue(done.await(2, TimeUnit.SECONDS));
+        assertEquals(List.of(0, 10, 60, 100), fired);
+        assertTrue(firedAfterMs[0] >= 100, "fired early: " + firedAfterMs[0]);
+        wheel.stop();
+    }
+
+    @Test
+    void cancelledTimeoutDoesNotFire() throws Exception {
+        TimerWheel wheel = new TimerWheel("test-wheel", 5, 16);
+        List<String> fired = new CopyOnWriteArrayList<>();
+        CountDownLatch done = new CountDownLatch(1);
+        wheel.schedule(20, () -> fired.add("cancelled")).cancel();
+        wheel.schedule(40, () -> {
+            fired.add("kept");
+            done.countDown();
+        });
+
+        assertTrue(done.await(2, TimeUnit.SECONDS));
+        assertEquals(List.of("kept"), fired);
+        wheel.stop();
+    }
+}
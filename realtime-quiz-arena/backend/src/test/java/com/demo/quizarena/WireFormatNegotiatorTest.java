@@ -0,0 +1,86 @@
+package com.demo.quizarena;
+
+import com.demo.quizarena.realtime.CompactCborCodec;
+import com.demo.quizarena.realtime.QuestionPush;
+import com.demo.quizarena.realtime.WireFormatNegotiator;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.util.MimeTypeUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class WireFormatNegotiatorTest {
+
+    private final CompactCborCodec codec = new CompactCborCodec();
+    private final WireFormatNegotiator negotiator = new WireFormatNegotiator(codec);
+
+    private void connect(String sessionId, String wireFormat) {
+        StompHeaderAccessor connect = StompHeaderAccessor.create(StompCommand.CONNECT);
+        connect.setSessionId(sessionId);
+        if (wireFormat != null) connect.setNativeHeader(WireFormatNegotiator.WIRE_FORMAT_HEADER, wireFormat);
+        negotiator.inboundInterceptor().preSend(MessageBuilder.createMessage(new byte[0], connect.getMessageHeaders()), null);
+    }
+
+    /** A broadcast frame as the broker hands it to one session: JSON body, CBOR attached. */
+    private static Message<byte[]> frame(String sessionId, byte[] json, byte[] cbor) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        accessor.setSessionId(sessionId);
+        accessor.setContentType(MimeTypeUtils.APPLICATION_JSON);
+        accessor.setHeader(WireFormatNegotiator.CBOR_BODY_HEADER, cbor);
+        return MessageBuilder.createMessage(json, accessor.getMessageHeaders());
+    }
+
+    private static QuestionPush question() {
+        QuestionPush push = new QuestionPush();
+        push.questionId = 42L;
+        push.stem = "世界上最小的国家是？";
+        push.options = List.of("梵蒂冈", "摩纳哥");
+        return push;
+    }
+
+    @Test
+    void binarySessionsGetTheAttachedCborAndJsonSessionsTheJson() {
+        connect("bin", "cbor");
+        connect("txt", null);
+        byte[] json = "{\"questionId\":42}".getBytes(StandardCharsets.UTF_8);
+        byte[] cbor = codec.encode(question());
+
+        Message<?> toBinary = negotiator.outboundInterceptor().preSend(frame("bin", json, cbor), null);
+        assertSame(cbor, toBinary.getPayload());
+        StompHeaderAccessor binaryHeaders = StompHeaderAccessor.wrap(toBinary);
+        assertEquals(MimeTypeUtils.APPLICATION_OCTET_STREAM, binaryHeaders.getContentType());
+        assertEquals("cbor", binaryHeaders.getFirstNativeHeader(WireFormatNegotiator.WIRE_FORMAT_HEADER));
+        assertNull(toBinary.getHeaders().get(WireFormatNegotiator.CBOR_BODY_HEADER));
+
+        Message<?> toText = negotiator.outboundInterceptor().preSend(frame("txt", json, cbor), null);
+        assertSame(json, toText.getPayload());
+    }
+
+    @Test
+    void subscribeRepliesToABinarySessionAreEncodedFromTheDto() throws Exception {
+        connect("bin", "cbor");
+        connect("txt", null);
+        QuestionPush push = question();
+
+        SimpMessageHeaderAccessor binary = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        binary.setSessionId("bin");
+        Message<?> reply = negotiator.outboundConverter().toMessage(push, binary.getMessageHeaders());
+        assertNotNull(reply);
+        assertArrayEquals(codec.encode(push), (byte[]) reply.getPayload());
+        QuestionPush decoded = codec.cborMapper().readValue((byte[]) reply.getPayload(), QuestionPush.class);
+        assertEquals(push.stem, decoded.stem);
+        assertEquals(push.options, decoded.options);
+
+        SimpMessageHeaderAccessor text = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        text.setSessionId("txt");
+        assertNull(negotiator.outboundConverter().toMessage(push, text.getMessageHeaders()), "left to the JSON converter");
+    }
+}
@@ -0,0 +1,414 @@
+package com.demo.quizarena.loadgen;
+
+import com.demo.quizarena.QuizArenaApplication;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.converter.AbstractMessageConverter;
+import org.springframework.messaging.simp.stomp.StompFrameHandler;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.socket.WebSocketHttpHeaders;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Headless load generator: boots the server in this JVM and plays whole games against it over
+ * loopback, through the same REST endpoints and {@code /ws} STOMP destinations as the browser.
+ *
+ * R rooms with P players each are created and joined via {@code RoomController}; every player gets
+ * its own STOMP session. Games are started, players answer {@code /app/room/{code}/answer} after a
+ * think time drawn from the configured distribution, and the host advances after each reveal.
+ * Reported:
+ * <ul>
+ *   <li>answer-to-leaderboard latency: from sending a correct answer to the first leaderboard
+ *       (or {@code /user/queue/rank}) frame showing that player's higher score, p50/p99/p999</li>
+ *   <li>frames the broker dropped for slow consumers, and slow-consumer disconnects</li>
+ *   <li>server CPU: process CPU time minus the generator's own threads, as cores busy</li>
+ * </ul>
+ * Run with {@code mvn -Ploadgen test -Dloadgen.rooms=50 -Dloadgen.players=100}; every other
+ * {@code -D} property (e.g. {@code -Dquiz.leaderboard.protocol=top-k}) configures the server.
+ * <pre>
+ *   loadgen.rooms       rooms (default 10)
+ *   loadgen.players     players per room (default 50)
+ *   loadgen.questions   questions played per game (default 3)
+ *   loadgen.think       answer think time: fixed:MS | uniform:MIN:MAX | exp:MEAN | normal:MEAN:SD (default uniform:500:4000)
+ *   loadgen.accuracy    share of correct answers (default 0.8)
+ *   loadgen.next-delay-ms  host pause between reveal and next question (default 2000)
+ *   loadgen.timeout-s   give up waiting for unfinished games (default 900)
+ *   loadgen.quiet       mute the server's console logging (default true)
+ * </pre>
+ */
+public class LoadGenerator {
+
+    /** Answer think time in ms. */
+    interface ThinkTime {
+        long next(ThreadLocalRandom random);
+
+        static ThinkTime parse(String spec) {
+            String[] p = spec.split(":");
+            return switch (p[0]) {
+                case "fixed" -> r -> Long.parseLong(p[1]);
+                case "uniform" -> r -> r.nextLong(Long.parseLong(p[1]), Long.parseLong(p[2]) + 1);
+                case "exp" -> r -> Math.round(-Math.log(1 - r.nextDouble()) * Double.parseDouble(p[1]));
+                case "normal" -> r -> Math.max(0, Math.round(r.nextGaussian() * Double.parseDouble(p[2]) + Double.parseDouble(p[1])));
+                default -> throw new IllegalArgumentException("unknown think time distribution: " + spec);
+            };
+        }
+    }
+
+    /** Hands STOMP payloads to the handlers as JSON text. */
+    static final class JsonText extends AbstractMessageConverter {
+        JsonText() {
+            super(List.of(MimeTypeUtils.APPLICATION_JSON, MimeTypeUtils.TEXT_PLAIN));
+            setStrictContentTypeMatch(false);
+        }
+
+        @Override
+        protected boolean supports(Class<?> clazz) {
+            return clazz == String.class;
+        }
+
+        @Override
+        protected Object convertFromInternal(Message<?> message, Class<?> targetClass, Object conversionHint) {
+            return new String((byte[]) message.getPayload(), StandardCharsets.UTF_8);
+        }
+
+        @Override
+        protected Object convertToInternal(Object payload, MessageHeaders headers, Object conversionHint) {
+            return ((String) payload).getBytes(StandardCharsets.UTF_8);
+        }
+    }
+
+    /** Latencies in microseconds; appended from many client threads. */
+    static final class Samples {
+        private long[] values = new long[1 << 16];
+        private int size;
+
+        synchronized void add(long micros) {
+            if (size == values.length) values = Arrays.copyOf(values, size * 2);
+            values[size++] = micros;
+        }
+
+        synchronized long[] sorted() {
+            long[] copy = Arrays.copyOf(values, size);
+            Arrays.sort(copy);
+            return copy;
+        }
+    }
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+    private static final String THREAD_PREFIX = "loadgen-";
+
+    private final int rooms = Integer.getInteger("loadgen.rooms", 10);
+    private final int players = Integer.getInteger("loadgen.players", 50);
+    private final int questions = Integer.getInteger("loadgen.questions", 3);
+    private final ThinkTime think = ThinkTime.parse(System.getProperty("loadgen.think", "uniform:500:4000"));
+    private final double accuracy = Double.parseDouble(System.getProperty("loadgen.accuracy", "0.8"));
+    private final long nextDelayMs = Long.getLong("loadgen.next-delay-ms", 2000);
+    private final long timeoutSeconds = Long.getLong("loadgen.timeout-s", 900);
+
+    private final RestTemplate rest = new RestTemplate();
+    private final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(4, r -> {
+        Thread t = new Thread(r, THREAD_PREFIX + "scheduler");
+        t.setDaemon(true);
+        return t;
+    });
+    private final Samples latencies = new Samples();
+    private final AtomicLong answersSent = new AtomicLong();
+    private final AtomicLong framesReceived = new AtomicLong();
+    private int port;
+    private String baseUrl;
+    private WebSocketStompClient stomp;
+    private volatile boolean stopping;
+
+    public static void main(String[] args) throws Exception {
+        PrintStream console = System.out;
+        boolean quiet = Boolean.parseBoolean(System.getProperty("loadgen.quiet", "true"));
+        if (quiet) System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        ConfigurableApplicationContext server = SpringApplication.run(QuizArenaApplication.class, "--server.port=0");
+        try {
+            int port = ((WebServerApplicationContext) server).getWebServer().getPort();
+            new LoadGenerator().run(port, server.getBean(MeterRegistry.class), console);
+        } finally {
+            server.close();
+            System.setOut(console);
+        }
+    }
+
+    // ---- one room ----
+
+    final class Player {
+        final String code;
+        final String playerId;
+        final String token;
+        final int slot;
+        final List<Map<String, Object>> answerKey;
+        StompSession session;
+        volatile long pendingSinceNanos; // a correct answer is waiting to show up on the leaderboard
+        volatile int knownScore;
+
+        Player(String code, Map<String, Object> joined, List<Map<String, Object>> answerKey) {
+            this.code = code;
+            this.playerId = (String) joined.get("playerId");
+            this.token = (String) joined.get("token");
+            this.slot = ((Number) joined.get("slot")).intValue();
+            this.answerKey = answerKey;
+        }
+
+        void onQuestion(String payload) throws Exception {
+            JsonNode q = JSON.readTree(payload);
+            long questionId = q.get("questionId").asLong();
+            long closesAt = q.get("closedAtEpochMs").asLong();
+            long delay = think.next(ThreadLocalRandom.current());
+            if (System.currentTimeMillis() + delay >= closesAt) return; // too slow this time
+            scheduler.schedule(() -> answer(q, questionId), delay, TimeUnit.MILLISECONDS);
+        }
+
+        private void answer(JsonNode question, long questionId) {
+            List<String> options = new ArrayList<>();
+            question.get("options").forEach(o -> options.add(o.asText()));
+            String correct = (String) answerKey.get(question.get("currentIndex").asInt() - 1).get("correctAnswer");
+            boolean right = ThreadLocalRandom.current().nextDouble() < accuracy;
+            String choice = right ? correct : options.stream().filter(o -> !o.equals(correct)).findAny().orElse(correct);
+
+            StompHeaders headers = new StompHeaders();
+            headers.setDestination("/app/room/" + code + "/answer");
+            headers.setContentType(MimeTypeUtils.APPLICATION_JSON);
+            String body = "{\"playerId\":\"" + playerId + "\",\"answer\":" + quote(choice) + ",\"questionId\":" + questionId
+                    + ",\"clientTimestampMs\":" + System.currentTimeMillis() + "}";
+            if (right) pendingSinceNanos = System.nanoTime();
+            session.send(headers, body);
+            answersSent.incrementAndGet();
+        }
+
+        /** A leaderboard or rank frame arrived; look for our score only while an answer is pending. */
+        void onStanding(String payload, boolean rankPush) throws Exception {
+            long since = pendingSinceNanos;
+            if (since == 0) return;
+            JsonNode frame = JSON.readTree(payload);
+            int score = -1;
+            if (rankPush) {
+                score = frame.get("totalScore").asInt();
+            } else {
+                for (JsonNode e : frame.get("entries")) {
+                    if (e.path("slot").asInt(-1) == slot) {
+                        score = e.get("totalScore").asInt();
+                        break;
+                    }
+                }
+            }
+            if (score > knownScore) {
+                knownScore = score;
+                pendingSinceNanos = 0;
+                latencies.add((System.nanoTime() - since) / 1_000);
+            }
+        }
+    }
+
+    final class Host {
+        final String code;
+        final String hostToken;
+        final CountDownLatch done;
+        StompSession session;
+        int played;
+
+        Host(String code, String hostToken, CountDownLatch done) {
+            this.code = code;
+            this.hostToken = hostToken;
+            this.done = done;
+        }
+
+        void onReveal(String payload) throws Exception {
+            played++;
+            if (JSON.readTree(payload).get("finished").asBoolean() || played >= questions) {
+                done.countDown();
+                return;
+            }
+            scheduler.schedule(() -> post("/" + code + "/next", hostToken), nextDelayMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    // ---- the run ----
+
+    @SuppressWarnings("unchecked")
+    void run(int port, MeterRegistry registry, PrintStream out) throws Exception {
+        this.port = port;
+        baseUrl = "http://localhost:" + port + "/api/rooms";
+        stomp = new WebSocketStompClient(new StandardWebSocketClient());
+        stomp.setMessageConverter(new JsonText());
+        stomp.setInboundMessageSizeLimit(8 * 1024 * 1024);
+        out.printf("[loadgen] %d rooms x %d players, %d questions, think=%s, accuracy=%.2f, port=%d%n",
+                rooms, players, questions, System.getProperty("loadgen.think", "uniform:500:4000"), accuracy, port);
+
+        CountDownLatch done = new CountDownLatch(rooms);
+        List<Host> hosts = new ArrayList<>();
+        List<List<Player>> roster = new ArrayList<>();
+        for (int r = 0; r < rooms; r++) {
+            Map<String, Object> created = rest.postForObject(baseUrl, null, Map.class);
+            String code = (String) created.get("roomCode");
+            Host host = new Host(code, (String) created.get("hostToken"), done);
+            host.session = connect(null, null);
+            subscribe(host.session, "/topic/room/" + code + "/reveal", host::onReveal);
+            hosts.add(host);
+
+            List<Map<String, Object>> answerKey = new CopyOnWriteArrayList<>(); // filled right after start
+            List<Player> room = new ArrayList<>();
+            for (int p = 0; p < players; p++) {
+                Map<String, Object> joined = rest.postForObject(baseUrl + "/" + code + "/join", Map.of("nickname", "lg-" + r + "-" + p), Map.class);
+                room.add(new Player(code, joined, answerKey));
+            }
+            List<CompletableFuture<StompSession>> sessions = new ArrayList<>();
+            for (Player p : room) sessions.add(connectAsync(p.playerId, p.token));
+            for (int i = 0; i < room.size(); i++) {
+                Player p = room.get(i);
+                p.session = sessions.get(i).get(30, TimeUnit.SECONDS);
+                subscribe(p.session, "/topic/room/" + code + "/question", p::onQuestion);
+                subscribe(p.session, "/topic/room/" + code + "/leaderboard", payload -> p.onStanding(payload, false));
+                subscribe(p.session, "/user/queue/rank", payload -> p.onStanding(payload, true));
+            }
+            roster.add(room);
+        }
+        out.printf("[loadgen] %d sessions connected%n", rooms * (players + 1));
+        Thread.sleep(500); // let the subscriptions land before the first question is broadcast
+
+        long cpuBefore = serverCpuNanos();
+        long wallBefore = System.nanoTime();
+        for (int r = 0; r < rooms; r++) {
+            Host host = hosts.get(r);
+            post("/" + host.code + "/start", host.hostToken);
+            roster.get(r).get(0).answerKey.addAll(rest.getForObject(baseUrl + "/" + host.code + "/questions", List.class));
+        }
+        if (!done.await(timeoutSeconds, TimeUnit.SECONDS)) out.printf("[loadgen] timed out, %d rooms unfinished%n", done.getCount());
+        long wallNanos = System.nanoTime() - wallBefore;
+        double cores = (serverCpuNanos() - cpuBefore) / (double) wallNanos;
+
+        long[] sorted = latencies.sorted();
+        double drops = registry.find("quiz.broker.dropped").counters().stream().mapToDouble(Counter::count).sum();
+        Counter disconnects = registry.find("quiz.broker.disconnects").counter();
+        out.printf("[loadgen] %.1f s, %d answers sent, %d frames received, %d latencies measured%n",
+                wallNanos / 1e9, answersSent.get(), framesReceived.get(), sorted.length);
+        out.printf("[loadgen] answer -> leaderboard  p50 %s  p99 %s  p999 %s  max %s%n",
+                ms(sorted, 0.50), ms(sorted, 0.99), ms(sorted, 0.999), ms(sorted, 1.0));
+        out.printf("[loadgen] frames dropped by broker: %.0f, slow-consumer disconnects: %.0f%n",
+                drops, disconnects == null ? 0 : disconnects.count());
+        out.printf("[loadgen] server CPU: %.2f cores busy on average (%d available)%n", cores, Runtime.getRuntime().availableProcessors());
+
+        stopping = true;
+        for (Host host : hosts) host.session.disconnect();
+        for (List<Player> room : roster) for (Player p : room) p.session.disconnect();
+        stomp.stop();
+        scheduler.shutdownNow();
+    }
+
+    // ---- plumbing ----
+
+    @FunctionalInterface
+    interface FrameConsumer {
+        void accept(String payload) throws Exception;
+    }
+
+    private void subscribe(StompSession session, String destination, FrameConsumer consumer) {
+        session.subscribe(destination, new StompFrameHandler() {
+            @Override
+            public Type getPayloadType(StompHeaders headers) {
+                return String.class;
+            }
+
+            @Override
+            public void handleFrame(StompHeaders headers, Object payload) {
+                framesReceived.incrementAndGet();
+                try {
+                    consumer.accept((String) payload);
+                } catch (Exception e) {
+                    System.err.println("[LoadGenerator] 处理帧失败: " + destination + " " + e);
+                }
+            }
+        });
+    }
+
+    private StompSession connect(String playerId, String token) throws Exception {
+        return connectAsync(playerId, token).get(30, TimeUnit.SECONDS);
+    }
+
+    private CompletableFuture<StompSession> connectAsync(String playerId, String token) {
+        StompHeaders connect = new StompHeaders();
+        if (playerId != null) {
+            connect.add("playerId", playerId);
+            connect.add("playerToken", token);
+        }
+        return stomp.connectAsync("ws://localhost:" + port + "/ws",
+                new WebSocketHttpHeaders(), connect, new StompSessionHandlerAdapter() {
+                    @Override
+                    public void handleTransportError(StompSession session, Throwable exception) {
+                        if (!stopping) System.err.println("[LoadGenerator] 连接错误: " + exception);
+                    }
+                });
+    }
+
+    private void post(String path, String hostToken) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.add("X-Host-Token", hostToken);
+        rest.exchange(baseUrl + path, HttpMethod.POST, new HttpEntity<>(null, headers), Map.class);
+    }
+
+    /** Process CPU time minus the generator's own threads (scheduler, WebSocket client I/O). */
+    private static long serverCpuNanos() {
+        long total = ((com.sun.management.OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean()).getProcessCpuTime();
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        for (ThreadInfo info : threads.getThreadInfo(threads.getAllThreadIds())) {
+            if (info == null) continue;
+            String name = info.getThreadName();
+            if (!name.startsWith(THREAD_PREFIX) && !name.startsWith("WebSocketClient")) continue;
+            long cpu = threads.getThreadCpuTime(info.getThreadId());
+            if (cpu > 0) total -= cpu;
+        }
+        return total;
+    }
+
+    private static String ms(long[] sorted, double p) {
+        if (sorted.length == 0) return "-";
+        long micros = sorted[(int) Math.min(sorted.length - 1, Math.round(p * (sorted.length - 1)))];
+        return String.format("%.1fms", micros / 1000.0);
+    }
+
+    private static String quote(String s) {
+        try {
+            return JSON.writeValueAsString(s);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
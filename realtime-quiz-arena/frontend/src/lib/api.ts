@@ -42,7 +42,7 @@ api.interceptors.response.use(
 )
 
 export type RoomCreateResponse = { roomCode: string; hostToken: string }
-export type JoinRoomResponse = { playerId: string; nickname: string }
+export type JoinRoomResponse = { playerId: string; token: string; nickname: string; slot: number }
 
 export type QuestionPush = {
     questionId: number
@@ -69,7 +69,7 @@ export type QuestionWithAnswer = QuestionResponse & {
 }
 
 export type LeaderboardEntry = {
-    playerId: string
+    slot: number
     nickname: string
     totalScore: number
 }
@@ -1,6 +1,6 @@
 import { Client } from '@stomp/stompjs'
 
-export function connectStomp(onConnected: (client: Client) => void) {
+export function connectStomp(onConnected: (client: Client) => void, connectHeaders: Record<string, string> = {}) {
     const wsUrl =
         (location.protocol === 'https:' ? 'wss://' : 'ws://') +
         location.host +
@@ -8,6 +8,7 @@ export function connectStomp(onConnected: (client: Client) => void) {
 
     const client = new Client({
         brokerURL: wsUrl,
+        connectHeaders,
         reconnectDelay: 2000,
         heartbeatIncoming: 10000,
         heartbeatOutgoing: 10000,
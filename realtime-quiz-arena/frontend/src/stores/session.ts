@@ -5,6 +5,7 @@ export const useSessionStore = defineStore('session', {
     roomCode: '' as string,
     hostToken: '' as string,
     playerId: '' as string,
+    playerToken: '' as string, // proves playerId on the STOMP CONNECT; never shown to others
     nickname: '' as string,
     userAnswers: {} as Record<number, string>
   }),